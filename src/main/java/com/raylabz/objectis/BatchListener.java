@@ -0,0 +1,10 @@
+package com.raylabz.objectis;
+
+/**
+ * Receives statistics about each batch written by a bulk operation.
+ */
+public interface BatchListener {
+
+    void onBatchWritten(BatchStatistics statistics);
+
+}
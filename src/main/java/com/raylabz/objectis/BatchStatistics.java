@@ -0,0 +1,63 @@
+package com.raylabz.objectis;
+
+/**
+ * Describes the outcome of writing a single batch during a bulk operation.
+ */
+public class BatchStatistics {
+
+    private final int batchIndex;
+    private final int numOfObjects;
+    private final long numOfBytes;
+    private final long timeNanos;
+
+    public BatchStatistics(int batchIndex, int numOfObjects, long numOfBytes, long timeNanos) {
+        this.batchIndex = batchIndex;
+        this.numOfObjects = numOfObjects;
+        this.numOfBytes = numOfBytes;
+        this.timeNanos = timeNanos;
+    }
+
+    /**
+     * Retrieves the position of the batch within the bulk operation, starting from 0.
+     * @return Returns an int.
+     */
+    public int getBatchIndex() {
+        return batchIndex;
+    }
+
+    public int getNumOfObjects() {
+        return numOfObjects;
+    }
+
+    public long getNumOfBytes() {
+        return numOfBytes;
+    }
+
+    /**
+     * Retrieves the time taken to send the batch to Redis and receive its replies.
+     * @return Returns the time in nanoseconds.
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    public double getObjectsPerSecond() {
+        return timeNanos == 0 ? 0 : numOfObjects * 1_000_000_000.0 / timeNanos;
+    }
+
+    public double getBytesPerSecond() {
+        return timeNanos == 0 ? 0 : numOfBytes * 1_000_000_000.0 / timeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchStatistics{" +
+                "batchIndex=" + batchIndex +
+                ", numOfObjects=" + numOfObjects +
+                ", numOfBytes=" + numOfBytes +
+                ", timeNanos=" + timeNanos +
+                ", objectsPerSecond=" + String.format("%.1f", getObjectsPerSecond()) +
+                '}';
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.raylabz.objectis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the IDs of the objects of a class, a page at a time, using SSCAN on the class list.
+ * IDs added or removed during the iteration may or may not be returned, and an ID may be returned more than once if the class list is
+ * resized by Redis during the iteration. A connection is only borrowed from the pool while a page is being read.
+ */
+final class ClassListScanner implements Iterator<List<byte[]>> {
+
+    private final byte[] classListPath;
+    private final ScanParams scanParams;
+    private byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+    private boolean scanFinished = false;
+    private List<byte[]> page = null;
+
+    /**
+     * Constructs a scanner.
+     * @param metadata The metadata of the class.
+     * @param pageSize The number of IDs requested from Redis per page. This is a hint passed to SSCAN as its COUNT argument.
+     */
+    ClassListScanner(ClassMetadata metadata, int pageSize) {
+        this.classListPath = metadata.getClassListPath();
+        this.scanParams = new ScanParams().count(pageSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (page == null && !scanFinished) {
+            final Jedis jedis = Objectis.getJedis();
+            try {
+                final ScanResult<byte[]> result = jedis.sscan(classListPath, cursor, scanParams);
+                cursor = result.getCursorAsBytes();
+                scanFinished = Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY);
+                if (!result.getResult().isEmpty()) {
+                    page = result.getResult();
+                }
+            } finally {
+                Objectis.releaseJedis(jedis);
+            }
+        }
+        return page != null;
+    }
+
+    @Override
+    public List<byte[]> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final List<byte[]> ids = page;
+        page = null;
+        return ids;
+    }
+
+}
@@ -0,0 +1,417 @@
+package com.raylabz.objectis;
+
+import com.raylabz.objectis.annotation.Indexed;
+import com.raylabz.objectis.annotation.RangeIndexed;
+import com.raylabz.objectis.exception.InvalidFieldException;
+import com.raylabz.objectis.serializer.FieldSerializer;
+import com.raylabz.objectis.serializer.JavaObjectSerializer;
+import com.raylabz.objectis.serializer.ObjectSerializer;
+import com.raylabz.objectis.serializer.ProjectingSerializer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes a registered class using information that is computed once, at registration: accessors for its ID
+ * and other fields, its indexes, its serializer, its storage layout and the prefixes of its keys. Instances are immutable and safe to share between threads.
+ */
+public final class ClassMetadata {
+
+    private final Class<?> aClass;
+    private final FieldAccessor idAccessor;
+    private final LinkedHashMap<String, FieldAccessor> fieldAccessors;
+    private final LinkedHashMap<String, EqualityIndex> equalityIndexes;
+    private final LinkedHashMap<String, RangeIndex> rangeIndexes;
+    private final ObjectSerializer<?> serializer;
+    private final StorageLayout storageLayout;
+    private final HashMap<String, byte[]> hashFields = new HashMap<>();
+    private final byte[][] indexedHashFields;
+    private final byte[] objectPathPrefix;
+    private final byte[] classListPath;
+    private final byte[] collectionPathPrefix;
+
+    /**
+     * Builds the metadata of a class that uses Java serialization.
+     * @param aClass The class.
+     */
+    public ClassMetadata(Class<?> aClass) {
+        this(aClass, new JavaObjectSerializer<>(aClass));
+    }
+
+    /**
+     * Builds the metadata of a class.
+     * @param aClass The class.
+     * @param serializer The serializer used for objects of the class.
+     */
+    public ClassMetadata(Class<?> aClass, ObjectSerializer<?> serializer) {
+        this(aClass, serializer, StorageLayout.VALUE);
+    }
+
+    /**
+     * Builds the metadata of a class.
+     * @param aClass The class.
+     * @param serializer The serializer used for objects of the class.
+     * @param storageLayout The layout used to store objects of the class.
+     * @throws IllegalArgumentException thrown when the hash layout is used with a serializer that does not implement FieldSerializer,
+     * or with a serializer that does not store an indexed field.
+     */
+    public ClassMetadata(Class<?> aClass, ObjectSerializer<?> serializer, StorageLayout storageLayout) throws IllegalArgumentException {
+        if (storageLayout == StorageLayout.HASH && !(serializer instanceof FieldSerializer)) {
+            throw new IllegalArgumentException("Objects of class '" + aClass.getName() + "' cannot be stored as hashes, as their serializer ("
+                    + serializer.getClass().getSimpleName() + ") cannot serialize fields on their own.");
+        }
+        this.aClass = aClass;
+        this.serializer = serializer;
+        this.storageLayout = storageLayout;
+        this.objectPathPrefix = Serializer.serializeKey(aClass.getName() + "/");
+        this.classListPath = Serializer.serializeKey(aClass.getName());
+        this.collectionPathPrefix = Serializer.serializeKey(aClass.getName() + ":");
+        this.fieldAccessors = new LinkedHashMap<>();
+        this.equalityIndexes = new LinkedHashMap<>();
+        this.rangeIndexes = new LinkedHashMap<>();
+
+        //Fields of subclasses hide fields of their superclasses with the same name:
+        final ArrayList<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = aClass; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        try {
+            for (Class<?> current : hierarchy) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                        final FieldAccessor accessor = new FieldAccessor(field);
+                        fieldAccessors.put(field.getName(), accessor);
+                        if (field.isAnnotationPresent(Indexed.class)) {
+                            equalityIndexes.put(field.getName(), new EqualityIndex(aClass, accessor));
+                        }
+                        else {
+                            equalityIndexes.remove(field.getName());
+                        }
+                        if (field.isAnnotationPresent(RangeIndexed.class)) {
+                            rangeIndexes.put(field.getName(), new RangeIndex(aClass, accessor));
+                        }
+                        else {
+                            rangeIndexes.remove(field.getName());
+                        }
+                    }
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access the fields of class '" + aClass.getName() + "'.", e);
+        }
+
+        final FieldAccessor idFieldAccessor = fieldAccessors.get("id");
+        this.idAccessor = (idFieldAccessor != null && idFieldAccessor.getType() == String.class) ? idFieldAccessor : null;
+
+        final ArrayList<byte[]> indexedFields = new ArrayList<>();
+        if (storageLayout == StorageLayout.HASH) {
+            for (String fieldName : ((FieldSerializer<?>) serializer).getFieldNames()) {
+                final byte[] hashField = Serializer.serializeKey(fieldName);
+                hashFields.put(fieldName, hashField);
+                if (equalityIndexes.containsKey(fieldName) || rangeIndexes.containsKey(fieldName)) {
+                    indexedFields.add(hashField);
+                }
+            }
+            //Old index entries are found by reading the indexed fields back, so all of them need to be stored:
+            final HashSet<String> indexedFieldNames = new HashSet<>(equalityIndexes.keySet());
+            indexedFieldNames.addAll(rangeIndexes.keySet());
+            indexedFieldNames.removeAll(hashFields.keySet());
+            if (!indexedFieldNames.isEmpty()) {
+                throw new IllegalArgumentException("Objects of class '" + aClass.getName() + "' cannot be stored as hashes, as their serializer ("
+                        + serializer.getClass().getSimpleName() + ") does not store the indexed fields " + indexedFieldNames + ".");
+            }
+        }
+        this.indexedHashFields = indexedFields.toArray(new byte[0][]);
+    }
+
+    public Class<?> getObjectClass() {
+        return aClass;
+    }
+
+    /**
+     * Retrieves the accessor of the 'id' field.
+     * @return Returns a FieldAccessor, or null if the class has no 'id' field of type String.
+     */
+    public FieldAccessor getIdAccessor() {
+        return idAccessor;
+    }
+
+    /**
+     * Retrieves the accessor of a field by name, including fields declared in superclasses.
+     * @param fieldName The field name.
+     * @return Returns a FieldAccessor, or null if the field does not exist.
+     */
+    public FieldAccessor getFieldAccessor(String fieldName) {
+        return fieldAccessors.get(fieldName);
+    }
+
+    /**
+     * Retrieves the accessors of all non-static fields of the class.
+     * @return Returns a collection of accessors.
+     */
+    public Collection<FieldAccessor> getFieldAccessors() {
+        return Collections.unmodifiableCollection(fieldAccessors.values());
+    }
+
+    /**
+     * Retrieves the equality index of a field.
+     * @param fieldName The field name.
+     * @return Returns an EqualityIndex, or null if the field is not indexed.
+     */
+    public EqualityIndex getEqualityIndex(String fieldName) {
+        return equalityIndexes.get(fieldName);
+    }
+
+    /**
+     * Retrieves the equality indexes of all fields annotated with Indexed.
+     * @return Returns a collection of indexes.
+     */
+    public Collection<EqualityIndex> getEqualityIndexes() {
+        return Collections.unmodifiableCollection(equalityIndexes.values());
+    }
+
+    /**
+     * Retrieves the range index of a field.
+     * @param fieldName The field name.
+     * @return Returns a RangeIndex, or null if the field is not range indexed.
+     */
+    public RangeIndex getRangeIndex(String fieldName) {
+        return rangeIndexes.get(fieldName);
+    }
+
+    /**
+     * Retrieves the range indexes of all fields annotated with RangeIndexed.
+     * @return Returns a collection of indexes.
+     */
+    public Collection<RangeIndex> getRangeIndexes() {
+        return Collections.unmodifiableCollection(rangeIndexes.values());
+    }
+
+    /**
+     * Checks if the class has indexed fields, in which case writes and deletions also need to maintain its indexes.
+     * @return Returns true if the class has indexes, false otherwise.
+     */
+    public boolean hasIndexes() {
+        return !equalityIndexes.isEmpty() || !rangeIndexes.isEmpty();
+    }
+
+    /**
+     * Retrieves the serializer used for objects of this class.
+     * @param <T> The type of the class.
+     * @return Returns an ObjectSerializer.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ObjectSerializer<T> getSerializer() {
+        return (ObjectSerializer<T>) serializer;
+    }
+
+    /**
+     * Serializes an object of this class.
+     * @param object The object.
+     * @return Returns a byte[].
+     */
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object object) {
+        return ((ObjectSerializer<Object>) serializer).serialize(object);
+    }
+
+    /**
+     * Deserializes an object of this class.
+     * @param bytes The serialized object.
+     * @param aClass The class of the object.
+     * @param <T> The type of the object.
+     * @return Returns an object.
+     */
+    public <T> T deserialize(byte[] bytes, Class<T> aClass) {
+        return aClass.cast(serializer.deserialize(bytes));
+    }
+
+    /**
+     * Deserializes some of the fields of an object of this class. If the serializer of the class cannot deserialize fields
+     * on their own, the whole object is deserialized.
+     * @param bytes The serialized object.
+     * @param aClass The class of the object.
+     * @param fieldNames The names of the fields to deserialize, or null to deserialize all fields.
+     * @param <T> The type of the object.
+     * @return Returns an object in which at least the given fields are set.
+     */
+    public <T> T deserialize(byte[] bytes, Class<T> aClass, Set<String> fieldNames) {
+        if (fieldNames != null && serializer instanceof ProjectingSerializer) {
+            return aClass.cast(((ProjectingSerializer<?>) serializer).deserialize(bytes, fieldNames));
+        }
+        return deserialize(bytes, aClass);
+    }
+
+    /**
+     * Checks if objects of this class can be partially deserialized.
+     * @return Returns true if the serializer of the class can deserialize fields on their own, false otherwise.
+     */
+    public boolean canDeserializeFields() {
+        return serializer instanceof ProjectingSerializer;
+    }
+
+    public StorageLayout getStorageLayout() {
+        return storageLayout;
+    }
+
+    /**
+     * Checks if objects of this class are stored as hashes.
+     * @return Returns true if the class uses the hash layout, false if objects are stored as single values.
+     */
+    public boolean isHashLayout() {
+        return storageLayout == StorageLayout.HASH;
+    }
+
+    /**
+     * Serializes an object of this class into the entries of its hash.
+     * @param object The object.
+     * @return Returns a map of UTF-8 encoded field names to encoded values.
+     */
+    public Map<byte[], byte[]> serializeHash(Object object) {
+        final Map<String, byte[]> values = serializeFields(object);
+        final LinkedHashMap<byte[], byte[]> hash = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+            hash.put(hashFields.get(entry.getKey()), entry.getValue());
+        }
+        return hash;
+    }
+
+    /**
+     * Serializes the fields of an object of this class that are stored in its hash.
+     * @param object The object.
+     * @return Returns a map of field names to encoded values.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, byte[]> serializeFields(Object object) {
+        return ((FieldSerializer<Object>) serializer).serializeFields(object);
+    }
+
+    /**
+     * Serializes a value of a field into the value of its hash entry.
+     * @param fieldName The name of the field.
+     * @param value The value.
+     * @return Returns the encoded value.
+     * @throws InvalidFieldException thrown when the field is not stored in the hash or the value cannot be assigned to the field.
+     */
+    public byte[] serializeHashField(String fieldName, Object value) throws InvalidFieldException {
+        if (!hashFields.containsKey(fieldName)) {
+            throw new InvalidFieldException("The field '" + fieldName + "' is not stored for objects of class '" + aClass.getName() + "'.");
+        }
+        try {
+            return ((FieldSerializer<?>) serializer).serializeField(fieldName, value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFieldException(e);
+        }
+    }
+
+    /**
+     * Retrieves the UTF-8 encoded names of the hash entries of some fields.
+     * @param fieldNames The names of the fields.
+     * @return Returns a byte[][], without the fields that are not stored in the hash.
+     */
+    public byte[][] getHashFields(Collection<String> fieldNames) {
+        final ArrayList<byte[]> fields = new ArrayList<>(fieldNames.size());
+        for (String fieldName : fieldNames) {
+            final byte[] hashField = hashFields.get(fieldName);
+            if (hashField != null) {
+                fields.add(hashField);
+            }
+        }
+        return fields.toArray(new byte[0][]);
+    }
+
+    /**
+     * Retrieves the UTF-8 encoded names of the hash entries of indexed fields, which are needed to find the index entries of a stored object.
+     * @return Returns a byte[][]. The array is shared and must not be modified.
+     */
+    public byte[][] getIndexedHashFields() {
+        return indexedHashFields;
+    }
+
+    /**
+     * Deserializes an object of this class from the entries of its hash.
+     * @param hash The entries returned by HGETALL, mapping UTF-8 encoded field names to values.
+     * @param aClass The class of the object.
+     * @param <T> The type of the object.
+     * @return Returns an object, or null if the hash is empty, which means the object does not exist.
+     */
+    public <T> T deserializeHash(Map<byte[], byte[]> hash, Class<T> aClass) {
+        if (hash == null || hash.isEmpty()) {
+            return null;
+        }
+        final HashMap<String, byte[]> values = new HashMap<>();
+        for (Map.Entry<byte[], byte[]> entry : hash.entrySet()) {
+            values.put(new String(entry.getKey(), StandardCharsets.UTF_8), entry.getValue());
+        }
+        return aClass.cast(((FieldSerializer<?>) serializer).deserializeFields(values));
+    }
+
+    /**
+     * Deserializes some of the fields of an object of this class from the values of its hash entries.
+     * @param hashFields The UTF-8 encoded names of the hash entries, as returned by getHashFields().
+     * @param values The values returned by HMGET for the hash entries, in the same order.
+     * @param aClass The class of the object.
+     * @param <T> The type of the object.
+     * @return Returns an object in which the given fields are set, or null if none of the entries exist.
+     */
+    public <T> T deserializeHashFields(byte[][] hashFields, List<byte[]> values, Class<T> aClass) {
+        final HashMap<String, byte[]> fieldValues = new HashMap<>();
+        for (int i = 0; i < hashFields.length; i++) {
+            if (values.get(i) != null) {
+                fieldValues.put(new String(hashFields[i], StandardCharsets.UTF_8), values.get(i));
+            }
+        }
+        if (fieldValues.isEmpty()) {
+            return null;
+        }
+        return aClass.cast(((FieldSerializer<?>) serializer).deserializeFields(fieldValues));
+    }
+
+    /**
+     * Retrieves the UTF-8 encoded prefix of the paths of objects of this class: #CLASS_NAME#/
+     * @return Returns a byte[]. The array is shared and must not be modified.
+     */
+    public byte[] getObjectPathPrefix() {
+        return objectPathPrefix;
+    }
+
+    /**
+     * Retrieves the UTF-8 encoded path of the list of objects of this class: #CLASS_NAME#
+     * @return Returns a byte[]. The array is shared and must not be modified.
+     */
+    public byte[] getClassListPath() {
+        return classListPath;
+    }
+
+    /**
+     * Retrieves the UTF-8 encoded prefix of the paths of collections of this class: #CLASS_NAME#:
+     * @return Returns a byte[]. The array is shared and must not be modified.
+     */
+    public byte[] getCollectionPathPrefix() {
+        return collectionPathPrefix;
+    }
+
+    /**
+     * Retrieves the ID of an object of this class.
+     * @param object The object.
+     * @return Returns the ID.
+     * @throws IllegalStateException thrown when the class has no String field called 'id', which only happens for classes that are not registered.
+     */
+    public String getId(Object object) throws IllegalStateException {
+        if (idAccessor == null) {
+            throw new IllegalStateException("Class '" + aClass.getName() + "' does not have a String field called 'id'.");
+        }
+        return (String) idAccessor.get(object);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.raylabz.objectis;
+
+import com.raylabz.objectis.concurrency.ArrayRange;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Serializes a range of objects into a batch that can be written with a single MSET and SADD, along with their index entries.
+ * Objects of classes stored as hashes are serialized into hash entries, written with an HSET per object.
+ * @param <T> The type of objects.
+ */
+class CreateManyCallable<T> implements Callable<SerializedBatch> {
+
+    private final List<T> objects;
+    private final ArrayRange range;
+
+    CreateManyCallable(final List<T> objects, final ArrayRange range) {
+        this.objects = objects;
+        this.range = range;
+    }
+
+    @Override
+    public SerializedBatch call() throws Exception {
+        final long startTime = System.nanoTime();
+        byte[][] keysAndValues = new byte[range.size() * 2][];
+        final Map<ByteBuffer, Map<byte[], byte[]>> hashes = new LinkedHashMap<>();
+        final Map<Class<?>, List<byte[]>> idsPerClass = new LinkedHashMap<>();
+        final Map<ByteBuffer, List<byte[]>> indexEntries = new LinkedHashMap<>();
+        final Map<ByteBuffer, Map<byte[], Double>> rangeIndexEntries = new LinkedHashMap<>();
+        final Map<ClassMetadata, List<byte[]>> indexedIdsPerClass = new LinkedHashMap<>();
+        long numOfBytes = 0;
+        int index = 0;
+        ClassMetadata metadata = null;
+        for (int i = range.getStartingItemIndex(); i < range.getEndingItemIndex(); i++) {
+            final T object = objects.get(i);
+            if (metadata == null || metadata.getObjectClass() != object.getClass()) {
+                metadata = ObjectisRegistry.getMetadata(object.getClass());
+                if (metadata == null) {
+                    throw new ClassRegistrationException(object.getClass());
+                }
+            }
+            final byte[] id = Serializer.serializeKey(metadata.getId(object));
+            if (metadata.isHashLayout()) {
+                final Map<byte[], byte[]> hash = metadata.serializeHash(object);
+                for (byte[] value : hash.values()) {
+                    numOfBytes += value.length;
+                }
+                hashes.put(ByteBuffer.wrap(PathMaker.getObjectPath(metadata, id)), hash);
+            }
+            else {
+                final byte[] objectBytes = metadata.serialize(object);
+                keysAndValues[index++] = PathMaker.getObjectPath(metadata, id);
+                keysAndValues[index++] = objectBytes;
+                numOfBytes += objectBytes.length;
+            }
+            idsPerClass.computeIfAbsent(object.getClass(), c -> new ArrayList<>()).add(id);
+            if (metadata.hasIndexes()) {
+                IndexWriter.collect(indexEntries, rangeIndexEntries, metadata, id, object);
+                indexedIdsPerClass.computeIfAbsent(metadata, m -> new ArrayList<>()).add(id);
+            }
+        }
+        if (index < keysAndValues.length) {
+            keysAndValues = Arrays.copyOf(keysAndValues, index);
+        }
+        return new SerializedBatch(keysAndValues, hashes, idsPerClass, indexEntries, rangeIndexEntries, indexedIdsPerClass, range.size(), numOfBytes, System.nanoTime() - startTime);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.raylabz.objectis;
+
+import com.raylabz.objectis.concurrency.ArrayRange;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.MultiKeyPipelineBase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Deletes a range of objects using a single variadic DEL (or UNLINK) and SREM on its own connection.
+ * If the class of the objects has indexes, the stored objects are first read with a single MGET (or a pipeline of HMGETs for
+ * objects stored as hashes) to remove their index entries.
+ */
+class DeleteManyCallable implements Callable<Void> {
+
+    private final ClassMetadata metadata;
+    private final byte[][] objectPaths;
+    private final byte[][] ids;
+    private final ArrayRange range;
+    private final boolean unlink;
+
+    DeleteManyCallable(final ClassMetadata metadata, final byte[][] objectPaths, final byte[][] ids, final ArrayRange range, final boolean unlink) {
+        this.metadata = metadata;
+        this.objectPaths = objectPaths;
+        this.ids = ids;
+        this.range = range;
+        this.unlink = unlink;
+    }
+
+    @Override
+    public Void call() throws Exception {
+        final Jedis jedis = Objectis.getJedis();
+        try {
+            deleteRange(jedis);
+        } finally {
+            Objectis.releaseJedis(jedis);
+        }
+        return null;
+    }
+
+    /**
+     * Deletes the range of objects using the given connection.
+     * @param jedis The connection to use.
+     */
+    void deleteRange(final Jedis jedis) {
+        final byte[][] objectPathsInRange = Arrays.copyOfRange(objectPaths, range.getStartingItemIndex(), range.getEndingItemIndex());
+        final byte[][] idsInRange = Arrays.copyOfRange(ids, range.getStartingItemIndex(), range.getEndingItemIndex());
+        final List<Object> storedObjects = metadata.hasIndexes() ? Objectis.getStoredObjects(jedis, metadata, objectPathsInRange) : null;
+        final MultiKeyPipelineBase pipeline = Objectis.beginWrite(jedis);
+        if (storedObjects != null) {
+            for (int i = 0; i < idsInRange.length; i++) {
+                if (storedObjects.get(i) != null) {
+                    IndexWriter.unindex(pipeline, metadata, idsInRange[i], storedObjects.get(i));
+                }
+            }
+        }
+        if (unlink) {
+            pipeline.unlink(objectPathsInRange);
+        }
+        else {
+            pipeline.del(objectPathsInRange);
+        }
+        pipeline.srem(metadata.getClassListPath(), idsInRange);
+        Objectis.endWrite(pipeline);
+    }
+
+}
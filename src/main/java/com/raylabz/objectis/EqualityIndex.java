@@ -0,0 +1,119 @@
+package com.raylabz.objectis;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Describes the equality index of a field annotated with {@link com.raylabz.objectis.annotation.Indexed}.
+ * Each value of the field maps to a Redis set holding the IDs of the objects with that value: #CLASS_NAME#@#FIELD_NAME#:#VALUE#
+ * Values are keyed by their string form. Dates are keyed by their time in milliseconds and enums by their name.
+ * Only types whose string form is equal for equal values can be indexed, so that the index finds the same objects as comparing values does.
+ */
+public final class EqualityIndex {
+
+    private final FieldAccessor accessor;
+    private final byte[] keyPrefix;
+    private final boolean collection;
+
+    EqualityIndex(Class<?> aClass, FieldAccessor accessor) {
+        this.accessor = accessor;
+        this.keyPrefix = Serializer.serializeKey(aClass.getName() + "@" + accessor.getName() + ":");
+        this.collection = Collection.class.isAssignableFrom(accessor.getType());
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public String getFieldName() {
+        return accessor.getName();
+    }
+
+    /**
+     * Checks if the indexed field is a collection, in which case its elements are indexed instead of the collection itself.
+     * @return Returns true if the field is a collection, false otherwise.
+     */
+    public boolean isCollection() {
+        return collection;
+    }
+
+    /**
+     * Retrieves the key of the set holding the IDs of objects with a given value.
+     * @param value The value, or an element of a collection field.
+     * @return Returns a byte[].
+     */
+    public byte[] getKey(Object value) {
+        return getKeyOfEncodedValue(encodeValue(value));
+    }
+
+    /**
+     * Retrieves the key of the set holding the IDs of objects with a value already in its indexed form.
+     * @param encodedValue The value, as returned by getValues().
+     * @return Returns a byte[].
+     */
+    public byte[] getKeyOfEncodedValue(String encodedValue) {
+        return PathMaker.appendUTF8(keyPrefix, encodedValue);
+    }
+
+    /**
+     * Retrieves the values of an object under which it is indexed.
+     * @param object The object.
+     * @return Returns the values in their indexed form. Null values are not indexed.
+     */
+    public Set<String> getValues(Object object) {
+        final Object value = accessor.get(object);
+        if (value == null) {
+            return Collections.emptySet();
+        }
+        if (collection) {
+            final LinkedHashSet<String> values = new LinkedHashSet<>();
+            for (Object element : (Collection<?>) value) {
+                if (element != null) {
+                    values.add(encodeValue(element));
+                }
+            }
+            return values;
+        }
+        return Collections.singleton(encodeValue(value));
+    }
+
+    /**
+     * Checks if the values of a field type can be indexed.
+     * @param type The generic type of the field.
+     * @return Returns true if the type is a String, a primitive or boxed primitive, an enum or a Date,
+     * or a collection whose elements are of one of these types, false otherwise.
+     */
+    public static boolean isIndexableType(Type type) {
+        if (type instanceof ParameterizedType && Collection.class.isAssignableFrom((Class<?>) ((ParameterizedType) type).getRawType())) {
+            Type elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (elementType instanceof WildcardType) {
+                elementType = ((WildcardType) elementType).getUpperBounds()[0];
+            }
+            return elementType instanceof Class && isIndexableValueType((Class<?>) elementType);
+        }
+        return type instanceof Class && isIndexableValueType((Class<?>) type);
+    }
+
+    private static boolean isIndexableValueType(Class<?> type) {
+        return (type.isPrimitive() && type != void.class) || type == String.class || type == Boolean.class || type == Character.class
+                || type == Byte.class || type == Short.class || type == Integer.class || type == Long.class || type == Float.class || type == Double.class
+                || type.isEnum() || type == Date.class;
+    }
+
+    private static String encodeValue(Object value) {
+        if (value instanceof Date) {
+            return Long.toString(((Date) value).getTime());
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        return String.valueOf(value);
+    }
+
+}
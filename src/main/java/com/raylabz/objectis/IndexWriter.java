@@ -0,0 +1,161 @@
+package com.raylabz.objectis;
+
+import redis.clients.jedis.MultiKeyPipelineBase;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the indexes of registered classes as part of write batches, so that index entries are sent to Redis
+ * in the same round trip (or transaction) as the objects they refer to.
+ */
+final class IndexWriter {
+
+    private IndexWriter() {
+    }
+
+    /**
+     * Adds an object to the indexes of its class.
+     * @param batch The write batch.
+     * @param metadata The metadata of the object's class.
+     * @param id The ID of the object, as UTF-8 encoded bytes.
+     * @param object The object.
+     */
+    static void index(MultiKeyPipelineBase batch, ClassMetadata metadata, byte[] id, Object object) {
+        for (EqualityIndex index : metadata.getEqualityIndexes()) {
+            for (String value : index.getValues(object)) {
+                batch.sadd(index.getKeyOfEncodedValue(value), id);
+            }
+        }
+        for (RangeIndex index : metadata.getRangeIndexes()) {
+            final Double score = index.getScore(object);
+            if (score != null) {
+                batch.zadd(index.getKey(), score, id);
+            }
+        }
+    }
+
+    /**
+     * Removes an object from the indexes of its class.
+     * @param batch The write batch.
+     * @param metadata The metadata of the object's class.
+     * @param id The ID of the object, as UTF-8 encoded bytes.
+     * @param object The object, as it is currently stored.
+     */
+    static void unindex(MultiKeyPipelineBase batch, ClassMetadata metadata, byte[] id, Object object) {
+        for (EqualityIndex index : metadata.getEqualityIndexes()) {
+            for (String value : index.getValues(object)) {
+                batch.srem(index.getKeyOfEncodedValue(value), id);
+            }
+        }
+        for (RangeIndex index : metadata.getRangeIndexes()) {
+            if (index.getScore(object) != null) {
+                batch.zrem(index.getKey(), id);
+            }
+        }
+    }
+
+    /**
+     * Moves an object from the index entries of its stored state to those of its new state.
+     * Only entries for values that have changed are written.
+     * @param batch The write batch.
+     * @param metadata The metadata of the object's class.
+     * @param id The ID of the object, as UTF-8 encoded bytes.
+     * @param previous The object as it is currently stored, or null if it is not stored.
+     * @param current The object as it is about to be stored.
+     */
+    static void reindex(MultiKeyPipelineBase batch, ClassMetadata metadata, byte[] id, Object previous, Object current) {
+        if (previous == null) {
+            index(batch, metadata, id, current);
+            return;
+        }
+        for (EqualityIndex index : metadata.getEqualityIndexes()) {
+            reindex(batch, index, id, previous, current);
+        }
+        for (RangeIndex index : metadata.getRangeIndexes()) {
+            reindex(batch, index, id, previous, current);
+        }
+    }
+
+    /**
+     * Moves an object from the index entries of some fields of its stored state to those of its new state, leaving the
+     * index entries of other fields untouched. Used when only some fields of an object are written.
+     * @param batch The write batch.
+     * @param metadata The metadata of the object's class.
+     * @param id The ID of the object, as UTF-8 encoded bytes.
+     * @param previous The object holding the stored values of the fields, or null if none of the fields have stored values.
+     * @param current The object holding the new values of the fields.
+     * @param fieldNames The names of the fields.
+     */
+    static void reindex(MultiKeyPipelineBase batch, ClassMetadata metadata, byte[] id, Object previous, Object current, Collection<String> fieldNames) {
+        for (String fieldName : fieldNames) {
+            final EqualityIndex equalityIndex = metadata.getEqualityIndex(fieldName);
+            if (equalityIndex != null) {
+                reindex(batch, equalityIndex, id, previous, current);
+            }
+            final RangeIndex rangeIndex = metadata.getRangeIndex(fieldName);
+            if (rangeIndex != null) {
+                reindex(batch, rangeIndex, id, previous, current);
+            }
+        }
+    }
+
+    private static void reindex(MultiKeyPipelineBase batch, EqualityIndex index, byte[] id, Object previous, Object current) {
+        final Set<String> previousValues = previous == null ? Collections.emptySet() : index.getValues(previous);
+        final Set<String> currentValues = index.getValues(current);
+        for (String value : previousValues) {
+            if (!currentValues.contains(value)) {
+                batch.srem(index.getKeyOfEncodedValue(value), id);
+            }
+        }
+        for (String value : currentValues) {
+            if (!previousValues.contains(value)) {
+                batch.sadd(index.getKeyOfEncodedValue(value), id);
+            }
+        }
+    }
+
+    private static void reindex(MultiKeyPipelineBase batch, RangeIndex index, byte[] id, Object previous, Object current) {
+        final Double previousScore = previous == null ? null : index.getScore(previous);
+        final Double currentScore = index.getScore(current);
+        if (currentScore == null) {
+            if (previousScore != null) {
+                batch.zrem(index.getKey(), id);
+            }
+        }
+        else if (!currentScore.equals(previousScore)) {
+            batch.zadd(index.getKey(), currentScore, id);
+        }
+    }
+
+    /**
+     * Collects the index entries of an object, grouped by index key, so that a batch of objects can be indexed
+     * with a single variadic SADD or ZADD per key.
+     * @param entries The equality index entries collected so far, mapping index keys to IDs.
+     * @param rangeEntries The range index entries collected so far, mapping index keys to IDs and their scores.
+     * @param metadata The metadata of the object's class.
+     * @param id The ID of the object, as UTF-8 encoded bytes.
+     * @param object The object.
+     */
+    static void collect(Map<ByteBuffer, List<byte[]>> entries, Map<ByteBuffer, Map<byte[], Double>> rangeEntries,
+                               ClassMetadata metadata, byte[] id, Object object) {
+        for (EqualityIndex index : metadata.getEqualityIndexes()) {
+            for (String value : index.getValues(object)) {
+                entries.computeIfAbsent(ByteBuffer.wrap(index.getKeyOfEncodedValue(value)), k -> new ArrayList<>()).add(id);
+            }
+        }
+        for (RangeIndex index : metadata.getRangeIndexes()) {
+            final Double score = index.getScore(object);
+            if (score != null) {
+                rangeEntries.computeIfAbsent(ByteBuffer.wrap(index.getKey()), k -> new HashMap<>()).put(id, score);
+            }
+        }
+    }
+
+}
@@ -1,24 +1,48 @@
 package com.raylabz.objectis;
 
+import com.raylabz.objectis.cache.NearCache;
 import com.raylabz.objectis.concurrency.ArrayRange;
-import com.raylabz.objectis.concurrency.CreateManyCallable;
+import com.raylabz.objectis.concurrency.GetBatcher;
 import com.raylabz.objectis.concurrency.GetManyCallable;
+import com.raylabz.objectis.concurrency.ParallelismPolicy;
+import com.raylabz.objectis.concurrency.WorkerPool;
 import com.raylabz.objectis.exception.ClassRegistrationException;
+import com.raylabz.objectis.exception.InvalidFieldException;
 import com.raylabz.objectis.exception.OperationFailedException;
 import com.raylabz.objectis.query.ObjectisCollection;
 import com.raylabz.objectis.query.ObjectisFilterable;
+import com.raylabz.objectis.reactive.PagePublisher;
+import com.raylabz.objectis.reactive.Publisher;
+import com.raylabz.objectis.serializer.BinarySchemaSerializer;
+import com.raylabz.objectis.serializer.JavaObjectSerializer;
+import com.raylabz.objectis.serializer.ObjectSerializer;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.MultiKeyPipelineBase;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class Objectis {
 
     private static JedisPool pool;
-    private static int NUM_OF_PROCESSORS;
+    private static final WorkerPool workerPool = new WorkerPool(Runtime.getRuntime().availableProcessors());
+    private static final ParallelismPolicy parallelismPolicy = new ParallelismPolicy();
     private static boolean useMultipleThreads = true;
+    private static WriteMode writeMode = WriteMode.PIPELINED;
+    private static int batchSize = 500;
+    private static BatchListener batchListener = null;
+    private static boolean useUnlink = false;
+    private static int scanPageSize = 500;
+    private static volatile NearCache nearCache = null;
+    private static volatile GetBatcher getBatcher = null;
     public static final Object lock = new Object();
 //    private static Publisher publisher;
 
@@ -30,7 +54,6 @@ public final class Objectis {
 
     public static void init(JedisPool pool) {
         Objectis.pool = pool;
-        NUM_OF_PROCESSORS = Runtime.getRuntime().availableProcessors();
     }
 
     /**
@@ -42,28 +65,263 @@ public final class Objectis {
         Objectis.useMultipleThreads = useMultipleThreads;
     }
 
+    /**
+     * Checks if Objectis uses multiple threads.
+     *
+     * @return Returns true if multithreading is enabled, false otherwise.
+     */
+    public static boolean isUsingMultithreading() {
+        return useMultipleThreads;
+    }
+
+    /**
+     * Retrieves the number of threads used by parallel operations, which is the maximum number of parts work is split into.
+     *
+     * @return Returns an int.
+     */
+    public static int getThreadCount() {
+        return workerPool.getParallelism();
+    }
+
+    /**
+     * Sets the number of threads used by parallel operations. Defaults to the number of available processors.
+     * If the executor managed by Objectis was already created, it is replaced. Operations in progress are not interrupted,
+     * and submit their next tasks to the new executor.
+     *
+     * @param threadCount The number of threads.
+     */
+    public static void setThreadCount(int threadCount) {
+        workerPool.setThreadCount(threadCount);
+    }
+
+    /**
+     * Sets parallel operations to run on virtual threads instead of a fixed pool of threads. Requires JDK 21 or newer.
+     * Work is still split into as many parts as the configured thread count. The executor managed by Objectis is replaced, like when setting the thread count.
+     *
+     * @param useVirtualThreads Set to true to use virtual threads.
+     * @throws UnsupportedOperationException thrown when the running JDK does not support virtual threads.
+     */
+    public static void useVirtualThreads(boolean useVirtualThreads) {
+        workerPool.useVirtualThreads(useVirtualThreads);
+    }
+
+    /**
+     * Sets an executor for parallel operations to run on, instead of the one managed by Objectis.
+     * The executor is not shut down by Objectis. Operations that submit tasks to it after it is shut down fail with an OperationFailedException.
+     *
+     * @param executor The executor, or null to use the executor managed by Objectis.
+     */
+    public static void setExecutor(ExecutorService executor) {
+        workerPool.setExecutor(executor);
+    }
+
+    /**
+     * Retrieves the executor used by parallel operations.
+     *
+     * @return Returns an ExecutorService.
+     */
+    public static ExecutorService getExecutor() {
+        return workerPool.getExecutor();
+    }
+
+    /**
+     * Retrieves an executor that runs tasks on the executor used by parallel operations. Operations performed by these tasks run on the
+     * thread of the task instead of being split into parallel tasks, so that they never wait for tasks queued behind them.
+     *
+     * @return Returns an Executor.
+     */
+    public static Executor getTaskExecutor() {
+        return workerPool;
+    }
+
+    /**
+     * Checks whether the work of an operation may be split into parallel tasks on the current thread.
+     *
+     * @return Returns true if multithreading is enabled and the current thread is not a worker thread, false otherwise.
+     */
+    private static boolean canSplitWork() {
+        return useMultipleThreads && !WorkerPool.isWorkerThread();
+    }
+
+    /**
+     * Releases the threads managed by Objectis. Threads are created again if a parallel operation is performed afterwards.
+     * Operations in progress that submit more tasks after the threads are released fail with an OperationFailedException.
+     */
+    public static void shutdown() {
+        workerPool.shutdown();
+    }
+
+    /**
+     * Retrieves the policy that decides when bulk operations use multiple threads.
+     * The policy can be used to adjust its thresholds, and exposes the measured costs per class and the decisions taken.
+     *
+     * @return Returns a ParallelismPolicy.
+     */
+    public static ParallelismPolicy getParallelismPolicy() {
+        return parallelismPolicy;
+    }
+
+    /**
+     * Sets the way the commands of a single write operation are sent to Redis.
+     *
+     * @param writeMode The write mode to use - pipelined (default) or atomic.
+     */
+    public static void setWriteMode(WriteMode writeMode) {
+        Objectis.writeMode = writeMode;
+    }
+
+    /**
+     * Retrieves the write mode currently in use.
+     *
+     * @return Returns a WriteMode.
+     */
+    public static WriteMode getWriteMode() {
+        return writeMode;
+    }
+
+    /**
+     * Sets the maximum number of objects written to Redis in a single batch by bulk operations.
+     *
+     * @param batchSize The batch size. Must be greater than 0.
+     */
+    public static void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be greater than 0.");
+        }
+        Objectis.batchSize = batchSize;
+    }
+
+    /**
+     * Retrieves the maximum number of objects written to Redis in a single batch by bulk operations.
+     *
+     * @return Returns an int.
+     */
+    public static int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets a listener that receives throughput statistics for every batch written by bulk operations.
+     *
+     * @param batchListener The listener, or null to stop reporting.
+     */
+    public static void setBatchListener(BatchListener batchListener) {
+        Objectis.batchListener = batchListener;
+    }
+
+    /**
+     * Sets bulk deletions to use UNLINK instead of DEL, so that Redis reclaims the memory of deleted objects asynchronously.
+     *
+     * @param useUnlink Set to true to use UNLINK, false to use DEL.
+     */
+    public static void useUnlink(boolean useUnlink) {
+        Objectis.useUnlink = useUnlink;
+    }
+
+    /**
+     * Sets the number of IDs requested from Redis per page when streaming the objects of a class.
+     * This is a hint passed to SSCAN as its COUNT argument, so pages may be slightly smaller or larger.
+     *
+     * @param scanPageSize The page size. Must be greater than 0.
+     */
+    public static void setScanPageSize(int scanPageSize) {
+        if (scanPageSize <= 0) {
+            throw new IllegalArgumentException("The scan page size must be greater than 0.");
+        }
+        Objectis.scanPageSize = scanPageSize;
+    }
+
+    /**
+     * Retrieves the number of IDs requested from Redis per page when streaming the objects of a class.
+     *
+     * @return Returns an int.
+     */
+    public static int getScanPageSize() {
+        return scanPageSize;
+    }
+
+    /**
+     * Sets a near cache, which holds objects retrieved by get() and getMany() in memory so that they are not retrieved from Redis again.
+     * Objects are removed from the near cache when they are written or deleted through Objectis.
+     * The previous near cache, if any, stops listening for remote writes.
+     *
+     * @param nearCache The near cache, or null to disable near caching.
+     */
+    public static synchronized void useNearCache(NearCache nearCache) {
+        final NearCache previousNearCache = Objectis.nearCache;
+        if (previousNearCache != null && previousNearCache != nearCache) {
+            previousNearCache.stopListening();
+        }
+        Objectis.nearCache = nearCache;
+    }
+
+    /**
+     * Retrieves the near cache.
+     *
+     * @return Returns a NearCache, or null if near caching is disabled.
+     */
+    public static NearCache getNearCache() {
+        return nearCache;
+    }
+
+    /**
+     * Sets a batcher, which coalesces objects read concurrently by get() into batches read using a single MGET.
+     * Batching reduces the number of connections and commands used when many threads read objects at once,
+     * at the cost of a short wait for the threads that open each batch.
+     *
+     * @param getBatcher The batcher, or null to read each object on its own.
+     */
+    public static void useGetBatcher(GetBatcher getBatcher) {
+        Objectis.getBatcher = getBatcher;
+    }
+
+    /**
+     * Retrieves the batcher used by get().
+     *
+     * @return Returns a GetBatcher, or null if batching is disabled.
+     */
+    public static GetBatcher getGetBatcher() {
+        return getBatcher;
+    }
+
+    /**
+     * Removes objects that are being written or deleted from the near cache, if one is used.
+     *
+     * @param objectPaths The paths of the objects.
+     */
+    static void invalidate(byte[]... objectPaths) {
+        final NearCache cache = nearCache;
+        if (cache != null) {
+            for (byte[] objectPath : objectPaths) {
+                cache.invalidate(objectPath);
+            }
+        }
+    }
+
     /**
      * Checks if an object's class is registered.
      *
      * @param object The object to check the class of.
+     * @return Returns the metadata of the object's class.
      * @throws ClassRegistrationException Thrown when the object's class is not registered.
      */
-    static void checkRegistration(Object object) throws ClassRegistrationException {
-        if (!ObjectisRegistry.isRegistered(object.getClass())) {
-            throw new ClassRegistrationException(object.getClass());
-        }
+    static ClassMetadata checkRegistration(Object object) throws ClassRegistrationException {
+        return checkRegistration(object.getClass());
     }
 
     /**
      * Checks if a class is registered.
      *
      * @param aClass The class to check.
+     * @return Returns the metadata of the class.
      * @throws ClassRegistrationException Thrown when the class is not registered.
      */
-    static void checkRegistration(Class<?> aClass) throws ClassRegistrationException {
-        if (!ObjectisRegistry.isRegistered(aClass)) {
+    static ClassMetadata checkRegistration(Class<?> aClass) throws ClassRegistrationException {
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(aClass);
+        if (metadata == null) {
             throw new ClassRegistrationException(aClass);
         }
+        return metadata;
     }
 
     /**
@@ -76,6 +334,58 @@ public final class Objectis {
         ObjectisRegistry.register(aClass);
     }
 
+    /**
+     * Registers a class, using a specific serializer for its objects.
+     *
+     * @param aClass     The class to register.
+     * @param serializer The serializer to use for objects of this class, e.g. a BinarySchemaSerializer.
+     * @param <T>        The type of the class.
+     * @throws ClassRegistrationException Thrown when the class cannot be registered.
+     */
+    public static <T> void register(Class<T> aClass, ObjectSerializer<T> serializer) throws ClassRegistrationException {
+        ObjectisRegistry.register(aClass, serializer);
+    }
+
+    /**
+     * Registers a class, using a specific storage layout for its objects.
+     * Objects stored as hashes are serialized using a BinarySchemaSerializer, which requires the class to declare a no-argument constructor,
+     * and objects stored as values using Java serialization.
+     *
+     * @param aClass        The class to register.
+     * @param storageLayout The layout used to store objects of this class.
+     * @param <T>           The type of the class.
+     * @throws ClassRegistrationException Thrown when the class cannot be registered.
+     */
+    public static <T> void register(Class<T> aClass, StorageLayout storageLayout) throws ClassRegistrationException {
+        if (storageLayout == StorageLayout.HASH) {
+            final BinarySchemaSerializer<T> serializer;
+            try {
+                serializer = new BinarySchemaSerializer<>(aClass);
+            } catch (IllegalArgumentException e) {
+                throw new ClassRegistrationException(e.getMessage());
+            }
+            ObjectisRegistry.register(aClass, serializer, storageLayout);
+        }
+        else {
+            ObjectisRegistry.register(aClass, new JavaObjectSerializer<>(aClass), storageLayout);
+        }
+    }
+
+    /**
+     * Registers a class, using a specific serializer and storage layout for its objects.
+     * Storing objects as hashes lets updateFields() write only the fields that changed, which reduces the data written
+     * for large objects that are updated often.
+     *
+     * @param aClass        The class to register.
+     * @param serializer    The serializer to use for objects of this class. Must implement FieldSerializer for the hash layout.
+     * @param storageLayout The layout used to store objects of this class.
+     * @param <T>           The type of the class.
+     * @throws ClassRegistrationException Thrown when the class cannot be registered, or the serializer does not support the layout.
+     */
+    public static <T> void register(Class<T> aClass, ObjectSerializer<T> serializer, StorageLayout storageLayout) throws ClassRegistrationException {
+        ObjectisRegistry.register(aClass, serializer, storageLayout);
+    }
+
     public static Jedis getJedis() {
         return pool.getResource();
     }
@@ -86,6 +396,43 @@ public final class Objectis {
         }
     }
 
+    /**
+     * Starts a write batch on a connection. Depending on the write mode, the batch is either a pipeline or a transaction.
+     *
+     * @param jedis The connection to write on.
+     * @return Returns a pipeline or a transaction.
+     */
+    static MultiKeyPipelineBase beginWrite(Jedis jedis) {
+        if (writeMode == WriteMode.ATOMIC) {
+            return jedis.multi();
+        }
+        return jedis.pipelined();
+    }
+
+    /**
+     * Sends a write batch to Redis in a single round trip and checks its replies for errors.
+     *
+     * @param batch The batch started using beginWrite().
+     * @throws OperationFailedException thrown when Redis replies with an error to any of the batched commands.
+     */
+    static void endWrite(MultiKeyPipelineBase batch) throws OperationFailedException {
+        final List<Object> replies;
+        if (batch instanceof Transaction) {
+            replies = ((Transaction) batch).exec();
+        }
+        else {
+            replies = ((Pipeline) batch).syncAndReturnAll();
+        }
+        if (replies == null) {
+            throw new OperationFailedException("The transaction was aborted.");
+        }
+        for (Object reply : replies) {
+            if (reply instanceof Exception) {
+                throw new OperationFailedException((Exception) reply);
+            }
+        }
+    }
+
     /**
      * Flushes the cache.
      */
@@ -93,10 +440,15 @@ public final class Objectis {
         final Jedis jedis = getJedis();
         jedis.flushDB();
         releaseJedis(jedis);
+        final NearCache cache = nearCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
     }
 
     /**
      * Stores an object in the cache.
+     * If the object's class has indexes, the stored object with the same ID is read first, if any, so that its index entries are replaced.
      *
      * @param object The object to save.
      * @param <T>    The type of object to store.
@@ -104,14 +456,27 @@ public final class Objectis {
      */
     public static <T> void create(final T object) throws OperationFailedException {
         try {
-            checkRegistration(object);
-            final Jedis jedis = getJedis();
-
-            jedis.set(PathMaker.getObjectPath(object), Serializer.serializeObject(object));
-            final String idField = Reflector.getIDField(object);
+            final ClassMetadata metadata = checkRegistration(object);
+            final String idField = metadata.getId(object);
             //TODO - Handle empty or null IDs!
-            jedis.sadd(PathMaker.getClassListPath(object.getClass()), idField.getBytes(StandardCharsets.UTF_8));
-            releaseJedis(jedis);
+            final byte[] objectPath = PathMaker.getObjectPath(metadata, idField);
+
+            final byte[] idBytes = idField.getBytes(StandardCharsets.UTF_8);
+
+            final Jedis jedis = getJedis();
+            try {
+                final Object storedObject = metadata.hasIndexes() ? getStoredObject(jedis, metadata, objectPath) : null;
+                final MultiKeyPipelineBase batch = beginWrite(jedis);
+                writeObject(batch, metadata, objectPath, object);
+                batch.sadd(metadata.getClassListPath(), idBytes);
+                if (metadata.hasIndexes()) {
+                    IndexWriter.reindex(batch, metadata, idBytes, storedObject, object);
+                }
+                endWrite(batch);
+            } finally {
+                invalidate(objectPath);
+                releaseJedis(jedis);
+            }
 //            publisher.publish(object.getClass(), idField, OperationType.CREATE, object);
         } catch (Exception e) {
             throw new OperationFailedException(e);
@@ -120,78 +485,172 @@ public final class Objectis {
 
     /**
      * Stores a list of objects in the cache.
+     * Objects are written in batches of up to the configured batch size, each using a single MSET and SADD.
+     * If the objects' class has indexes, the stored objects with the same IDs are read first with a single MGET per batch,
+     * so that the index entries of the objects they overwrite are removed.
+     * When multithreading is enabled and the parallelism policy estimates enough serialization work, batches are serialized in parallel
+     * while earlier batches are being written.
      *
      * @param objects A list of objects to store.
      * @param <T>     The type of objects.
      * @throws OperationFailedException when the operation fails.
      */
     public static <T> void createAll(List<T> objects) throws OperationFailedException {
-        if (objects.size() >= 50 && useMultipleThreads) {
-            createAll_MT(objects);
-        }
-        else {
-            if (objects.size() > 0) {
+        if (objects.size() > 0) {
+            try {
+                checkRegistration(objects.get(0).getClass());
+            } catch (ClassRegistrationException e) {
+                throw new OperationFailedException(e);
+            }
+            final Class<?> aClass = objects.get(0).getClass();
+            final List<ArrayRange> ranges = ArrayRange.chunks(objects.size(), batchSize);
+            if (canSplitWork() && ranges.size() > 1 && parallelismPolicy.shouldSerializeInParallel(aClass, objects.size())) {
+                createAll_MT(aClass, objects, ranges);
+            }
+            else {
+                final Jedis jedis = getJedis();
                 try {
-                    checkRegistration(objects.get(0).getClass());
-                    final Jedis jedis = getJedis();
-                    for (T object : objects) {
-                        jedis.set(PathMaker.getObjectPath(object), Serializer.serializeObject(object));
-                        final String idField = Reflector.getIDField(object);
-                        jedis.sadd(PathMaker.getClassListPath(object.getClass()), idField.getBytes(StandardCharsets.UTF_8));
+                    for (int i = 0; i < ranges.size(); i++) {
+                        final SerializedBatch batch = new CreateManyCallable<>(objects, ranges.get(i)).call();
+                        parallelismPolicy.getEstimate(aClass).recordSerialization(batch.getNumOfObjects(), batch.getNumOfBytes(), batch.getSerializationNanos());
+                        writeBatch(jedis, i, batch);
                     }
-                    releaseJedis(jedis);
+                } catch (OperationFailedException e) {
+                    throw e;
                 } catch (Exception e) {
                     throw new OperationFailedException(e);
+                } finally {
+                    releaseJedis(jedis);
                 }
             }
         }
     }
 
-    private static <T> void createAll_MT(List<T> objects) throws OperationFailedException {
+    private static <T> void createAll_MT(Class<?> aClass, List<T> objects, List<ArrayRange> ranges) throws OperationFailedException {
+        final int maxBatchesInFlight = workerPool.getParallelism() * 2;
+        final ArrayDeque<Future<SerializedBatch>> inFlight = new ArrayDeque<>();
+        final Jedis jedis = getJedis();
         try {
-            checkRegistration(objects.get(0));
-
-            final int itemsPerRange = objects.size() / NUM_OF_PROCESSORS;
-            final int remainder = objects.size() % NUM_OF_PROCESSORS;
-            int[] itemsInThreads = new int[NUM_OF_PROCESSORS];
-            for (int i = 0; i < itemsInThreads.length; i++) {
-                itemsInThreads[i] = itemsPerRange;
-                if (i < remainder) {
-                    itemsInThreads[i]++;
+            int nextRange = 0;
+            for (int i = 0; i < ranges.size(); i++) {
+                while (nextRange < ranges.size() && inFlight.size() < maxBatchesInFlight) {
+                    //The executor is fetched for every batch, as it may be replaced during the operation:
+                    inFlight.add(workerPool.getExecutor().submit(new CreateManyCallable<>(objects, ranges.get(nextRange++))));
                 }
+                final SerializedBatch batch = inFlight.poll().get();
+                parallelismPolicy.getEstimate(aClass).recordSerialization(batch.getNumOfObjects(), batch.getNumOfBytes(), batch.getSerializationNanos());
+                writeBatch(jedis, i, batch);
             }
-
-            ArrayList<ArrayRange> arrayRanges = new ArrayList<>();
-
-            int itemStart = 0;
-            for (int i = 0; i < NUM_OF_PROCESSORS; i++) {
-                int itemEnd = itemStart + itemsInThreads[i];
-                arrayRanges.add(new ArrayRange(itemStart, itemEnd));
-                itemStart = itemEnd;
+        } catch (InterruptedException | ExecutionException | RejectedExecutionException e) {
+            throw new OperationFailedException(e);
+        } finally {
+            for (Future<SerializedBatch> future : inFlight) {
+                future.cancel(true);
             }
+            releaseJedis(jedis);
+        }
+    }
 
-            ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-            List<CreateManyCallable<T>> futureList = new ArrayList<>();
-
-            for (int i = 0; i < NUM_OF_PROCESSORS; i++) {
-                CreateManyCallable<T> callable = new CreateManyCallable<>(objects, arrayRanges.get(i));
-                futureList.add(callable);
+    /**
+     * Writes a serialized batch of objects using a single MSET, one variadic SADD per class and one variadic SADD or ZADD per index key.
+     *
+     * @param jedis      The connection to write on.
+     * @param batchIndex The index of the batch within the bulk operation.
+     * @param batch      The serialized batch.
+     * @throws OperationFailedException when the operation fails.
+     */
+    private static void writeBatch(Jedis jedis, int batchIndex, SerializedBatch batch) throws OperationFailedException {
+        final long startTime = System.nanoTime();
+        final Map<ClassMetadata, List<Object>> storedObjects = new LinkedHashMap<>();
+        for (Map.Entry<ClassMetadata, List<byte[]>> entry : batch.getIndexedIdsPerClass().entrySet()) {
+            storedObjects.put(entry.getKey(), getStoredObjects(jedis, entry.getKey(), getObjectPaths(entry.getKey(), entry.getValue())));
+        }
+        final MultiKeyPipelineBase pipeline = beginWrite(jedis);
+        if (batch.getKeysAndValues().length > 0) {
+            pipeline.mset(batch.getKeysAndValues());
+        }
+        for (Map.Entry<ByteBuffer, Map<byte[], byte[]>> entry : batch.getHashes().entrySet()) {
+            pipeline.hset(entry.getKey().array(), entry.getValue());
+        }
+        for (Map.Entry<Class<?>, List<byte[]>> entry : batch.getIdsPerClass().entrySet()) {
+            pipeline.sadd(PathMaker.getClassListPath(entry.getKey()), entry.getValue().toArray(new byte[0][]));
+        }
+        for (Map.Entry<ClassMetadata, List<Object>> entry : storedObjects.entrySet()) {
+            removeOverwrittenIndexEntries(pipeline, batch, entry.getKey(), batch.getIndexedIdsPerClass().get(entry.getKey()), entry.getValue());
+        }
+        for (Map.Entry<ByteBuffer, List<byte[]>> entry : batch.getIndexEntries().entrySet()) {
+            pipeline.sadd(entry.getKey().array(), entry.getValue().toArray(new byte[0][]));
+        }
+        for (Map.Entry<ByteBuffer, Map<byte[], Double>> entry : batch.getRangeIndexEntries().entrySet()) {
+            pipeline.zadd(entry.getKey().array(), entry.getValue());
+        }
+        try {
+            endWrite(pipeline);
+        } finally {
+            final byte[][] keysAndValues = batch.getKeysAndValues();
+            for (int i = 0; i < keysAndValues.length; i += 2) {
+                invalidate(keysAndValues[i]);
             }
-
-            final List<Future<Void>> futures = service.invokeAll(futureList);
-            service.shutdown();
-
-            for (Future<Void> future : futures) {
-                future.get();
+            for (ByteBuffer objectPath : batch.getHashes().keySet()) {
+                invalidate(objectPath.array());
             }
+        }
+        final BatchListener listener = batchListener;
+        if (listener != null) {
+            listener.onBatchWritten(new BatchStatistics(batchIndex, batch.getNumOfObjects(), batch.getNumOfBytes(), System.nanoTime() - startTime));
+        }
+    }
 
-        } catch (ClassRegistrationException | InterruptedException | ExecutionException e) {
-            throw new OperationFailedException(e);
+    /**
+     * Removes the index entries of stored objects that are overwritten by a batch, except for those the batch adds again.
+     * Range index entries are only removed if the new object has no score, as adding an entry replaces its score.
+     *
+     * @param pipeline      The write batch.
+     * @param batch         The serialized batch.
+     * @param metadata      The metadata of the objects' class.
+     * @param ids           The IDs of the objects of the class in the batch.
+     * @param storedObjects The stored objects with these IDs, or null for those that do not exist.
+     */
+    private static void removeOverwrittenIndexEntries(MultiKeyPipelineBase pipeline, SerializedBatch batch, ClassMetadata metadata,
+                                                      List<byte[]> ids, List<Object> storedObjects) {
+        Map<ByteBuffer, Set<ByteBuffer>> addedEntries = null;
+        for (int i = 0; i < ids.size(); i++) {
+            final Object storedObject = storedObjects.get(i);
+            if (storedObject == null) {
+                continue;
+            }
+            if (addedEntries == null) {
+                addedEntries = new HashMap<>();
+                for (Map.Entry<ByteBuffer, List<byte[]>> entry : batch.getIndexEntries().entrySet()) {
+                    final Set<ByteBuffer> entryIds = new HashSet<>();
+                    for (byte[] id : entry.getValue()) {
+                        entryIds.add(ByteBuffer.wrap(id));
+                    }
+                    addedEntries.put(entry.getKey(), entryIds);
+                }
+            }
+            final byte[] id = ids.get(i);
+            for (EqualityIndex index : metadata.getEqualityIndexes()) {
+                for (String value : index.getValues(storedObject)) {
+                    final byte[] key = index.getKeyOfEncodedValue(value);
+                    final Set<ByteBuffer> entryIds = addedEntries.get(ByteBuffer.wrap(key));
+                    if (entryIds == null || !entryIds.contains(ByteBuffer.wrap(id))) {
+                        pipeline.srem(key, id);
+                    }
+                }
+            }
+            for (RangeIndex index : metadata.getRangeIndexes()) {
+                final Map<byte[], Double> scores = batch.getRangeIndexEntries().get(ByteBuffer.wrap(index.getKey()));
+                if (index.getScore(storedObject) != null && (scores == null || !scores.containsKey(id))) {
+                    pipeline.zrem(index.getKey(), id);
+                }
+            }
         }
     }
 
     /**
      * Stores an object in the cache using a custom ID.
+     * If the object's class has indexes, the stored object with the same ID is read first, if any, so that its index entries are replaced.
      *
      * @param object The object to save.
      * @param id     The custom ID.
@@ -200,11 +659,25 @@ public final class Objectis {
      */
     public static <T> void create(final T object, String id) throws OperationFailedException {
         try {
-            checkRegistration(object);
+            final ClassMetadata metadata = checkRegistration(object);
+            final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+
+            final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+
             final Jedis jedis = getJedis();
-            jedis.set(PathMaker.getObjectPath(object.getClass(), id), Serializer.serializeObject(object));
-            jedis.sadd(PathMaker.getClassListPath(object.getClass()), id.getBytes(StandardCharsets.UTF_8));
-            releaseJedis(jedis);
+            try {
+                final Object storedObject = metadata.hasIndexes() ? getStoredObject(jedis, metadata, objectPath) : null;
+                final MultiKeyPipelineBase batch = beginWrite(jedis);
+                writeObject(batch, metadata, objectPath, object);
+                batch.sadd(metadata.getClassListPath(), idBytes);
+                if (metadata.hasIndexes()) {
+                    IndexWriter.reindex(batch, metadata, idBytes, storedObject, object);
+                }
+                endWrite(batch);
+            } finally {
+                invalidate(objectPath);
+                releaseJedis(jedis);
+            }
 //            publisher.publish(object.getClass(), idField, OperationType.CREATE, object);
         } catch (Exception e) {
             throw new OperationFailedException(e);
@@ -212,24 +685,352 @@ public final class Objectis {
     }
 
     /**
-     * Updates an object in the cache.
+     * Updates an object in the cache.
+     * If the object's class has indexes, the stored object is read first so that only its changed index entries are written.
+     *
+     * @param object The object to update.
+     * @param <T>    The type of the object
+     * @throws OperationFailedException thrown when the operation fails.
+     */
+    public static <T> void update(final T object) throws OperationFailedException {
+        try {
+            final ClassMetadata metadata = checkRegistration(object);
+            final String idField = metadata.getId(object);
+            final byte[] objectPath = PathMaker.getObjectPath(metadata, idField);
+
+            final byte[] idBytes = idField.getBytes(StandardCharsets.UTF_8);
+
+            final Jedis jedis = getJedis();
+            try {
+                final Object storedObject = metadata.hasIndexes() ? getStoredObject(jedis, metadata, objectPath) : null;
+                final MultiKeyPipelineBase batch = beginWrite(jedis);
+                writeObject(batch, metadata, objectPath, object);
+                batch.sadd(metadata.getClassListPath(), idBytes);
+                if (metadata.hasIndexes()) {
+                    IndexWriter.reindex(batch, metadata, idBytes, storedObject, object);
+                }
+                endWrite(batch);
+            } finally {
+                invalidate(objectPath);
+                releaseJedis(jedis);
+            }
+//            publisher.publish(object.getClass(), idField, OperationType.UPDATE, object);
+        } catch (Exception e) {
+            throw new OperationFailedException(e);
+        }
+    }
+
+    /**
+     * Updates an object in the cache, comparing it with a snapshot of its stored state instead of reading the stored object.
+     * Nothing is written if the object has not changed since the snapshot. Otherwise, only the index entries of changed fields are
+     * written, and for classes stored as hashes, only the changed fields are written using a single HSET.
+     * Objects stored as values are still written whole, as a single value cannot be partially written.
+     * Fields are compared by their serialized form, so fields of types without a stable serialized form are always considered changed.
+     * The snapshot must reflect the stored state of the object, such as a copy taken when the object was retrieved;
+     * index entries are not corrected if the object was changed in the cache since then.
+     *
+     * @param object   The object to update.
+     * @param snapshot The object as it is currently stored, or null to update the object using update(object).
+     * @param <T>      The type of the object
+     * @return Returns true if the object was written, false if it has not changed.
+     * @throws IllegalArgumentException thrown when the object and the snapshot have different IDs.
+     * @throws OperationFailedException thrown when the operation fails.
+     */
+    public static <T> boolean update(final T object, final T snapshot) throws IllegalArgumentException, OperationFailedException {
+        if (snapshot == null) {
+            update(object);
+            return true;
+        }
+        final ClassMetadata metadata;
+        try {
+            metadata = checkRegistration(object);
+        } catch (ClassRegistrationException e) {
+            throw new OperationFailedException(e);
+        }
+        final String id = metadata.getId(object);
+        if (!id.equals(metadata.getId(snapshot))) {
+            throw new IllegalArgumentException("The snapshot of object '" + id + "' has a different ID (" + metadata.getId(snapshot) + ").");
+        }
+        final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+        final byte[] idBytes = Serializer.serializeKey(id);
+
+        final Map<byte[], byte[]> changedEntries = new LinkedHashMap<>();
+        final List<String> changedFields = new ArrayList<>();
+        byte[] objectBytes = null;
+        if (metadata.isHashLayout()) {
+            final Map<String, byte[]> values = metadata.serializeFields(object);
+            final Map<String, byte[]> previousValues = metadata.serializeFields(snapshot);
+            final List<byte[]> changedValues = new ArrayList<>();
+            for (FieldAccessor field : metadata.getFieldAccessors()) {
+                final byte[] value = values.get(field.getName());
+                if (value != null && !Arrays.equals(value, previousValues.get(field.getName()))) {
+                    changedFields.add(field.getName());
+                    changedValues.add(value);
+                }
+            }
+            if (changedFields.isEmpty()) {
+                return false;
+            }
+            final byte[][] hashFields = metadata.getHashFields(changedFields);
+            for (int i = 0; i < hashFields.length; i++) {
+                changedEntries.put(hashFields[i], changedValues.get(i));
+            }
+        }
+        else {
+            objectBytes = metadata.serialize(object);
+            if (Arrays.equals(objectBytes, metadata.serialize(snapshot))) {
+                return false;
+            }
+        }
+
+        final Jedis jedis = getJedis();
+        try {
+            final MultiKeyPipelineBase batch = beginWrite(jedis);
+            if (objectBytes != null) {
+                batch.set(objectPath, objectBytes);
+            }
+            else {
+                batch.hset(objectPath, changedEntries);
+            }
+            batch.sadd(metadata.getClassListPath(), idBytes);
+            if (metadata.hasIndexes()) {
+                if (objectBytes != null) {
+                    IndexWriter.reindex(batch, metadata, idBytes, snapshot, object);
+                }
+                else {
+                    IndexWriter.reindex(batch, metadata, idBytes, snapshot, object, changedFields);
+                }
+            }
+            endWrite(batch);
+            return true;
+        } catch (OperationFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OperationFailedException(e);
+        } finally {
+            invalidate(objectPath);
+            releaseJedis(jedis);
+        }
+    }
+
+    /**
+     * Updates some fields of an object in the cache, without reading or writing its other fields.
+     * For classes stored as hashes, only the given fields are encoded and written using a single HSET, and only the stored values
+     * of the given fields that are indexed are read, to move their index entries.
+     * For classes stored as values, the object is read from Redis, bypassing the near cache, modified and written back whole.
+     *
+     * @param aClass The class of the object.
+     * @param id     The ID of the object.
+     * @param values A map of field names to their new values. Primitive values must be provided boxed.
+     * @param <T>    The type of the object.
+     * @throws InvalidFieldException    thrown when a field does not exist, is the ID field or cannot be assigned its value.
+     * @throws OperationFailedException thrown when the object does not exist or the operation fails.
+     */
+    public static <T> void updateFields(Class<T> aClass, String id, Map<String, Object> values) throws InvalidFieldException, OperationFailedException {
+        final ClassMetadata metadata;
+        try {
+            metadata = checkRegistration(aClass);
+        } catch (ClassRegistrationException e) {
+            throw new OperationFailedException(e);
+        }
+        if (metadata.getIdAccessor() != null && values.containsKey(metadata.getIdAccessor().getName())) {
+            throw new InvalidFieldException("The ID of an object cannot be updated.");
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+
+        if (!metadata.isHashLayout()) {
+            //Read from Redis rather than the near cache, whose objects may be shared with other callers and must not be modified:
+            final T object = loadManyFromPaths(metadata, aClass, new byte[][]{PathMaker.getObjectPath(metadata, id)}, null).get(0);
+            if (object == null) {
+                throw new OperationFailedException("The object '" + id + "' of class '" + aClass.getName() + "' does not exist.");
+            }
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                final FieldAccessor field = metadata.getFieldAccessor(entry.getKey());
+                if (field == null) {
+                    throw new InvalidFieldException("The field '" + entry.getKey() + "' does not exist in class '" + aClass.getSimpleName() + "'.");
+                }
+                try {
+                    field.set(object, entry.getValue());
+                } catch (ClassCastException | NullPointerException e) {
+                    throw new InvalidFieldException(e);
+                }
+            }
+            update(object);
+            return;
+        }
+
+        final Map<byte[], byte[]> hash = new LinkedHashMap<>();
+        final Map<String, byte[]> changedValues = new HashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            final byte[] value = metadata.serializeHashField(entry.getKey(), entry.getValue());
+            hash.put(metadata.getHashFields(Collections.singleton(entry.getKey()))[0], value);
+            changedValues.put(entry.getKey(), value);
+        }
+        //Only the changed fields that are indexed need their stored values, to move their index entries:
+        final ArrayList<String> changedIndexedFields = new ArrayList<>();
+        for (String fieldName : values.keySet()) {
+            if (metadata.getEqualityIndex(fieldName) != null || metadata.getRangeIndex(fieldName) != null) {
+                changedIndexedFields.add(fieldName);
+            }
+        }
+        final byte[][] storedFields = metadata.getHashFields(changedIndexedFields);
+
+        final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+        final byte[] idBytes = Serializer.serializeKey(id);
+        final Jedis jedis = getJedis();
+        try {
+            if (writeMode == WriteMode.ATOMIC) {
+                jedis.watch(objectPath);
+            }
+            final Pipeline reads = jedis.pipelined();
+            final Response<Boolean> exists = reads.exists(objectPath);
+            final Response<List<byte[]>> storedValues = storedFields.length > 0 ? reads.hmget(objectPath, storedFields) : null;
+            reads.sync();
+            if (!exists.get()) {
+                if (writeMode == WriteMode.ATOMIC) {
+                    jedis.unwatch();
+                }
+                throw new OperationFailedException("The object '" + id + "' of class '" + aClass.getName() + "' does not exist.");
+            }
+
+            final MultiKeyPipelineBase batch = beginWrite(jedis);
+            batch.hset(objectPath, hash);
+            if (storedValues != null) {
+                final Object previous = metadata.deserializeHashFields(storedFields, storedValues.get(), Object.class);
+                final ArrayList<byte[]> currentValues = new ArrayList<>(storedFields.length);
+                for (String fieldName : changedIndexedFields) {
+                    currentValues.add(changedValues.get(fieldName));
+                }
+                final Object current = metadata.deserializeHashFields(storedFields, currentValues, Object.class);
+                IndexWriter.reindex(batch, metadata, idBytes, previous, current, changedIndexedFields);
+            }
+            endWrite(batch);
+        } catch (OperationFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OperationFailedException(e);
+        } finally {
+            invalidate(objectPath);
+            releaseJedis(jedis);
+        }
+    }
+
+    /**
+     * Adds the command that stores an object to a write batch, depending on the storage layout of its class.
+     *
+     * @param batch      The write batch.
+     * @param metadata   The metadata of the object's class.
+     * @param objectPath The path of the object.
+     * @param object     The object.
+     */
+    private static void writeObject(MultiKeyPipelineBase batch, ClassMetadata metadata, byte[] objectPath, Object object) {
+        if (metadata.isHashLayout()) {
+            batch.hset(objectPath, metadata.serializeHash(object));
+        }
+        else {
+            batch.set(objectPath, metadata.serialize(object));
+        }
+    }
+
+    /**
+     * Reads the stored state of an object that is about to be overwritten or deleted, to find its current index entries.
+     * In atomic write mode, the object is watched so that the transaction is aborted if it changes before the write.
+     * For classes stored as hashes, only the indexed fields are read.
+     *
+     * @param jedis      The connection to read on.
+     * @param metadata   The metadata of the object's class.
+     * @param objectPath The path of the object.
+     * @return Returns the stored object, or null if it does not exist.
+     */
+    private static Object getStoredObject(Jedis jedis, ClassMetadata metadata, byte[] objectPath) {
+        if (writeMode == WriteMode.ATOMIC) {
+            jedis.watch(objectPath);
+        }
+        if (metadata.isHashLayout()) {
+            final byte[][] indexedFields = metadata.getIndexedHashFields();
+            return metadata.deserializeHashFields(indexedFields, jedis.hmget(objectPath, indexedFields), Object.class);
+        }
+        final byte[] storedBytes = jedis.get(objectPath);
+        return storedBytes == null ? null : metadata.deserialize(storedBytes, Object.class);
+    }
+
+    /**
+     * Reads the stored state of objects that are about to be overwritten or deleted, to find their current index entries,
+     * with a single MGET, or a pipeline of HMGETs of the indexed fields for classes stored as hashes.
+     * In atomic write mode, the objects are watched so that the transaction is aborted if they change before the write.
+     *
+     * @param jedis       The connection to read on.
+     * @param metadata    The metadata of the objects' class.
+     * @param objectPaths The paths of the objects.
+     * @return Returns a list of objects, in the order of the paths. Objects that do not exist are returned as null.
+     */
+    static List<Object> getStoredObjects(Jedis jedis, ClassMetadata metadata, byte[][] objectPaths) {
+        if (writeMode == WriteMode.ATOMIC) {
+            jedis.watch(objectPaths);
+        }
+        final ArrayList<Object> storedObjects = new ArrayList<>(objectPaths.length);
+        if (metadata.isHashLayout()) {
+            final byte[][] indexedFields = metadata.getIndexedHashFields();
+            final ArrayList<Response<List<byte[]>>> responses = new ArrayList<>(objectPaths.length);
+            final Pipeline pipeline = jedis.pipelined();
+            for (byte[] objectPath : objectPaths) {
+                responses.add(pipeline.hmget(objectPath, indexedFields));
+            }
+            pipeline.sync();
+            for (Response<List<byte[]>> response : responses) {
+                storedObjects.add(metadata.deserializeHashFields(indexedFields, response.get(), Object.class));
+            }
+        }
+        else {
+            for (byte[] storedBytes : jedis.mget(objectPaths)) {
+                storedObjects.add(storedBytes == null ? null : metadata.deserialize(storedBytes, Object.class));
+            }
+        }
+        return storedObjects;
+    }
+
+    private static byte[][] getObjectPaths(ClassMetadata metadata, List<byte[]> ids) {
+        final byte[][] objectPaths = new byte[ids.size()][];
+        for (int i = 0; i < objectPaths.length; i++) {
+            objectPaths[i] = PathMaker.getObjectPath(metadata, ids.get(i));
+        }
+        return objectPaths;
+    }
+
+    /**
+     * Adds all stored objects of a class to its indexes. Needed after indexes are added to a class that already has stored objects.
+     * Entries for values that objects no longer have are not removed.
      *
-     * @param object The object to update.
-     * @param <T>    The type of the object
-     * @throws OperationFailedException thrown when the operation fails.
+     * @param aClass The class.
+     * @param <T>    The type of the class.
+     * @throws OperationFailedException when the operation fails.
      */
-    public static <T> void update(final T object) throws OperationFailedException {
+    public static <T> void rebuildIndexes(Class<T> aClass) throws OperationFailedException {
+        final ClassMetadata metadata;
         try {
-            checkRegistration(object);
-            final Jedis jedis = getJedis();
-            jedis.set(PathMaker.getObjectPath(object), Serializer.serializeObject(object));
-            final String idField = Reflector.getIDField(object);
-            jedis.sadd(PathMaker.getClassListPath(object.getClass()), idField.getBytes(StandardCharsets.UTF_8));
-            releaseJedis(jedis);
-//            publisher.publish(object.getClass(), idField, OperationType.UPDATE, object);
-        } catch (Exception e) {
+            metadata = checkRegistration(aClass);
+        } catch (ClassRegistrationException e) {
             throw new OperationFailedException(e);
         }
+        if (!metadata.hasIndexes()) {
+            return;
+        }
+        final Iterator<T> iterator = iterate(aClass);
+        final Jedis jedis = getJedis();
+        try {
+            while (iterator.hasNext()) {
+                final MultiKeyPipelineBase batch = beginWrite(jedis);
+                for (int i = 0; i < batchSize && iterator.hasNext(); i++) {
+                    final T object = iterator.next();
+                    IndexWriter.index(batch, metadata, Serializer.serializeKey(metadata.getId(object)), object);
+                }
+                endWrite(batch);
+            }
+        } finally {
+            releaseJedis(jedis);
+        }
     }
 
     /**
@@ -243,15 +1044,44 @@ public final class Objectis {
      */
     public static <T> T get(Class<T> aClass, String id) throws OperationFailedException {
         try {
-            checkRegistration(aClass);
-            final byte[] bytes;
-            final Jedis jedis = getJedis();
-            bytes = jedis.get(PathMaker.getObjectPath(aClass, id));
-            releaseJedis(jedis);
-            if (bytes == null) {
-                return null;
+            final ClassMetadata metadata = checkRegistration(aClass);
+            final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+            final NearCache cache = nearCache;
+            final T cachedObject = cache != null ? cache.get(objectPath, metadata, aClass) : null;
+            if (cachedObject != null) {
+                return cachedObject;
+            }
+            final long stamp = cache != null ? cache.getStamp() : 0;
+            final T object;
+            byte[] bytes = null;
+            final GetBatcher batcher = getBatcher;
+            if (batcher != null) {
+                if (metadata.isHashLayout()) {
+                    object = metadata.deserializeHash(batcher.getHash(objectPath), aClass);
+                }
+                else {
+                    bytes = batcher.getValue(objectPath);
+                    object = bytes == null ? null : metadata.deserialize(bytes, aClass);
+                }
+            }
+            else {
+                final Jedis jedis = getJedis();
+                try {
+                    if (metadata.isHashLayout()) {
+                        object = metadata.deserializeHash(jedis.hgetAll(objectPath), aClass);
+                    }
+                    else {
+                        bytes = jedis.get(objectPath);
+                        object = bytes == null ? null : metadata.deserialize(bytes, aClass);
+                    }
+                } finally {
+                    releaseJedis(jedis);
+                }
+            }
+            if (cache != null && object != null) {
+                cache.put(objectPath, metadata, object, bytes, stamp);
             }
-            return Serializer.deserializeObject(bytes, aClass);
+            return object;
         } catch (Exception e) {
             throw new OperationFailedException(e);
         }
@@ -263,186 +1093,228 @@ public final class Objectis {
      * @param aClass The class.
      * @param ids    A list of IDs.
      * @param <T>    The object type.
-     * @return Returns a list of objects.
+     * @return Returns a list of objects, in the order of the IDs provided. Objects that do not exist are returned as null.
      * @throws OperationFailedException when the operation cannot be completed.
      */
     public static <T> List<T> getMany(Class<T> aClass, String... ids) throws OperationFailedException {
         if (ids.length == 0) {
             return new ArrayList<>();
         }
-        if (ids.length >= 50 && useMultipleThreads) {
-            return getManyThreaded_MT(aClass, ids);
-        }
         try {
-            checkRegistration(aClass);
+            final ClassMetadata metadata = checkRegistration(aClass);
             byte[][] arrayOfIDs = new byte[ids.length][];
             for (int i = 0; i < ids.length; i++) {
-                arrayOfIDs[i] = PathMaker.getObjectPath(aClass, ids[i]);
-            }
-
-            final List<byte[]> itemsBytes;
-
-            final Jedis jedis = getJedis();
-            itemsBytes = jedis.mget(arrayOfIDs);
-            releaseJedis(jedis);
-
-            ArrayList<T> items = new ArrayList<>();
-            for (byte[] itemByte : itemsBytes) {
-                final T item = Serializer.deserializeObject(itemByte, aClass);
-                items.add(item);
+                arrayOfIDs[i] = PathMaker.getObjectPath(metadata, ids[i]);
             }
-            return items;
+            return getManyFromPaths(metadata, aClass, arrayOfIDs, null);
         } catch (ClassRegistrationException e) {
             throw new OperationFailedException(e);
         }
-
     }
 
     public static <T> List<T> getManyWithBytes(Class<T> aClass, List<byte[]> ids) throws OperationFailedException {
         if (ids.size() == 0) {
             return new ArrayList<>();
         }
-        if (ids.size() >= 50 && useMultipleThreads) {
-            return getManyThreaded_MT(aClass, ids);
-        }
         try {
-            checkRegistration(aClass);
+            final ClassMetadata metadata = checkRegistration(aClass);
             byte[][] arrayOfIDs = new byte[ids.size()][];
             for (int i = 0; i < ids.size(); i++) {
-                arrayOfIDs[i] = PathMaker.getObjectPath(aClass, new String(ids.get(i)));
-            }
-
-            final List<byte[]> itemsBytes;
-
-            final Jedis jedis = getJedis();
-            itemsBytes = jedis.mget(arrayOfIDs);
-            releaseJedis(jedis);
-
-            ArrayList<T> items = new ArrayList<>();
-            for (byte[] itemByte : itemsBytes) {
-                final T item = Serializer.deserializeObject(itemByte, aClass);
-                items.add(item);
+                arrayOfIDs[i] = PathMaker.getObjectPath(metadata, ids.get(i));
             }
-            return items;
+            return getManyFromPaths(metadata, aClass, arrayOfIDs, null);
         } catch (ClassRegistrationException e) {
             throw new OperationFailedException(e);
         }
     }
 
-    private static <T> List<T> getManyThreaded_MT(Class<T> aClass, String... ids) throws OperationFailedException {
+    /**
+     * Retrieve many objects, for a specific class, deserializing only some of their fields.
+     * Fields that are not deserialized keep the values set when the objects were instantiated.
+     * Only serializers that implement ProjectingSerializer, such as BinarySchemaSerializer, can skip fields;
+     * objects of classes with other serializers are fully deserialized.
+     *
+     * @param aClass     The class.
+     * @param ids        A list of IDs, as UTF-8 encoded bytes.
+     * @param fieldNames The names of the fields to deserialize.
+     * @param <T>        The object type.
+     * @return Returns a list of partially deserialized objects, in the order of the IDs provided. Objects that do not exist are returned as null.
+     * @throws OperationFailedException when the operation cannot be completed.
+     */
+    public static <T> List<T> getManyWithBytes(Class<T> aClass, List<byte[]> ids, Set<String> fieldNames) throws OperationFailedException {
+        if (ids.size() == 0) {
+            return new ArrayList<>();
+        }
         try {
-            checkRegistration(aClass);
-            byte[][] arrayOfIDs = new byte[ids.length][];
-            for (int i = 0; i < ids.length; i++) {
-                arrayOfIDs[i] = PathMaker.getObjectPath(aClass, ids[i]);
+            final ClassMetadata metadata = checkRegistration(aClass);
+            byte[][] arrayOfIDs = new byte[ids.size()][];
+            for (int i = 0; i < ids.size(); i++) {
+                arrayOfIDs[i] = PathMaker.getObjectPath(metadata, ids.get(i));
             }
+            return getManyFromPaths(metadata, aClass, arrayOfIDs, fieldNames);
+        } catch (ClassRegistrationException e) {
+            throw new OperationFailedException(e);
+        }
+    }
 
-            final List<byte[]> itemsBytes;
+    /**
+     * Retrieves many objects using a single MGET and deserializes them.
+     * The parallelism policy decides whether deserialization is split across multiple threads, based on the size of the payloads.
+     * Partial deserializations are not measured, as their cost does not reflect the cost of deserializing whole objects.
+     *
+     * @param metadata    The metadata of the class.
+     * @param aClass      The class.
+     * @param objectPaths The paths of the objects.
+     * @param fieldNames  The names of the fields to deserialize, or null to deserialize all fields.
+     * @param <T>         The object type.
+     * @return Returns a list of objects, in the order of the paths provided. Objects that do not exist are returned as null.
+     * @throws OperationFailedException when the operation cannot be completed.
+     */
+    private static <T> List<T> getManyFromPaths(ClassMetadata metadata, Class<T> aClass, byte[][] objectPaths, Set<String> fieldNames) throws OperationFailedException {
+        final NearCache cache = nearCache;
+        if (cache == null) {
+            return loadManyFromPaths(metadata, aClass, objectPaths, fieldNames);
+        }
+        //Cached objects have all their fields, so they are also used when only some fields are needed:
+        final long stamp = cache.getStamp();
+        final ArrayList<T> items = new ArrayList<>(objectPaths.length);
+        final ArrayList<Integer> missingPositions = new ArrayList<>();
+        for (int i = 0; i < objectPaths.length; i++) {
+            final T cachedObject = cache.get(objectPaths[i], metadata, aClass);
+            items.add(cachedObject);
+            if (cachedObject == null) {
+                missingPositions.add(i);
+            }
+        }
+        if (missingPositions.isEmpty()) {
+            return items;
+        }
+        final byte[][] missingPaths = new byte[missingPositions.size()][];
+        for (int i = 0; i < missingPaths.length; i++) {
+            missingPaths[i] = objectPaths[missingPositions.get(i)];
+        }
+        final List<T> loadedItems = loadManyFromPaths(metadata, aClass, missingPaths, fieldNames);
+        for (int i = 0; i < missingPaths.length; i++) {
+            final T item = loadedItems.get(i);
+            items.set(missingPositions.get(i), item);
+            if (item != null && fieldNames == null) {
+                cache.put(missingPaths[i], metadata, item, stamp);
+            }
+        }
+        return items;
+    }
 
-            final Jedis jedis = getJedis();
-            itemsBytes = jedis.mget(arrayOfIDs);
+    /**
+     * Retrieves many objects from Redis, without using the near cache.
+     *
+     * @param metadata    The metadata of the class.
+     * @param aClass      The class.
+     * @param objectPaths The paths of the objects.
+     * @param fieldNames  The names of the fields to deserialize, or null to deserialize all fields.
+     * @param <T>         The object type.
+     * @return Returns a list of objects, in the order of the paths provided. Objects that do not exist are returned as null.
+     * @throws OperationFailedException when the operation cannot be completed.
+     */
+    private static <T> List<T> loadManyFromPaths(ClassMetadata metadata, Class<T> aClass, byte[][] objectPaths, Set<String> fieldNames) throws OperationFailedException {
+        if (metadata.isHashLayout()) {
+            return getManyHashes(metadata, aClass, objectPaths, fieldNames);
+        }
+        final List<byte[]> itemsBytes;
+        final Jedis jedis = getJedis();
+        try {
+            itemsBytes = jedis.mget(objectPaths);
+        } finally {
             releaseJedis(jedis);
+        }
 
-            final int numOfProcessors = Objectis.NUM_OF_PROCESSORS;
+        final List<ArrayRange> ranges = canSplitWork()
+                ? parallelismPolicy.planDeserialization(aClass, itemsBytes, workerPool.getParallelism())
+                : Collections.singletonList(new ArrayRange(0, itemsBytes.size()));
 
-            final int itemsPerRange = itemsBytes.size() / numOfProcessors;
-            final int remainder = itemsBytes.size() % numOfProcessors;
-            int[] itemsInThreads = new int[numOfProcessors];
-            for (int i = 0; i < itemsInThreads.length; i++) {
-                itemsInThreads[i] = itemsPerRange;
-                if (i < remainder) {
-                    itemsInThreads[i]++;
-                }
+        long numOfBytes = 0;
+        for (byte[] itemBytes : itemsBytes) {
+            if (itemBytes != null) {
+                numOfBytes += itemBytes.length;
             }
+        }
 
-            ArrayList<ArrayRange> arrayRanges = new ArrayList<>();
-
-            int itemStart = 0;
-            for (int i = 0; i < numOfProcessors; i++) {
-                int itemEnd = itemStart + itemsInThreads[i];
-                arrayRanges.add(new ArrayRange(itemStart, itemEnd));
-                itemStart = itemEnd;
+        if (ranges.size() == 1) {
+            final long startTime = System.nanoTime();
+            ArrayList<T> items = new ArrayList<>(itemsBytes.size());
+            for (byte[] itemByte : itemsBytes) {
+                final T item = itemByte == null ? null : metadata.deserialize(itemByte, aClass, fieldNames);
+                items.add(item);
             }
-
-            ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-            List<GetManyCallable<T>> futureList = new ArrayList<>();
-            for (ArrayRange arrayRange : arrayRanges) {
-                GetManyCallable<T> callable = new GetManyCallable<>(aClass, itemsBytes, arrayRange);
-                futureList.add(callable);
+            if (fieldNames == null) {
+                parallelismPolicy.getEstimate(aClass).recordDeserialization(items.size(), numOfBytes, System.nanoTime() - startTime);
             }
+            return items;
+        }
 
-            final List<Future<List<T>>> futures = service.invokeAll(futureList);
-            service.shutdown();
+        try {
+            List<GetManyCallable<T>> callables = new ArrayList<>();
+            for (ArrayRange arrayRange : ranges) {
+                callables.add(new GetManyCallable<>(metadata, aClass, itemsBytes, arrayRange, fieldNames));
+            }
 
-            ArrayList<T> items = new ArrayList<>();
+            final List<Future<List<T>>> futures = workerPool.getExecutor().invokeAll(callables);
 
+            ArrayList<T> items = new ArrayList<>(itemsBytes.size());
             for (Future<List<T>> future : futures) {
-                final List<T> sublist = future.get();
-                items.addAll(sublist);
+                items.addAll(future.get());
             }
 
+            long elapsedNanos = 0;
+            for (GetManyCallable<T> callable : callables) {
+                elapsedNanos += callable.getElapsedNanos();
+            }
+            if (fieldNames == null) {
+                parallelismPolicy.getEstimate(aClass).recordDeserialization(items.size(), numOfBytes, elapsedNanos);
+            }
             return items;
-        } catch (ClassRegistrationException | InterruptedException | ExecutionException e) {
+        } catch (InterruptedException | ExecutionException | RejectedExecutionException e) {
             throw new OperationFailedException(e);
         }
     }
 
-    static <T> List<T> getManyThreaded_MT(Class<T> aClass, List<byte[]> ids) throws OperationFailedException {
+    /**
+     * Retrieves many objects stored as hashes using a single pipeline, with an HGETALL per object, or an HMGET of the needed
+     * fields when only some fields are deserialized.
+     *
+     * @param metadata    The metadata of the class.
+     * @param aClass      The class.
+     * @param objectPaths The paths of the objects.
+     * @param fieldNames  The names of the fields to retrieve, or null to retrieve all fields.
+     * @param <T>         The object type.
+     * @return Returns a list of objects, in the order of the paths provided. Objects that do not exist are returned as null.
+     */
+    private static <T> List<T> getManyHashes(ClassMetadata metadata, Class<T> aClass, byte[][] objectPaths, Set<String> fieldNames) {
+        final byte[][] hashFields = fieldNames == null ? null : metadata.getHashFields(fieldNames);
+        final ArrayList<Response<Map<byte[], byte[]>>> hashes = new ArrayList<>(objectPaths.length);
+        final ArrayList<Response<List<byte[]>>> fieldValues = new ArrayList<>(objectPaths.length);
+        final Jedis jedis = getJedis();
         try {
-            checkRegistration(aClass);
-            byte[][] arrayOfIDs = new byte[ids.size()][];
-            for (int i = 0; i < ids.size(); i++) {
-                arrayOfIDs[i] = PathMaker.getObjectPath(aClass, new String(ids.get(i)));
-            }
-
-            final List<byte[]> itemsBytes;
-
-            final Jedis jedis = getJedis();
-            itemsBytes = jedis.mget(arrayOfIDs);
-            releaseJedis(jedis);
-
-            final int numOfProcessors = Objectis.NUM_OF_PROCESSORS;
-
-            final int itemsPerRange = itemsBytes.size() / numOfProcessors;
-            final int remainder = itemsBytes.size() % numOfProcessors;
-            int[] itemsInThreads = new int[numOfProcessors];
-            for (int i = 0; i < itemsInThreads.length; i++) {
-                itemsInThreads[i] = itemsPerRange;
-                if (i < remainder) {
-                    itemsInThreads[i]++;
+            final Pipeline pipeline = jedis.pipelined();
+            for (byte[] objectPath : objectPaths) {
+                if (hashFields == null) {
+                    hashes.add(pipeline.hgetAll(objectPath));
+                }
+                else {
+                    fieldValues.add(pipeline.hmget(objectPath, hashFields));
                 }
             }
+            pipeline.sync();
+        } finally {
+            releaseJedis(jedis);
+        }
 
-            ArrayList<ArrayRange> arrayRanges = new ArrayList<>();
-
-            int itemStart = 0;
-            for (int i = 0; i < numOfProcessors; i++) {
-                int itemEnd = itemStart + itemsInThreads[i];
-                arrayRanges.add(new ArrayRange(itemStart, itemEnd));
-                itemStart = itemEnd;
-            }
-
-            ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-            List<GetManyCallable<T>> futureList = new ArrayList<>();
-            for (ArrayRange arrayRange : arrayRanges) {
-                GetManyCallable<T> callable = new GetManyCallable<>(aClass, itemsBytes, arrayRange);
-                futureList.add(callable);
-            }
-
-            final List<Future<List<T>>> futures = service.invokeAll(futureList);
-            service.shutdown();
-
-            ArrayList<T> items = new ArrayList<>();
-
-            for (Future<List<T>> future : futures) {
-                final List<T> sublist = future.get();
-                items.addAll(sublist);
-            }
-
-            return items;
-        } catch (ClassRegistrationException | InterruptedException | ExecutionException e) {
-            throw new OperationFailedException(e);
+        final ArrayList<T> items = new ArrayList<>(objectPaths.length);
+        for (int i = 0; i < objectPaths.length; i++) {
+            items.add(hashFields == null
+                    ? metadata.deserializeHash(hashes.get(i).get(), aClass)
+                    : metadata.deserializeHashFields(hashFields, fieldValues.get(i).get(), aClass));
         }
+        return items;
     }
 
     /**
@@ -451,7 +1323,7 @@ public final class Objectis {
      * @param aClass The class.
      * @param ids    A list of IDs.
      * @param <T>    The object type.
-     * @return Returns a list of objects.
+     * @return Returns a list of objects, in the order of the IDs provided. Objects that do not exist are returned as null.
      * @throws OperationFailedException when the operation cannot be completed.
      */
     public static <T> List<T> getMany(Class<T> aClass, List<String> ids) throws OperationFailedException {
@@ -460,32 +1332,169 @@ public final class Objectis {
 
     /**
      * Retrieves all objects stored for a particular class.
+     * All objects are loaded in memory at once. Use iterate() or stream() for classes with many objects.
      *
      * @param aClass The class of the objects to retrieve.
      * @param <T>    The type of the objects.
-     * @return Returns a list of objects.
+     * @return Returns a list of objects. IDs in the class list whose objects do not exist are skipped.
      * @throws OperationFailedException thrown when a problem occurs with the operation.
      */
     public static <T> List<T> list(Class<T> aClass) throws OperationFailedException {
         try {
-            checkRegistration(aClass);
+            final ClassMetadata metadata = checkRegistration(aClass);
             final Set<byte[]> classObjectBytes;
 
             final Jedis jedis = getJedis();
-            classObjectBytes = jedis.smembers(PathMaker.getClassListPath(aClass));
+            classObjectBytes = jedis.smembers(metadata.getClassListPath());
             releaseJedis(jedis);
 
-            ArrayList<String> ids = new ArrayList<>();
-            for (byte[] idBytes : classObjectBytes) {
-                ids.add(new String(idBytes));
-            }
-
-            return getMany(aClass, ids);
+            final List<T> items = getManyWithBytes(aClass, new ArrayList<>(classObjectBytes));
+            //Objects that were deleted after their IDs were read, or whose IDs were left in the class list:
+            items.removeIf(Objects::isNull);
+            return items;
         } catch (Exception e) {
             throw new OperationFailedException(e);
         }
     }
 
+    /**
+     * Iterates over all objects stored for a particular class without loading them all in memory.
+     * The class list is scanned page by page using SSCAN, each page is fetched with a single MGET and objects are deserialized
+     * as the iterator advances. Objects created or deleted during the iteration may or may not be returned, and an object may be
+     * returned more than once if the class list is resized by Redis during the iteration.
+     *
+     * @param aClass The class of the objects to retrieve.
+     * @param <T>    The type of the objects.
+     * @return Returns an iterator over the objects.
+     * @throws OperationFailedException thrown when the class is not registered.
+     */
+    public static <T> Iterator<T> iterate(Class<T> aClass) throws OperationFailedException {
+        return iterate(aClass, scanPageSize);
+    }
+
+    /**
+     * Iterates over all objects stored for a particular class without loading them all in memory, using a specific page size.
+     *
+     * @param aClass   The class of the objects to retrieve.
+     * @param pageSize The number of IDs requested from Redis per page.
+     * @param <T>      The type of the objects.
+     * @return Returns an iterator over the objects.
+     * @throws OperationFailedException thrown when the class is not registered.
+     * @see #iterate(Class)
+     */
+    public static <T> Iterator<T> iterate(Class<T> aClass, int pageSize) throws OperationFailedException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be greater than 0.");
+        }
+        try {
+            return new ScanIterator<>(checkRegistration(aClass), aClass, pageSize);
+        } catch (ClassRegistrationException e) {
+            throw new OperationFailedException(e);
+        }
+    }
+
+    /**
+     * Iterates over the IDs of all objects stored for a particular class a page at a time, without loading them all in memory.
+     * The class list is scanned using SSCAN, with the same guarantees as iterate(), and a connection is only borrowed while a page is read.
+     *
+     * @param aClass   The class of the objects.
+     * @param pageSize The number of IDs requested from Redis per page.
+     * @return Returns an iterator over pages of IDs, as UTF-8 encoded bytes, which can be fetched using getManyWithBytes().
+     * @throws OperationFailedException thrown when the class is not registered.
+     */
+    public static Iterator<List<byte[]>> scanIDs(Class<?> aClass, int pageSize) throws OperationFailedException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be greater than 0.");
+        }
+        try {
+            return new ClassListScanner(checkRegistration(aClass), pageSize);
+        } catch (ClassRegistrationException e) {
+            throw new OperationFailedException(e);
+        }
+    }
+
+    /**
+     * Streams all objects stored for a particular class without loading them all in memory.
+     *
+     * @param aClass The class of the objects to retrieve.
+     * @param <T>    The type of the objects.
+     * @return Returns a sequential stream of objects.
+     * @throws OperationFailedException thrown when the class is not registered.
+     * @see #iterate(Class)
+     */
+    public static <T> Stream<T> stream(Class<T> aClass) throws OperationFailedException {
+        return stream(aClass, scanPageSize);
+    }
+
+    /**
+     * Streams all objects stored for a particular class without loading them all in memory, using a specific page size.
+     *
+     * @param aClass   The class of the objects to retrieve.
+     * @param pageSize The number of IDs requested from Redis per page.
+     * @param <T>      The type of the objects.
+     * @return Returns a sequential stream of objects.
+     * @throws OperationFailedException thrown when the class is not registered.
+     * @see #iterate(Class)
+     */
+    public static <T> Stream<T> stream(Class<T> aClass, int pageSize) throws OperationFailedException {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterate(aClass, pageSize), Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Publishes all objects stored for a particular class to subscribers as they request them, without loading them all in memory.
+     *
+     * @param aClass The class of the objects to publish.
+     * @param <T>    The type of the objects.
+     * @return Returns a publisher of the objects.
+     * @throws OperationFailedException thrown when the class is not registered.
+     * @see #publish(Class, int)
+     */
+    public static <T> Publisher<T> publish(Class<T> aClass) throws OperationFailedException {
+        return publish(aClass, scanPageSize);
+    }
+
+    /**
+     * Publishes all objects stored for a particular class to subscribers as they request them, using a specific page size.
+     * The class list is scanned page by page using SSCAN, and the next page is only fetched once the objects of the previous page have been
+     * requested, so at most about one page of objects is held in memory per subscriber. Each page is fetched using a single MGET, and is
+     * deserialized on the same thread. Each subscriber scans the class list on its own, with the same guarantees as iterate().
+     * Pages are fetched and objects are published by tasks on the executor used by parallel operations (see getTaskExecutor()).
+     *
+     * @param aClass   The class of the objects to publish.
+     * @param pageSize The number of IDs requested from Redis per page.
+     * @param <T>      The type of the objects.
+     * @return Returns a publisher of the objects.
+     * @throws OperationFailedException thrown when the class is not registered.
+     */
+    public static <T> Publisher<T> publish(Class<T> aClass, int pageSize) throws OperationFailedException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be greater than 0.");
+        }
+        final ClassMetadata metadata;
+        try {
+            metadata = checkRegistration(aClass);
+        } catch (ClassRegistrationException e) {
+            throw new OperationFailedException(e);
+        }
+        return new PagePublisher<>(() -> {
+            final ClassListScanner scanner = new ClassListScanner(metadata, pageSize);
+            return new Iterator<List<T>>() {
+                @Override
+                public boolean hasNext() {
+                    return scanner.hasNext();
+                }
+
+                @Override
+                public List<T> next() {
+                    final List<T> items = getManyWithBytes(aClass, scanner.next());
+                    //Objects deleted after their ID was scanned are skipped:
+                    items.removeIf(Objects::isNull);
+                    return items;
+                }
+            };
+        }, Objectis::getTaskExecutor);
+    }
+
     /**
      * Checks if an object exists in the cache.
      *
@@ -497,13 +1506,16 @@ public final class Objectis {
      */
     public static <T> boolean exists(Class<T> aClass, String id) {
         try {
-            checkRegistration(aClass);
-            final byte[] objectPathBytes = PathMaker.getObjectPath(aClass, id);
+            final ClassMetadata metadata = checkRegistration(aClass);
+            final byte[] objectPathBytes = PathMaker.getObjectPath(metadata, id);
             final boolean result;
 
             final Jedis jedis = getJedis();
-            result = jedis.get(objectPathBytes) != null;
-            releaseJedis(jedis);
+            try {
+                result = jedis.exists(objectPathBytes);
+            } finally {
+                releaseJedis(jedis);
+            }
 
             return result;
         } catch (Exception e) {
@@ -521,13 +1533,25 @@ public final class Objectis {
      */
     public static <T> void delete(Class<T> aClass, String id) {
         try {
-            checkRegistration(aClass);
-            final byte[] objectPathBytes = PathMaker.getObjectPath(aClass, id);
+            final ClassMetadata metadata = checkRegistration(aClass);
+            final byte[] objectPathBytes = PathMaker.getObjectPath(metadata, id);
+
+            final byte[] idBytes = Serializer.serializeKey(id);
 
             final Jedis jedis = getJedis();
-            jedis.del(objectPathBytes);
-            jedis.srem(PathMaker.getClassListPath(aClass), Serializer.serializeKey(id));
-            releaseJedis(jedis);
+            try {
+                final Object storedObject = metadata.hasIndexes() ? getStoredObject(jedis, metadata, objectPathBytes) : null;
+                final MultiKeyPipelineBase batch = beginWrite(jedis);
+                batch.del(objectPathBytes);
+                batch.srem(metadata.getClassListPath(), idBytes);
+                if (storedObject != null) {
+                    IndexWriter.unindex(batch, metadata, idBytes, storedObject);
+                }
+                endWrite(batch);
+            } finally {
+                invalidate(objectPathBytes);
+                releaseJedis(jedis);
+            }
 
 //            publisher.publish(aClass, id, OperationType.DELETE, null);
         } catch (Exception e) {
@@ -544,14 +1568,26 @@ public final class Objectis {
      */
     public static <T> void delete(T object) throws OperationFailedException {
         try {
-            checkRegistration(object);
-            final String id = Reflector.getIDField(object);
-            final byte[] objectPathBytes = PathMaker.getObjectPath(object.getClass(), id);
+            final ClassMetadata metadata = checkRegistration(object);
+            final String id = metadata.getId(object);
+            final byte[] objectPathBytes = PathMaker.getObjectPath(metadata, id);
+
+            final byte[] idBytes = Serializer.serializeKey(id);
 
             final Jedis jedis = getJedis();
-            jedis.del(objectPathBytes);
-            jedis.srem(PathMaker.getClassListPath(object.getClass()), Serializer.serializeKey(id));
-            releaseJedis(jedis);
+            try {
+                final Object storedObject = metadata.hasIndexes() ? getStoredObject(jedis, metadata, objectPathBytes) : null;
+                final MultiKeyPipelineBase batch = beginWrite(jedis);
+                batch.del(objectPathBytes);
+                batch.srem(metadata.getClassListPath(), idBytes);
+                if (storedObject != null) {
+                    IndexWriter.unindex(batch, metadata, idBytes, storedObject);
+                }
+                endWrite(batch);
+            } finally {
+                invalidate(objectPathBytes);
+                releaseJedis(jedis);
+            }
 
         } catch (Exception e) {
             throw new OperationFailedException(e);
@@ -560,6 +1596,7 @@ public final class Objectis {
 
     /**
      * Deletes a list of objects from the cache based on the given IDs.
+     * Objects are deleted in batches using a single variadic DEL (or UNLINK) and SREM per batch.
      *
      * @param aClass The object class.
      * @param ids    A list of object IDs.
@@ -567,23 +1604,35 @@ public final class Objectis {
      * @throws OperationFailedException when the operation fails.
      */
     public static <T> void deleteAll(Class<T> aClass, String... ids) {
-        try {
-            checkRegistration(aClass);
-            for (String id : ids) {
-                final byte[] objectPathBytes = PathMaker.getObjectPath(aClass, id);
-
-                final Jedis jedis = getJedis();
-                jedis.del(objectPathBytes);
-                jedis.srem(PathMaker.getClassListPath(aClass), Serializer.serializeKey(id));
-                releaseJedis(jedis);
-
-//            publisher.publish(aClass, id, OperationType.DELETE, null);
+        if (ids.length > 0) {
+            final ClassMetadata metadata;
+            try {
+                metadata = checkRegistration(aClass);
+            } catch (ClassRegistrationException e) {
+                throw new OperationFailedException(e);
             }
-        } catch (Exception e) {
-            throw new OperationFailedException(e);
+            deleteAll(metadata, ids);
+//            publisher.publish(aClass, id, OperationType.DELETE, null);
         }
     }
 
+    /**
+     * Deletes objects of a registered class based on the given IDs.
+     *
+     * @param metadata The metadata of the object class.
+     * @param ids      The IDs of the objects to delete.
+     * @throws OperationFailedException when the operation fails.
+     */
+    private static void deleteAll(ClassMetadata metadata, String[] ids) throws OperationFailedException {
+        final byte[][] objectPaths = new byte[ids.length][];
+        final byte[][] idBytes = new byte[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            idBytes[i] = Serializer.serializeKey(ids[i]);
+            objectPaths[i] = PathMaker.getObjectPath(metadata, idBytes[i]);
+        }
+        deleteAll(metadata, objectPaths, idBytes);
+    }
+
     /**
      * Deletes a list of objects from the cache based on the given IDs.
      *
@@ -597,7 +1646,7 @@ public final class Objectis {
     }
 
     /**
-     * Deletes a list of objects from the cache.
+     * Deletes a list of objects from the cache. The objects are grouped by class, and nothing is deleted unless all of their classes are registered.
      *
      * @param objects The list of objects to delete.
      * @param <T>     The type of the objects.
@@ -605,22 +1654,68 @@ public final class Objectis {
      */
     public static <T> void deleteAll(List<T> objects) throws OperationFailedException {
         if (objects.size() > 0) {
+            final Map<Class<?>, ClassMetadata> metadataPerClass = new HashMap<>();
+            final Map<ClassMetadata, List<String>> idsPerClass = new LinkedHashMap<>();
             try {
-                checkRegistration(objects.get(0).getClass());
                 for (T object : objects) {
-                    final String id = Reflector.getIDField(object);
-                    final byte[] objectPathBytes = PathMaker.getObjectPath(object.getClass(), id);
+                    ClassMetadata metadata = metadataPerClass.get(object.getClass());
+                    if (metadata == null) {
+                        metadata = checkRegistration(object.getClass());
+                        metadataPerClass.put(object.getClass(), metadata);
+                    }
+                    idsPerClass.computeIfAbsent(metadata, m -> new ArrayList<>()).add(metadata.getId(object));
+                }
+            } catch (ClassRegistrationException e) {
+                throw new OperationFailedException(e);
+            }
+            for (Map.Entry<ClassMetadata, List<String>> entry : idsPerClass.entrySet()) {
+                deleteAll(entry.getKey(), entry.getValue().toArray(new String[0]));
+            }
+        }
+    }
 
-                    final Jedis jedis = getJedis();
-                    jedis.del(objectPathBytes);
-                    jedis.srem(PathMaker.getClassListPath(object.getClass()), Serializer.serializeKey(id));
-                    releaseJedis(jedis);
+    /**
+     * Deletes objects of a class in batches. When multithreading is enabled and there is more than one batch,
+     * batches are deleted in parallel, each on its own connection.
+     *
+     * @param metadata    The metadata of the object class.
+     * @param objectPaths The paths of the objects to delete.
+     * @param ids         The IDs of the objects to delete, in the same order as their paths.
+     * @throws OperationFailedException when the operation fails.
+     */
+    private static void deleteAll(ClassMetadata metadata, byte[][] objectPaths, byte[][] ids) throws OperationFailedException {
+        try {
+            deleteAllInBatches(metadata, objectPaths, ids);
+        } finally {
+            invalidate(objectPaths);
+        }
+    }
 
+    private static void deleteAllInBatches(ClassMetadata metadata, byte[][] objectPaths, byte[][] ids) throws OperationFailedException {
+        final List<ArrayRange> ranges = ArrayRange.chunks(objectPaths.length, batchSize);
+        if (ranges.size() > 1 && canSplitWork()) {
+            try {
+                List<DeleteManyCallable> callables = new ArrayList<>();
+                for (ArrayRange range : ranges) {
+                    callables.add(new DeleteManyCallable(metadata, objectPaths, ids, range, useUnlink));
                 }
-            } catch (Exception e) {
+                for (Future<Void> future : workerPool.getExecutor().invokeAll(callables)) {
+                    future.get();
+                }
+            } catch (InterruptedException | ExecutionException | RejectedExecutionException e) {
                 throw new OperationFailedException(e);
             }
         }
+        else {
+            final Jedis jedis = getJedis();
+            try {
+                for (ArrayRange range : ranges) {
+                    new DeleteManyCallable(metadata, objectPaths, ids, range, useUnlink).deleteRange(jedis);
+                }
+            } finally {
+                releaseJedis(jedis);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,461 @@
+package com.raylabz.objectis;
+
+import com.raylabz.objectis.cache.NearCache;
+import com.raylabz.objectis.concurrency.PipelineDispatcher;
+import com.raylabz.objectis.exception.OperationFailedException;
+import com.raylabz.objectis.query.ObjectisAsyncCollection;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * An asynchronous counterpart of Objectis, whose operations return futures instead of blocking the calling thread.
+ * Operations submitted concurrently are sent to Redis in shared pipelines by a PipelineDispatcher, so that many operations in flight
+ * share each round trip. Operations that read an object before writing it, such as updates and deletions of indexed objects,
+ * take two round trips.
+ * <p>
+ * In pipelined write mode, writes are not atomic, as with Objectis. In atomic write mode, writes cannot share pipelines,
+ * as each needs a transaction of its own, so they are performed using Objectis on the Objectis executor instead.
+ * Futures of failed operations complete exceptionally with an OperationFailedException.
+ */
+public final class ObjectisAsync {
+
+    private static final PipelineDispatcher dispatcher = new PipelineDispatcher(Objectis::getExecutor);
+
+    /**
+     * Private constructor.
+     */
+    private ObjectisAsync() {
+    }
+
+    /**
+     * Retrieves the dispatcher that sends the commands of asynchronous operations to Redis.
+     *
+     * @return Returns a PipelineDispatcher.
+     */
+    public static PipelineDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Stores an object in the cache.
+     *
+     * @param object The object to save.
+     * @param <T>    The type of object to store.
+     * @return Returns a future completed when the object is stored.
+     */
+    public static <T> CompletableFuture<Void> create(final T object) {
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(object);
+            return create(metadata, object, metadata.getId(object));
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Stores an object in the cache using a custom ID.
+     *
+     * @param object The object to save.
+     * @param id     The custom ID.
+     * @param <T>    The type of object to store.
+     * @return Returns a future completed when the object is stored.
+     */
+    public static <T> CompletableFuture<Void> create(final T object, String id) {
+        try {
+            return create(Objectis.checkRegistration(object), object, id);
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    private static CompletableFuture<Void> create(ClassMetadata metadata, Object object, String id) {
+        if (Objectis.getWriteMode() == WriteMode.ATOMIC) {
+            return CompletableFuture.runAsync(() -> Objectis.create(object, id), Objectis.getExecutor());
+        }
+        final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+        final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        final Object serializedObject = serialize(metadata, object);
+        return getStoredObject(metadata, objectPath).thenCompose(storedObject -> dispatcher.<Void>submit(pipeline -> {
+            writeObject(pipeline, objectPath, serializedObject);
+            pipeline.sadd(metadata.getClassListPath(), idBytes);
+            if (metadata.hasIndexes()) {
+                IndexWriter.reindex(pipeline, metadata, idBytes, storedObject, object);
+            }
+            return () -> null;
+        })).whenComplete((result, error) -> Objectis.invalidate(objectPath));
+    }
+
+    /**
+     * Updates an object in the cache.
+     * If the object's class has indexes, the stored object is read first so that only its changed index entries are written.
+     *
+     * @param object The object to update.
+     * @param <T>    The type of the object.
+     * @return Returns a future completed when the object is updated.
+     */
+    public static <T> CompletableFuture<Void> update(final T object) {
+        if (Objectis.getWriteMode() == WriteMode.ATOMIC) {
+            return CompletableFuture.runAsync(() -> Objectis.update(object), Objectis.getExecutor());
+        }
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(object);
+            final String id = metadata.getId(object);
+            final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+            final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+            final Object serializedObject = serialize(metadata, object);
+            return getStoredObject(metadata, objectPath).thenCompose(storedObject -> dispatcher.<Void>submit(pipeline -> {
+                writeObject(pipeline, objectPath, serializedObject);
+                pipeline.sadd(metadata.getClassListPath(), idBytes);
+                if (metadata.hasIndexes()) {
+                    IndexWriter.reindex(pipeline, metadata, idBytes, storedObject, object);
+                }
+                return () -> null;
+            })).whenComplete((result, error) -> Objectis.invalidate(objectPath));
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Retrieves an object from the cache. The object is deserialized on the Objectis executor rather than on the thread that sends the pipelines.
+     *
+     * @param aClass The class of the object.
+     * @param id     The object's ID.
+     * @param <T>    The type of the object.
+     * @return Returns a future completed with the object, or with null if it does not exist.
+     */
+    public static <T> CompletableFuture<T> get(Class<T> aClass, String id) {
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(aClass);
+            final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+            final NearCache cache = Objectis.getNearCache();
+            final T cachedObject = cache != null ? cache.get(objectPath, metadata, aClass) : null;
+            if (cachedObject != null) {
+                return CompletableFuture.completedFuture(cachedObject);
+            }
+            final long stamp = cache != null ? cache.getStamp() : 0;
+            return dispatcher.<Object>submit(pipeline -> {
+                if (metadata.isHashLayout()) {
+                    final Response<Map<byte[], byte[]>> response = pipeline.hgetAll(objectPath);
+                    return response::get;
+                }
+                final Response<byte[]> response = pipeline.get(objectPath);
+                return response::get;
+            }).thenApplyAsync(storedObject -> {
+                try {
+                    final T object = deserialize(metadata, aClass, storedObject);
+                    return cache(cache, metadata, objectPath, object, storedObject instanceof byte[] ? (byte[]) storedObject : null, stamp);
+                } catch (Exception e) {
+                    throw new OperationFailedException(e);
+                }
+            }, Objectis.getExecutor());
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Retrieve many objects, for a specific class from the cache using the IDs provided.
+     *
+     * @param aClass The class.
+     * @param ids    A list of IDs.
+     * @param <T>    The object type.
+     * @return Returns a future completed with a list of objects, in the order of the IDs provided. Objects that do not exist are returned as null.
+     */
+    public static <T> CompletableFuture<List<T>> getMany(Class<T> aClass, String... ids) {
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(aClass);
+            final byte[][] objectPaths = new byte[ids.length][];
+            for (int i = 0; i < ids.length; i++) {
+                objectPaths[i] = PathMaker.getObjectPath(metadata, ids[i]);
+            }
+            return getManyFromPaths(metadata, aClass, objectPaths);
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Retrieve many objects, for a specific class from the cache using the IDs provided.
+     *
+     * @param aClass The class.
+     * @param ids    A list of IDs.
+     * @param <T>    The object type.
+     * @return Returns a future completed with a list of objects, in the order of the IDs provided. Objects that do not exist are returned as null.
+     */
+    public static <T> CompletableFuture<List<T>> getMany(Class<T> aClass, List<String> ids) {
+        return getMany(aClass, ids.toArray(new String[0]));
+    }
+
+    /**
+     * Retrieve many objects, for a specific class from the cache using the IDs provided as bytes.
+     *
+     * @param aClass The class.
+     * @param ids    A list of IDs.
+     * @param <T>    The object type.
+     * @return Returns a future completed with a list of objects, in the order of the IDs provided. Objects that do not exist are returned as null.
+     */
+    public static <T> CompletableFuture<List<T>> getManyWithBytes(Class<T> aClass, Collection<byte[]> ids) {
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(aClass);
+            final byte[][] objectPaths = new byte[ids.size()][];
+            int i = 0;
+            for (byte[] id : ids) {
+                objectPaths[i++] = PathMaker.getObjectPath(metadata, id);
+            }
+            return getManyFromPaths(metadata, aClass, objectPaths);
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Retrieves all objects stored for a particular class.
+     * The IDs of the objects are read in one round trip and the objects in another.
+     *
+     * @param aClass The class of the objects to retrieve.
+     * @param <T>    The type of the objects.
+     * @return Returns a future completed with a list of objects. IDs in the class list whose objects do not exist are skipped.
+     */
+    public static <T> CompletableFuture<List<T>> list(Class<T> aClass) {
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(aClass);
+            return dispatcher.submit(pipeline -> {
+                final Response<Set<byte[]>> response = pipeline.smembers(metadata.getClassListPath());
+                return response::get;
+            }).thenCompose(ids -> getManyWithBytes(aClass, ids)).thenApply(ObjectisAsync::removeNulls);
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Removes the objects that do not exist from a list of objects retrieved by their IDs.
+     *
+     * @param items The objects.
+     * @param <T>   The type of the objects.
+     * @return Returns the list, without null elements.
+     */
+    private static <T> List<T> removeNulls(List<T> items) {
+        items.removeIf(Objects::isNull);
+        return items;
+    }
+
+    /**
+     * Checks if an object exists in the cache.
+     *
+     * @param aClass The class of the object.
+     * @param id     The ID of the object.
+     * @param <T>    The object type.
+     * @return Returns a future completed with true if the object exists, false otherwise.
+     */
+    public static <T> CompletableFuture<Boolean> exists(Class<T> aClass, String id) {
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(aClass);
+            final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+            return dispatcher.submit(pipeline -> {
+                final Response<Boolean> response = pipeline.exists(objectPath);
+                return response::get;
+            });
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Deletes an object from the cache.
+     *
+     * @param aClass The object class.
+     * @param id     The ID of the object.
+     * @param <T>    The type of the object.
+     * @return Returns a future completed when the object is deleted.
+     */
+    public static <T> CompletableFuture<Void> delete(Class<T> aClass, String id) {
+        if (Objectis.getWriteMode() == WriteMode.ATOMIC) {
+            return CompletableFuture.runAsync(() -> Objectis.delete(aClass, id), Objectis.getExecutor());
+        }
+        try {
+            return delete(Objectis.checkRegistration(aClass), id);
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Deletes an object from the cache.
+     *
+     * @param object The object to delete.
+     * @param <T>    The type of the object.
+     * @return Returns a future completed when the object is deleted.
+     */
+    public static <T> CompletableFuture<Void> delete(T object) {
+        if (Objectis.getWriteMode() == WriteMode.ATOMIC) {
+            return CompletableFuture.runAsync(() -> Objectis.delete(object), Objectis.getExecutor());
+        }
+        try {
+            final ClassMetadata metadata = Objectis.checkRegistration(object);
+            return delete(metadata, metadata.getId(object));
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    private static CompletableFuture<Void> delete(ClassMetadata metadata, String id) {
+        final byte[] objectPath = PathMaker.getObjectPath(metadata, id);
+        final byte[] idBytes = Serializer.serializeKey(id);
+        return getStoredObject(metadata, objectPath).thenCompose(storedObject -> dispatcher.<Void>submit(pipeline -> {
+            pipeline.del(objectPath);
+            pipeline.srem(metadata.getClassListPath(), idBytes);
+            if (storedObject != null) {
+                IndexWriter.unindex(pipeline, metadata, idBytes, storedObject);
+            }
+            return () -> null;
+        })).whenComplete((result, error) -> Objectis.invalidate(objectPath));
+    }
+
+    /**
+     * Retrieves a collection, whose operations return futures.
+     *
+     * @param aClass         The class of the collection's items.
+     * @param collectionName The name of the collection.
+     * @param <T>            The type of the collection's items.
+     * @return Returns an ObjectisAsyncCollection.
+     */
+    public static <T> ObjectisAsyncCollection<T> collection(Class<T> aClass, String collectionName) {
+        return new ObjectisAsyncCollection<>(aClass, collectionName);
+    }
+
+    /**
+     * Retrieves many objects, serving the objects held by the near cache, if one is used, and reading the rest in a shared pipeline.
+     * Objects are deserialized on the Objectis executor rather than on the thread that sends the pipelines.
+     *
+     * @param metadata    The metadata of the class.
+     * @param aClass      The class.
+     * @param objectPaths The paths of the objects.
+     * @param <T>         The object type.
+     * @return Returns a future completed with a list of objects, in the order of the paths provided.
+     */
+    private static <T> CompletableFuture<List<T>> getManyFromPaths(ClassMetadata metadata, Class<T> aClass, byte[][] objectPaths) {
+        final NearCache cache = Objectis.getNearCache();
+        final long stamp = cache != null ? cache.getStamp() : 0;
+        final List<T> items = new ArrayList<>(Collections.nCopies(objectPaths.length, null));
+        final List<Integer> missingPositions = new ArrayList<>();
+        for (int i = 0; i < objectPaths.length; i++) {
+            final T cachedObject = cache != null ? cache.get(objectPaths[i], metadata, aClass) : null;
+            if (cachedObject != null) {
+                items.set(i, cachedObject);
+            }
+            else {
+                missingPositions.add(i);
+            }
+        }
+        if (missingPositions.isEmpty()) {
+            return CompletableFuture.completedFuture(items);
+        }
+        final byte[][] missingPaths = new byte[missingPositions.size()][];
+        for (int i = 0; i < missingPaths.length; i++) {
+            missingPaths[i] = objectPaths[missingPositions.get(i)];
+        }
+        return dispatcher.<List<?>>submit(pipeline -> {
+            if (metadata.isHashLayout()) {
+                final List<Response<Map<byte[], byte[]>>> responses = new ArrayList<>(missingPaths.length);
+                for (byte[] objectPath : missingPaths) {
+                    responses.add(pipeline.hgetAll(objectPath));
+                }
+                return () -> {
+                    final List<Map<byte[], byte[]>> hashes = new ArrayList<>(responses.size());
+                    for (Response<Map<byte[], byte[]>> response : responses) {
+                        hashes.add(response.get());
+                    }
+                    return hashes;
+                };
+            }
+            final Response<List<byte[]>> response = pipeline.mget(missingPaths);
+            return response::get;
+        }).thenApplyAsync(storedObjects -> {
+            try {
+                for (int i = 0; i < missingPaths.length; i++) {
+                    final T item = deserialize(metadata, aClass, storedObjects.get(i));
+                    final Object bytes = storedObjects.get(i);
+                    items.set(missingPositions.get(i), cache(cache, metadata, missingPaths[i], item, bytes instanceof byte[] ? (byte[]) bytes : null, stamp));
+                }
+                return items;
+            } catch (Exception e) {
+                throw new OperationFailedException(e);
+            }
+        }, Objectis.getExecutor());
+    }
+
+    /**
+     * Reads the stored state of an object that is about to be overwritten or deleted, to find its current index entries.
+     * The object is deserialized on the Objectis executor rather than on the thread that sends the pipelines.
+     *
+     * @param metadata   The metadata of the object's class.
+     * @param objectPath The path of the object.
+     * @return Returns a future completed with the stored object, or with null if it does not exist or its class has no indexes.
+     */
+    private static CompletableFuture<Object> getStoredObject(ClassMetadata metadata, byte[] objectPath) {
+        if (!metadata.hasIndexes()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (metadata.isHashLayout()) {
+            final byte[][] indexedFields = metadata.getIndexedHashFields();
+            return dispatcher.<List<byte[]>>submit(pipeline -> {
+                final Response<List<byte[]>> response = pipeline.hmget(objectPath, indexedFields);
+                return response::get;
+            }).thenApplyAsync(storedFields -> metadata.deserializeHashFields(indexedFields, storedFields, Object.class), Objectis.getExecutor());
+        }
+        return dispatcher.<byte[]>submit(pipeline -> {
+            final Response<byte[]> response = pipeline.get(objectPath);
+            return response::get;
+        }).thenApplyAsync(storedBytes -> storedBytes == null ? null : metadata.deserialize(storedBytes, Object.class), Objectis.getExecutor());
+    }
+
+    /**
+     * Serializes an object on the calling thread, so that the thread sending the pipelines only writes bytes.
+     *
+     * @param metadata The metadata of the object's class.
+     * @param object   The object.
+     * @return Returns the serialized object, or its hash entries for classes stored as hashes.
+     */
+    private static Object serialize(ClassMetadata metadata, Object object) {
+        return metadata.isHashLayout() ? metadata.serializeHash(object) : metadata.serialize(object);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeObject(Pipeline pipeline, byte[] objectPath, Object serializedObject) {
+        if (serializedObject instanceof Map) {
+            pipeline.hset(objectPath, (Map<byte[], byte[]>) serializedObject);
+        }
+        else {
+            pipeline.set(objectPath, (byte[]) serializedObject);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(ClassMetadata metadata, Class<T> aClass, Object storedObject) {
+        if (storedObject instanceof Map) {
+            return metadata.deserializeHash((Map<byte[], byte[]>) storedObject, aClass);
+        }
+        return storedObject == null ? null : metadata.deserialize((byte[]) storedObject, aClass);
+    }
+
+    private static <T> T cache(NearCache cache, ClassMetadata metadata, byte[] objectPath, T object, byte[] bytes, long stamp) {
+        if (cache != null && object != null) {
+            cache.put(objectPath, metadata, object, bytes, stamp);
+        }
+        return object;
+    }
+
+    private static <R> CompletableFuture<R> failed(Exception e) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        future.completeExceptionally(e instanceof OperationFailedException ? e : new OperationFailedException(e));
+        return future;
+    }
+
+}
@@ -1,21 +1,58 @@
 package com.raylabz.objectis;
 
 import com.raylabz.objectis.exception.ClassRegistrationException;
+import com.raylabz.objectis.serializer.JavaObjectSerializer;
+import com.raylabz.objectis.serializer.ObjectSerializer;
 
-import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Keeps track of registered classes and their metadata.
+ * Lookups are lock-free and can be performed concurrently with registrations.
+ */
 public class ObjectisRegistry {
 
-    private static final HashSet<Class<?>> REGISTERED_CLASSES = new HashSet<>();
+    private static final ConcurrentHashMap<Class<?>, ClassMetadata> REGISTERED_CLASSES = new ConcurrentHashMap<>();
 
     /**
-     * Checks a class for a valid structure and registers it.
+     * Checks a class for a valid structure and registers it, using Java serialization for its objects.
      * @param aClass The class to register.
+     * @param <T> The type of the class.
      * @throws ClassRegistrationException Thrown when the class provided does not have a valid structure.
      */
-    static void register(Class<?> aClass) throws ClassRegistrationException {
+    static <T> void register(Class<T> aClass) throws ClassRegistrationException {
+        register(aClass, new JavaObjectSerializer<>(aClass));
+    }
+
+    /**
+     * Checks a class for a valid structure and registers it, using the given serializer for its objects.
+     * Registering a class again replaces its metadata.
+     * @param aClass The class to register.
+     * @param serializer The serializer to use for objects of this class.
+     * @param <T> The type of the class.
+     * @throws ClassRegistrationException Thrown when the class provided does not have a valid structure.
+     */
+    static <T> void register(Class<T> aClass, ObjectSerializer<T> serializer) throws ClassRegistrationException {
+        register(aClass, serializer, StorageLayout.VALUE);
+    }
+
+    /**
+     * Checks a class for a valid structure and registers it, using the given serializer and storage layout for its objects.
+     * Registering a class again replaces its metadata.
+     * @param aClass The class to register.
+     * @param serializer The serializer to use for objects of this class.
+     * @param storageLayout The layout used to store objects of this class.
+     * @param <T> The type of the class.
+     * @throws ClassRegistrationException Thrown when the class provided does not have a valid structure, or when the hash layout
+     * is used with a serializer that cannot serialize fields on their own.
+     */
+    static <T> void register(Class<T> aClass, ObjectSerializer<T> serializer, StorageLayout storageLayout) throws ClassRegistrationException {
         Reflector.checkClass(aClass);
-        REGISTERED_CLASSES.add(aClass);
+        try {
+            REGISTERED_CLASSES.put(aClass, new ClassMetadata(aClass, serializer, storageLayout));
+        } catch (IllegalArgumentException e) {
+            throw new ClassRegistrationException(e.getMessage());
+        }
     }
 
     /**
@@ -24,7 +61,27 @@ public class ObjectisRegistry {
      * @return Returns true if the class provided is registered (and valid), false otherwise.
      */
     static boolean isRegistered(final Class<?> aClass) {
-        return REGISTERED_CLASSES.contains(aClass);
+        return REGISTERED_CLASSES.containsKey(aClass);
+    }
+
+    /**
+     * Retrieves the metadata that was built for a class when it was registered.
+     * @param aClass The class.
+     * @return Returns the class metadata, or null if the class is not registered.
+     */
+    public static ClassMetadata getMetadata(final Class<?> aClass) {
+        return REGISTERED_CLASSES.get(aClass);
+    }
+
+    /**
+     * Retrieves the serializer of a registered class.
+     * @param aClass The class.
+     * @param <T> The type of the class.
+     * @return Returns the serializer, or null if the class is not registered.
+     */
+    static <T> ObjectSerializer<T> getSerializer(final Class<T> aClass) {
+        final ClassMetadata metadata = REGISTERED_CLASSES.get(aClass);
+        return metadata == null ? null : metadata.getSerializer();
     }
 
 }
@@ -2,6 +2,11 @@ package com.raylabz.objectis;
 
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Builds the keys under which objects, class lists and collections are stored.
+ * For registered classes, keys are composed from the UTF-8 encoded prefixes cached in the class metadata,
+ * so that only the resulting key is allocated.
+ */
 public class PathMaker {
 
     /**
@@ -12,7 +17,7 @@ public class PathMaker {
      * @throws IllegalAccessException thrown when the ID field cannot be accessed.
      */
     public static byte[] getObjectPath(Object object) throws NoSuchFieldException, IllegalAccessException {
-        return Serializer.serializeKey(object.getClass().getName() + "/" + Reflector.getIDField(object));
+        return getObjectPath(object.getClass(), Reflector.getIDField(object));
     }
 
     /**
@@ -22,7 +27,35 @@ public class PathMaker {
      * @return Returns a byte[]
      */
     public static byte[] getObjectPath(Class<?> aClass, String id) {
-        return Serializer.serializeKey(aClass.getName() + "/" + id);
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(aClass);
+        if (metadata == null) {
+            return Serializer.serializeKey(aClass.getName() + "/" + id);
+        }
+        return getObjectPath(metadata, id);
+    }
+
+    /**
+     * Constructs an object path for an object of a registered class: #CLASS_NAME#/#ID#
+     * @param metadata The metadata of the class.
+     * @param id The ID.
+     * @return Returns a byte[]
+     */
+    public static byte[] getObjectPath(ClassMetadata metadata, String id) {
+        return appendUTF8(metadata.getObjectPathPrefix(), id);
+    }
+
+    /**
+     * Constructs an object path for an object of a registered class using its UTF-8 encoded ID: #CLASS_NAME#/#ID#
+     * @param metadata The metadata of the class.
+     * @param id The ID, as UTF-8 encoded bytes.
+     * @return Returns a byte[]
+     */
+    public static byte[] getObjectPath(ClassMetadata metadata, byte[] id) {
+        final byte[] prefix = metadata.getObjectPathPrefix();
+        final byte[] path = new byte[prefix.length + id.length];
+        System.arraycopy(prefix, 0, path, 0, prefix.length);
+        System.arraycopy(id, 0, path, prefix.length, id.length);
+        return path;
     }
 
     /**
@@ -32,16 +65,82 @@ public class PathMaker {
      * @return Returns a byte[]
      */
     public static byte[] getCollectionPath(Class<?> aClass, String collectionName) {
-        return Serializer.serializeKey(aClass.getName() + ":" + collectionName);
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(aClass);
+        if (metadata == null) {
+            return Serializer.serializeKey(aClass.getName() + ":" + collectionName);
+        }
+        return appendUTF8(metadata.getCollectionPathPrefix(), collectionName);
     }
 
     /**
      * Constructs a class list path as a string and returns its bytes: #CLASS_NAME#
+     * For registered classes, the returned array is shared and must not be modified.
      * @param aClass The class.
      * @return Returns a byte[].
      */
     public static byte[] getClassListPath(Class<?> aClass) {
-        return Serializer.serializeKey(aClass.getName());
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(aClass);
+        if (metadata == null) {
+            return Serializer.serializeKey(aClass.getName());
+        }
+        return metadata.getClassListPath();
+    }
+
+    /**
+     * Encodes a string as UTF-8 directly after a prefix, allocating only the resulting array.
+     * @param prefix The prefix.
+     * @param value The string to append.
+     * @return Returns a new byte[] containing the prefix followed by the encoded string.
+     */
+    static byte[] appendUTF8(byte[] prefix, String value) {
+        final int length = value.length();
+        int encodedLength = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                encodedLength++;
+            }
+            else if (c < 0x800) {
+                encodedLength += 2;
+            }
+            else if (Character.isSurrogate(c)) {
+                //Strings with surrogate pairs are rare in keys, so they are encoded by the JDK:
+                final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                final byte[] path = new byte[prefix.length + encoded.length];
+                System.arraycopy(prefix, 0, path, 0, prefix.length);
+                System.arraycopy(encoded, 0, path, prefix.length, encoded.length);
+                return path;
+            }
+            else {
+                encodedLength += 3;
+            }
+        }
+
+        final byte[] path = new byte[prefix.length + encodedLength];
+        System.arraycopy(prefix, 0, path, 0, prefix.length);
+        int position = prefix.length;
+        if (encodedLength == length) {
+            for (int i = 0; i < length; i++) {
+                path[position++] = (byte) value.charAt(i);
+            }
+            return path;
+        }
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                path[position++] = (byte) c;
+            }
+            else if (c < 0x800) {
+                path[position++] = (byte) (0xC0 | (c >> 6));
+                path[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else {
+                path[position++] = (byte) (0xE0 | (c >> 12));
+                path[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                path[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return path;
     }
 
 //    public static byte[] getPublishPath(Class<?> aClass, String id, OperationType opType) {
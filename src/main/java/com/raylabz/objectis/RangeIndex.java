@@ -0,0 +1,191 @@
+package com.raylabz.objectis;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Describes the range index of a field annotated with {@link com.raylabz.objectis.annotation.RangeIndexed}.
+ * The IDs of all objects with a non-null value are kept in a sorted set, scored by the field's value: #CLASS_NAME#@#FIELD_NAME#
+ * <p>
+ * Scores are doubles, so values of some types, such as longs above 2^53 or BigDecimals, may share a score with nearby values.
+ * Converting values to scores never reverses their order, so bounds on scores can find a superset of the matching objects,
+ * but the values themselves must be compared to tell which objects match.
+ */
+public final class RangeIndex {
+
+    private final FieldAccessor accessor;
+    private final byte[] key;
+
+    RangeIndex(Class<?> aClass, FieldAccessor accessor) {
+        this.accessor = accessor;
+        this.key = Serializer.serializeKey(aClass.getName() + "@" + accessor.getName());
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public String getFieldName() {
+        return accessor.getName();
+    }
+
+    /**
+     * Retrieves the key of the sorted set of this index.
+     * @return Returns a byte[]. The array is shared and must not be modified.
+     */
+    public byte[] getKey() {
+        return key;
+    }
+
+    /**
+     * Checks if values of this index's field always convert to distinct scores, in which case objects are ordered by score as by value.
+     * Dates are considered exact, as their scores are only rounded more than 285,000 years away from 1970.
+     * @return Returns true if the field is an int, short, byte, char, float, double, their boxed types, or a Date, false otherwise.
+     */
+    public boolean hasExactScores() {
+        final Class<?> type = accessor.getType();
+        return type == int.class || type == short.class || type == byte.class || type == char.class || type == float.class || type == double.class
+                || type == Integer.class || type == Short.class || type == Byte.class || type == Character.class || type == Float.class || type == Double.class
+                || Date.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Checks if this index's field cannot be null, in which case every object of the class is in the index.
+     * @return Returns true if the field is primitive, false otherwise.
+     */
+    public boolean isNeverNull() {
+        return accessor.getType().isPrimitive();
+    }
+
+    /**
+     * Retrieves the score of an object in this index.
+     * @param object The object.
+     * @return Returns the score, or null if the field's value is null and the object is not indexed.
+     */
+    public Double getScore(Object object) {
+        final Object value = accessor.get(object);
+        return value == null ? null : toScore(value);
+    }
+
+    /**
+     * Checks if a value can be converted to a score.
+     * @param value The value.
+     * @return Returns true if the value is a number, a character or a Date, false otherwise.
+     */
+    public static boolean isScorable(Object value) {
+        return value instanceof Number || value instanceof Character || value instanceof Date;
+    }
+
+    /**
+     * Checks if the values of a type can be converted to scores.
+     * @param type The type.
+     * @return Returns true if the type is numeric, a character or a Date, false otherwise.
+     */
+    public static boolean isScorableType(Class<?> type) {
+        return (type.isPrimitive() && type != boolean.class && type != void.class)
+                || Number.class.isAssignableFrom(type) || type == Character.class || Date.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Converts a value to its score.
+     * @param value The value. Must be a number, a character or a Date.
+     * @return Returns the score.
+     */
+    public static double toScore(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        throw new IllegalArgumentException("Values of type " + value.getClass().getSimpleName() + " cannot be range indexed.");
+    }
+
+    /**
+     * Checks if a value converts to a score that is exactly equal to it.
+     * @param value The value. Must be a number, a character or a Date.
+     * @return Returns true if the score is equal to the value, false if the score was rounded.
+     */
+    public static boolean isExactScore(Object value) {
+        return compare(toScore(value), value) == 0;
+    }
+
+    /**
+     * Compares two values that can be converted to scores by their exact values, even if they are of different types.
+     * Values of the same type are compared using their natural ordering. Dates are compared as their milliseconds and characters as their codes.
+     * @param value The first value. Must be a number, a character or a Date.
+     * @param other The second value. Must be a number, a character or a Date.
+     * @return Returns a negative integer, zero, or a positive integer if the first value is less than, equal to, or greater than the second.
+     */
+    @SuppressWarnings("unchecked")
+    public static int compare(Object value, Object other) {
+        final Object a = toNumber(value);
+        final Object b = toNumber(other);
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+        final boolean floatingA = a instanceof Double || a instanceof Float;
+        final boolean floatingB = b instanceof Double || b instanceof Float;
+        final double doubleA = ((Number) a).doubleValue();
+        final double doubleB = ((Number) b).doubleValue();
+        if (floatingA && floatingB) {
+            return Double.compare(doubleA, doubleB);
+        }
+        //NaN and infinities, which have no exact decimal value, are ordered like Double.compare() orders them:
+        if (floatingA && (Double.isNaN(doubleA) || Double.isInfinite(doubleA))) {
+            return Double.compare(doubleA, 0);
+        }
+        if (floatingB && (Double.isNaN(doubleB) || Double.isInfinite(doubleB))) {
+            return Double.compare(0, doubleB);
+        }
+        if (isIntegral(a) && isIntegral(b)) {
+            if (a instanceof BigInteger || b instanceof BigInteger) {
+                return toBigInteger(a).compareTo(toBigInteger(b));
+            }
+            return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+        }
+        return toBigDecimal(a).compareTo(toBigDecimal(b));
+    }
+
+    private static Object toNumber(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Character) {
+            return (int) (Character) value;
+        }
+        if (value instanceof Number) {
+            return value;
+        }
+        throw new IllegalArgumentException("Values of type " + value.getClass().getSimpleName() + " cannot be range indexed.");
+    }
+
+    private static boolean isIntegral(Object number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte
+                || number instanceof BigInteger || number instanceof AtomicInteger || number instanceof AtomicLong;
+    }
+
+    private static BigInteger toBigInteger(Object number) {
+        return number instanceof BigInteger ? (BigInteger) number : BigInteger.valueOf(((Number) number).longValue());
+    }
+
+    private static BigDecimal toBigDecimal(Object number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(((Number) number).longValue());
+        }
+        return new BigDecimal(((Number) number).doubleValue());
+    }
+
+}
@@ -1,11 +1,14 @@
 package com.raylabz.objectis;
 
+import com.raylabz.objectis.annotation.Indexed;
 import com.raylabz.objectis.annotation.ObjectisObject;
+import com.raylabz.objectis.annotation.RangeIndexed;
 import com.raylabz.objectis.exception.ClassRegistrationException;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 public final class Reflector {
 
@@ -67,6 +70,21 @@ public final class Reflector {
             throw new ClassRegistrationException("The 'id' field of class '" + clazz.getSimpleName() + "' does not have a getter method called '" + Reflector.getGetterMethodName(idField) + "'.");
         }
 
+        //Check if indexed fields are stored, have types whose string forms follow equals(), and range indexed fields have numeric, character or Date types:
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if ((field.isAnnotationPresent(Indexed.class) || field.isAnnotationPresent(RangeIndexed.class)) && Modifier.isTransient(field.getModifiers())) {
+                    throw new ClassRegistrationException("The field '" + field.getName() + "' of class '" + clazz.getSimpleName() + "' is transient and cannot be indexed, as its values are not stored.");
+                }
+                if (field.isAnnotationPresent(Indexed.class) && !EqualityIndex.isIndexableType(field.getGenericType())) {
+                    throw new ClassRegistrationException("The field '" + field.getName() + "' of class '" + clazz.getSimpleName() + "' is annotated with @" + Indexed.class.getSimpleName() + " but its type " + field.getGenericType().getTypeName() + " is not a String, a primitive, an enum, a Date or a collection of these.");
+                }
+                if (field.isAnnotationPresent(RangeIndexed.class) && !RangeIndex.isScorableType(field.getType())) {
+                    throw new ClassRegistrationException("The field '" + field.getName() + "' of class '" + clazz.getSimpleName() + "' is annotated with @" + RangeIndexed.class.getSimpleName() + " but its type " + field.getType().getSimpleName() + " is not numeric, a character or a Date.");
+                }
+            }
+        }
+
     }
 
     /**
@@ -104,13 +122,18 @@ public final class Reflector {
     }
 
     /**
-     * Retrieves the ID value of an object.
+     * Retrieves the ID value of an object. For registered classes, the ID accessor built at registration is used.
      * @param object The object to retrieve the ID value of.
      * @return Returns a the ID of the object as a string.
      * @throws NoSuchFieldException Thrown when the field 'id' cannot be accessed.
      * @throws IllegalAccessException Thrown when the field 'id' cannot be accessed.
      */
     public static String getIDField(final Object object) throws NoSuchFieldException, IllegalAccessException {
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(object.getClass());
+        if (metadata != null) {
+            return metadata.getId(object);
+        }
+
         Field idField;
         try {
             idField = object.getClass().getDeclaredField("id");
@@ -0,0 +1,108 @@
+package com.raylabz.objectis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the objects of a class, page by page.
+ * Each page of IDs is read from the class list by a ClassListScanner and its objects are fetched with a single MGET,
+ * or with a pipeline of HGETALLs for objects stored as hashes.
+ * Objects are deserialized one at a time as the iterator advances, so at most one page of serialized objects is held in memory.
+ * A connection is only borrowed from the pool while a page is being fetched.
+ * @param <T> The type of objects.
+ */
+class ScanIterator<T> implements Iterator<T> {
+
+    private final ClassMetadata metadata;
+    private final Class<T> aClass;
+    private final ClassListScanner scanner;
+    /**
+     * The stored objects of the current page: serialized objects, or hash entries for objects stored as hashes.
+     */
+    private List<Object> page = null;
+    private int pageIndex = 0;
+
+    ScanIterator(ClassMetadata metadata, Class<T> aClass, int pageSize) {
+        this.metadata = metadata;
+        this.aClass = aClass;
+        this.scanner = new ClassListScanner(metadata, pageSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            while (page != null && pageIndex < page.size()) {
+                //Objects deleted after their ID was scanned are skipped:
+                if (page.get(pageIndex) != null) {
+                    return true;
+                }
+                pageIndex++;
+            }
+            if (!scanner.hasNext()) {
+                return false;
+            }
+            fetchPage(scanner.next());
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Object storedObject = page.get(pageIndex);
+        page.set(pageIndex++, null);
+        return deserialize(storedObject);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T deserialize(Object storedObject) {
+        if (metadata.isHashLayout()) {
+            return metadata.deserializeHash((Map<byte[], byte[]>) storedObject, aClass);
+        }
+        return metadata.deserialize((byte[]) storedObject, aClass);
+    }
+
+    private void fetchPage(List<byte[]> ids) {
+        final byte[][] objectPaths = new byte[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            objectPaths[i] = PathMaker.getObjectPath(metadata, ids.get(i));
+        }
+        final Jedis jedis = Objectis.getJedis();
+        try {
+            page = metadata.isHashLayout() ? getHashes(jedis, objectPaths) : new ArrayList<>(jedis.mget(objectPaths));
+            pageIndex = 0;
+        } finally {
+            Objectis.releaseJedis(jedis);
+        }
+    }
+
+    /**
+     * Fetches the entries of objects stored as hashes.
+     * @param jedis The connection to read on.
+     * @param objectPaths The paths of the objects.
+     * @return Returns a list of hash entries, in the order of the paths. Objects that do not exist are returned as null.
+     */
+    private static List<Object> getHashes(Jedis jedis, byte[][] objectPaths) {
+        final ArrayList<Response<Map<byte[], byte[]>>> responses = new ArrayList<>(objectPaths.length);
+        final Pipeline pipeline = jedis.pipelined();
+        for (byte[] objectPath : objectPaths) {
+            responses.add(pipeline.hgetAll(objectPath));
+        }
+        pipeline.sync();
+        final ArrayList<Object> hashes = new ArrayList<>(objectPaths.length);
+        for (Response<Map<byte[], byte[]>> response : responses) {
+            final Map<byte[], byte[]> hash = response.get();
+            hashes.add(hash.isEmpty() ? null : hash);
+        }
+        return hashes;
+    }
+
+}
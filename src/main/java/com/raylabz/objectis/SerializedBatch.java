@@ -0,0 +1,101 @@
+package com.raylabz.objectis;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of objects that has been serialized and is ready to be written to Redis in bulk.
+ */
+class SerializedBatch {
+
+    private final byte[][] keysAndValues;
+    private final Map<ByteBuffer, Map<byte[], byte[]>> hashes;
+    private final Map<Class<?>, List<byte[]>> idsPerClass;
+    private final Map<ByteBuffer, List<byte[]>> indexEntries;
+    private final Map<ByteBuffer, Map<byte[], Double>> rangeIndexEntries;
+    private final Map<ClassMetadata, List<byte[]>> indexedIdsPerClass;
+    private final int numOfObjects;
+    private final long numOfBytes;
+    private final long serializationNanos;
+
+    SerializedBatch(byte[][] keysAndValues, Map<ByteBuffer, Map<byte[], byte[]>> hashes, Map<Class<?>, List<byte[]>> idsPerClass,
+                           Map<ByteBuffer, List<byte[]>> indexEntries, Map<ByteBuffer, Map<byte[], Double>> rangeIndexEntries,
+                           Map<ClassMetadata, List<byte[]>> indexedIdsPerClass, int numOfObjects, long numOfBytes, long serializationNanos) {
+        this.keysAndValues = keysAndValues;
+        this.hashes = hashes;
+        this.idsPerClass = idsPerClass;
+        this.indexEntries = indexEntries;
+        this.rangeIndexEntries = rangeIndexEntries;
+        this.indexedIdsPerClass = indexedIdsPerClass;
+        this.numOfObjects = numOfObjects;
+        this.numOfBytes = numOfBytes;
+        this.serializationNanos = serializationNanos;
+    }
+
+    /**
+     * Retrieves the object paths and serialized objects, interleaved as expected by MSET.
+     * @return Returns a byte[][]. Empty if all objects in this batch are stored as hashes.
+     */
+    byte[][] getKeysAndValues() {
+        return keysAndValues;
+    }
+
+    /**
+     * Retrieves the entries of the objects in this batch that are stored as hashes, grouped by object path.
+     * @return Returns a map of object paths to hash entries. Empty if no objects in this batch are stored as hashes.
+     */
+    Map<ByteBuffer, Map<byte[], byte[]>> getHashes() {
+        return hashes;
+    }
+
+    /**
+     * Retrieves the IDs of the objects in this batch, grouped by the class list they need to be added to.
+     * @return Returns a map of classes to IDs.
+     */
+    Map<Class<?>, List<byte[]>> getIdsPerClass() {
+        return idsPerClass;
+    }
+
+    /**
+     * Retrieves the equality index entries of the objects in this batch, grouped by index key.
+     * @return Returns a map of index keys to IDs. Empty if the classes of the objects have no equality indexes.
+     */
+    Map<ByteBuffer, List<byte[]>> getIndexEntries() {
+        return indexEntries;
+    }
+
+    /**
+     * Retrieves the range index entries of the objects in this batch, grouped by index key.
+     * @return Returns a map of index keys to IDs and their scores. Empty if the classes of the objects have no range indexes.
+     */
+    Map<ByteBuffer, Map<byte[], Double>> getRangeIndexEntries() {
+        return rangeIndexEntries;
+    }
+
+    /**
+     * Retrieves the IDs of the objects in this batch whose classes have indexes, grouped by class, so that the index entries
+     * of stored objects they overwrite can be removed.
+     * @return Returns a map of class metadata to IDs. Empty if the classes of the objects have no indexes.
+     */
+    Map<ClassMetadata, List<byte[]>> getIndexedIdsPerClass() {
+        return indexedIdsPerClass;
+    }
+
+    int getNumOfObjects() {
+        return numOfObjects;
+    }
+
+    long getNumOfBytes() {
+        return numOfBytes;
+    }
+
+    /**
+     * Retrieves the time taken to serialize the objects of this batch.
+     * @return Returns the time in nanoseconds.
+     */
+    long getSerializationNanos() {
+        return serializationNanos;
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.raylabz.objectis;
 
-import java.io.*;
+import com.raylabz.objectis.serializer.JavaObjectSerializer;
+import com.raylabz.objectis.serializer.ObjectSerializer;
+
 import java.nio.charset.StandardCharsets;
 
 public final class Serializer {
@@ -9,25 +11,37 @@ public final class Serializer {
         return key.getBytes(StandardCharsets.UTF_8);
     }
 
+    /**
+     * Serializes an object using the serializer registered for its class.
+     * Objects of classes that are not registered are serialized using Java serialization.
+     * @param object The object to serialize.
+     * @return Returns a byte[].
+     * @throws RuntimeException thrown when the object cannot be serialized.
+     */
+    @SuppressWarnings("unchecked")
     public static byte[] serializeObject(Object object) throws RuntimeException {
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            ObjectOutputStream out = new ObjectOutputStream(bos);
-            out.writeObject(object);
-            out.flush();
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        final ObjectSerializer<Object> serializer = (ObjectSerializer<Object>) ObjectisRegistry.getSerializer(object.getClass());
+        if (serializer != null) {
+            return serializer.serialize(object);
         }
+        return JavaObjectSerializer.serializeValue(object);
     }
 
+    /**
+     * Deserializes an object using the serializer registered for the given class.
+     * Objects of classes that are not registered are deserialized using Java serialization.
+     * @param bytes The bytes to deserialize.
+     * @param aClass The class of the object.
+     * @param <T> The type of the object.
+     * @return Returns an object.
+     * @throws RuntimeException thrown when the object cannot be deserialized.
+     */
     public static <T> T deserializeObject(byte[] bytes, Class<T> aClass) throws RuntimeException {
-        ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
-        try (ObjectInput in = new ObjectInputStream(bis)) {
-            Object o = in.readObject();
-            return aClass.cast(o);
-        } catch (IOException | ClassNotFoundException e) {
-            throw new RuntimeException(e);
+        final ObjectSerializer<T> serializer = ObjectisRegistry.getSerializer(aClass);
+        if (serializer != null) {
+            return serializer.deserialize(bytes);
         }
+        return aClass.cast(JavaObjectSerializer.deserializeValue(bytes));
     }
 
 }
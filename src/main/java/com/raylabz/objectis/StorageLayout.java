@@ -0,0 +1,21 @@
+package com.raylabz.objectis;
+
+/**
+ * Determines how the objects of a registered class are stored in Redis. The layout of a class is declared when it is registered,
+ * and objects stored using one layout cannot be read using the other.
+ */
+public enum StorageLayout {
+
+    /**
+     * Each object is stored as a single string value holding the serialized object, so reading or writing any field
+     * reads or writes the whole object.
+     */
+    VALUE,
+
+    /**
+     * Each object is stored as a hash with an entry per field, so that fields can be read using HMGET and updated using HSET
+     * without rewriting the whole object. Requires a serializer that implements FieldSerializer, such as BinarySchemaSerializer.
+     */
+    HASH
+
+}
@@ -0,0 +1,18 @@
+package com.raylabz.objectis;
+
+/**
+ * Determines how the commands of a single write operation are sent to Redis.
+ */
+public enum WriteMode {
+
+    /**
+     * Commands are pipelined and sent in a single round trip, without transactional guarantees.
+     */
+    PIPELINED,
+
+    /**
+     * Commands are wrapped in a MULTI/EXEC block and applied atomically in a single round trip.
+     */
+    ATOMIC
+
+}
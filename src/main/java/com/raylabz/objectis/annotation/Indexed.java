@@ -0,0 +1,16 @@
+package com.raylabz.objectis.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field whose values are indexed in Redis, so that equality filters on it are resolved on the server.
+ * For every value of the field, the IDs of the objects having that value are kept in a set: #CLASS_NAME#@#FIELD_NAME#:#VALUE#
+ * Values of collection fields are indexed element by element, so that array-contains filters can use the index.
+ * The field must be a String, a primitive or boxed primitive, an enum, a Date, or a collection of these.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Indexed { }
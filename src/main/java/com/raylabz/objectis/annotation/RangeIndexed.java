@@ -0,0 +1,16 @@
+package com.raylabz.objectis.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a numeric, character or Date field whose values are indexed in Redis using a sorted set: #CLASS_NAME#@#FIELD_NAME#
+ * Range filters on the field are resolved using ZRANGEBYSCORE, and ordering by the field combined with a limit or offset
+ * only fetches the requested page of objects.
+ * Values are scored as doubles, so long values beyond 2^53 lose precision in the index.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface RangeIndexed { }
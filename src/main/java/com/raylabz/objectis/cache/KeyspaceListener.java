@@ -0,0 +1,159 @@
+package com.raylabz.objectis.cache;
+
+import com.raylabz.objectis.ClassMetadata;
+import com.raylabz.objectis.Objectis;
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.Jedis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invalidates the objects of a near cache that are written or deleted by other clients, using keyspace notifications.
+ * A pattern matching the object paths of a class is subscribed to the first time an object of the class is cached,
+ * and objects of the class are only cached once the subscription is confirmed, so that no write goes unnoticed.
+ * Subscriptions are made on a dedicated thread, which reconnects if the connection is lost.
+ */
+final class KeyspaceListener extends BinaryJedisPubSub implements Runnable {
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final NearCache cache;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * The prefixes of the object paths of the classes whose objects are cached.
+     */
+    private final Set<String> prefixes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The prefixes whose patterns were requested on the current connection.
+     */
+    private final Set<String> requestedPrefixes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The prefixes whose patterns are confirmed to be subscribed to on the current connection.
+     */
+    private final Set<String> subscribedPrefixes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The prefix of the channels of keyspace notifications for the database of the current connection, e.g. __keyspace@0__:
+     */
+    private volatile String channelPrefix = null;
+
+    KeyspaceListener(NearCache cache) {
+        this.cache = cache;
+        this.thread = new Thread(this, "objectis-near-cache-invalidation");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Checks if notifications are received for the objects of a class, subscribing to them if needed.
+     * @param metadata The metadata of the class.
+     * @return Returns true if notifications are received, false if the subscription is not confirmed yet.
+     */
+    boolean isListening(ClassMetadata metadata) {
+        final String prefix = new String(metadata.getObjectPathPrefix(), StandardCharsets.UTF_8);
+        if (subscribedPrefixes.contains(prefix)) {
+            return true;
+        }
+        if (prefixes.add(prefix)) {
+            synchronized (this) {
+                if (!thread.isAlive() && running) {
+                    thread.start();
+                }
+                else if (isSubscribed() && requestedPrefixes.add(prefix)) {
+                    psubscribe(getPattern(prefix));
+                }
+            }
+        }
+        return false;
+    }
+
+    void stop() {
+        running = false;
+        synchronized (this) {
+            if (isSubscribed()) {
+                punsubscribe();
+            }
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            Jedis jedis = null;
+            try {
+                jedis = Objectis.getJedis();
+                channelPrefix = "__keyspace@" + jedis.getDB() + "__:";
+                final byte[][] patterns;
+                synchronized (this) {
+                    requestedPrefixes.addAll(prefixes);
+                    patterns = requestedPrefixes.stream().map(this::getPattern).toArray(byte[][]::new);
+                }
+                jedis.psubscribe(this, patterns);
+            } catch (RuntimeException e) {
+                //The connection was lost or could not be made, and notifications may have been missed.
+            } finally {
+                requestedPrefixes.clear();
+                subscribedPrefixes.clear();
+                cache.invalidateAll();
+                if (jedis != null) {
+                    jedis.close();
+                }
+            }
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPSubscribe(byte[] pattern, int subscribedChannels) {
+        synchronized (this) {
+            if (!running) {
+                punsubscribe();
+                return;
+            }
+            for (String prefix : requestedPrefixes) {
+                if (Arrays.equals(pattern, getPattern(prefix))) {
+                    subscribedPrefixes.add(prefix);
+                }
+            }
+            //Classes first cached while the connection was being made:
+            for (String prefix : prefixes) {
+                if (requestedPrefixes.add(prefix)) {
+                    psubscribe(getPattern(prefix));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPMessage(byte[] pattern, byte[] channel, byte[] message) {
+        final int prefixLength = channelPrefix.length();
+        if (channel.length > prefixLength) {
+            cache.invalidate(Arrays.copyOfRange(channel, prefixLength, channel.length));
+        }
+    }
+
+    private byte[] getPattern(String prefix) {
+        final StringBuilder pattern = new StringBuilder(channelPrefix);
+        for (char c : prefix.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('*').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
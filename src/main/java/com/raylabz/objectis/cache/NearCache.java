@@ -0,0 +1,398 @@
+package com.raylabz.objectis.cache;
+
+import com.raylabz.objectis.ClassMetadata;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process cache of objects retrieved from Redis, consulted by get() and getMany() before Redis is queried.
+ * The cache holds up to a maximum number of objects and evicts the least recently used object when full.
+ * Objects expire after a time to live, which can be set for all classes and overridden per class.
+ * <p>
+ * Objects are removed when they are written or deleted through Objectis. Writes by other clients are only noticed if remote
+ * invalidation is enabled using listenForRemoteWrites(), which subscribes to the keyspace notifications of the cached classes.
+ * Otherwise, objects written by other clients are returned until they expire.
+ * <p>
+ * By default, cached objects are shared between all callers that retrieve them and must not be modified. Modify a copy and store it instead.
+ * Alternatively, the cache can hold serialized objects, on or off the heap, and deserialize a new instance on every lookup - see NearCacheStorage.
+ * Use Objectis.useNearCache() to enable a near cache.
+ */
+public class NearCache {
+
+    private final int maxEntries;
+    private final NearCacheStorage storage;
+    private final long maxBytes;
+    private final SlabAllocator allocator;
+    private long storedBytes = 0;
+    private final LinkedHashMap<ByteBuffer, CacheEntry> entries;
+    private final ConcurrentHashMap<Class<?>, Long> timeToLivePerClass = new ConcurrentHashMap<>();
+    private volatile long defaultTimeToLiveNanos = 0;
+
+    /**
+     * Counts invalidations, so that objects read from Redis before an invalidation are not cached after it.
+     */
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private KeyspaceListener listener = null;
+
+    /**
+     * Constructs a near cache holding deserialized objects.
+     * @param maxEntries The maximum number of objects held by the cache.
+     */
+    public NearCache(int maxEntries) {
+        this(maxEntries, NearCacheStorage.OBJECTS, 0);
+    }
+
+    /**
+     * Constructs a near cache.
+     * @param maxEntries The maximum number of objects held by the cache.
+     * @param storage The way objects are held by the cache.
+     * @param maxBytes The maximum number of bytes of serialized objects held by the cache, or 0 for no limit.
+     *                 Must be greater than 0 for SERIALIZED_OFF_HEAP, and is ignored for OBJECTS.
+     */
+    public NearCache(int maxEntries, NearCacheStorage storage, long maxBytes) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The maximum number of entries must be greater than 0.");
+        }
+        if (maxBytes < 0 || (storage == NearCacheStorage.SERIALIZED_OFF_HEAP && maxBytes == 0)) {
+            throw new IllegalArgumentException("The maximum number of bytes must be greater than 0.");
+        }
+        this.maxEntries = maxEntries;
+        this.storage = storage;
+        this.maxBytes = storage == NearCacheStorage.OBJECTS ? 0 : maxBytes;
+        this.allocator = storage == NearCacheStorage.SERIALIZED_OFF_HEAP ? new SlabAllocator(maxBytes) : null;
+        this.entries = new LinkedHashMap<ByteBuffer, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CacheEntry> eldest) {
+                if (size() > NearCache.this.maxEntries) {
+                    evictions.increment();
+                    release(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public NearCacheStorage getStorage() {
+        return storage;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets the time to live of objects of classes without a time to live of their own.
+     * @param timeToLive The time to live, or 0 for objects to never expire. Defaults to 0.
+     * @param unit The unit of the time to live.
+     */
+    public void setTimeToLive(long timeToLive, TimeUnit unit) {
+        defaultTimeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    /**
+     * Sets the time to live of objects of a class.
+     * @param aClass The class.
+     * @param timeToLive The time to live, or 0 for objects to never expire.
+     * @param unit The unit of the time to live.
+     */
+    public void setTimeToLive(Class<?> aClass, long timeToLive, TimeUnit unit) {
+        timeToLivePerClass.put(aClass, unit.toNanos(timeToLive));
+    }
+
+    private long getTimeToLiveNanos(Class<?> aClass) {
+        final Long timeToLive = timeToLivePerClass.get(aClass);
+        return timeToLive != null ? timeToLive : defaultTimeToLiveNanos;
+    }
+
+    /**
+     * Retrieves the current invalidation stamp, which must be taken before reading objects from Redis and passed to put().
+     * @return Returns a long.
+     */
+    public long getStamp() {
+        return invalidationStamp.get();
+    }
+
+    /**
+     * Retrieves a cached object.
+     * @param objectPath The path of the object.
+     * @param metadata The metadata of the object's class.
+     * @param aClass The class of the object.
+     * @param <T> The type of the object.
+     * @return Returns the object, or null if it is not cached or has expired.
+     */
+    public <T> T get(byte[] objectPath, ClassMetadata metadata, Class<T> aClass) {
+        final ByteBuffer key = ByteBuffer.wrap(objectPath);
+        final CacheEntry entry;
+        final byte[] offHeapBytes;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                release(entries.remove(key));
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            //Copied while holding the lock, as the chunk may be reused once the entry is removed:
+            offHeapBytes = allocator != null ? allocator.read(entry.chunk, entry.length) : null;
+        }
+        hits.increment();
+        switch (storage) {
+            case SERIALIZED:
+                return metadata.deserialize((byte[]) entry.value, aClass);
+            case SERIALIZED_OFF_HEAP:
+                return metadata.deserialize(offHeapBytes, aClass);
+            default:
+                return aClass.cast(entry.value);
+        }
+    }
+
+    /**
+     * Caches an object read from Redis, unless an object was invalidated since the object was read.
+     * If remote invalidation is enabled, objects of a class are only cached once notifications for the class are received.
+     * @param objectPath The path of the object.
+     * @param metadata The metadata of the object's class.
+     * @param object The object.
+     * @param stamp The invalidation stamp taken using getStamp() before the object was read.
+     */
+    public void put(byte[] objectPath, ClassMetadata metadata, Object object, long stamp) {
+        put(objectPath, metadata, object, null, stamp);
+    }
+
+    /**
+     * Caches an object read from Redis, unless an object was invalidated since the object was read.
+     * If remote invalidation is enabled, objects of a class are only cached once notifications for the class are received.
+     * @param objectPath The path of the object.
+     * @param metadata The metadata of the object's class.
+     * @param object The object.
+     * @param bytes The serialized object as read from Redis, which is cached instead of serializing the object again, or null.
+     *              Must not be modified afterwards.
+     * @param stamp The invalidation stamp taken using getStamp() before the object was read.
+     */
+    public void put(byte[] objectPath, ClassMetadata metadata, Object object, byte[] bytes, long stamp) {
+        final KeyspaceListener currentListener;
+        synchronized (this) {
+            currentListener = listener;
+        }
+        if (currentListener != null && !currentListener.isListening(metadata)) {
+            return;
+        }
+        final byte[] serialized = storage == NearCacheStorage.OBJECTS ? null : bytes != null ? bytes : metadata.serialize(object);
+        if (serialized != null && (maxBytes > 0 && serialized.length > maxBytes || allocator != null && serialized.length > allocator.getMaxLength())) {
+            return;
+        }
+        final long timeToLive = getTimeToLiveNanos(metadata.getObjectClass());
+        final long expiresAt = timeToLive > 0 ? System.nanoTime() + timeToLive : 0;
+        synchronized (entries) {
+            //Checked while holding the lock, as invalidations remove entries while holding it:
+            if (invalidationStamp.get() != stamp) {
+                return;
+            }
+            final ByteBuffer key = ByteBuffer.wrap(objectPath);
+            release(entries.remove(key));
+            if (serialized == null) {
+                entries.put(key, new CacheEntry(object, -1, 0, expiresAt));
+                return;
+            }
+            while (maxBytes > 0 && storedBytes + serialized.length > maxBytes && !entries.isEmpty()) {
+                evictEldest(-1);
+            }
+            if (allocator == null) {
+                entries.put(key, new CacheEntry(serialized, -1, serialized.length, expiresAt));
+            }
+            else {
+                long chunk = allocator.allocate(serialized.length);
+                if (chunk < 0 && evictEldest(allocator.getSizeClass(serialized.length))) {
+                    chunk = allocator.allocate(serialized.length);
+                }
+                if (chunk < 0) {
+                    return;
+                }
+                allocator.write(chunk, serialized);
+                entries.put(key, new CacheEntry(null, chunk, serialized.length, expiresAt));
+            }
+            storedBytes += serialized.length;
+        }
+    }
+
+    /**
+     * Evicts the least recently used entry, or the least recently used entry whose chunk has a size class. Must hold the lock.
+     * @param sizeClass The size class of the chunk to free, or -1 to evict any entry.
+     * @return Returns true if an entry was evicted, false otherwise.
+     */
+    private boolean evictEldest(int sizeClass) {
+        final Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final CacheEntry entry = iterator.next();
+            if (sizeClass < 0 || allocator.getSizeClass(entry.length) == sizeClass) {
+                iterator.remove();
+                release(entry);
+                evictions.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the memory held by a removed entry. Must hold the lock.
+     * @param entry The entry, or null.
+     */
+    private void release(CacheEntry entry) {
+        if (entry == null || storage == NearCacheStorage.OBJECTS) {
+            return;
+        }
+        storedBytes -= entry.length;
+        if (allocator != null) {
+            allocator.free(entry.chunk, entry.length);
+        }
+    }
+
+    /**
+     * Removes an object from the cache, because it was written or deleted.
+     * @param objectPath The path of the object.
+     */
+    public void invalidate(byte[] objectPath) {
+        synchronized (entries) {
+            invalidationStamp.incrementAndGet();
+            final CacheEntry entry = entries.remove(ByteBuffer.wrap(objectPath));
+            if (entry != null) {
+                release(entry);
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes all objects from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidationStamp.incrementAndGet();
+            invalidations.add(entries.size());
+            entries.values().forEach(this::release);
+            entries.clear();
+        }
+    }
+
+    /**
+     * Removes expired objects from the cache. Expired objects are otherwise only removed when they are looked up or evicted.
+     */
+    public void removeExpired() {
+        final long now = System.nanoTime();
+        synchronized (entries) {
+            final Iterator<CacheEntry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                final CacheEntry entry = iterator.next();
+                if (entry.isExpired(now)) {
+                    iterator.remove();
+                    release(entry);
+                    expirations.increment();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Retrieves the hit, miss, eviction, expiration and invalidation counters of the cache.
+     * @return Returns a NearCacheStatistics.
+     */
+    public NearCacheStatistics getStatistics() {
+        final int size;
+        final long bytes;
+        final long allocatedBytes;
+        synchronized (entries) {
+            size = entries.size();
+            bytes = storedBytes;
+            allocatedBytes = allocator != null ? allocator.getAllocatedBytes() : 0;
+        }
+        return new NearCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size, bytes, allocatedBytes);
+    }
+
+    /**
+     * Starts removing objects written or deleted by other clients, using Redis keyspace notifications.
+     * Notifications must be enabled on the server, for example using: CONFIG SET notify-keyspace-events Kgh$
+     * A connection is taken from the pool for as long as the cache listens. If the connection is lost, the cache is cleared,
+     * and objects are not cached again until the subscription is restored.
+     */
+    public synchronized void listenForRemoteWrites() {
+        if (listener == null) {
+            invalidateAll();
+            listener = new KeyspaceListener(this);
+        }
+    }
+
+    /**
+     * Stops listening for writes by other clients and releases the connection used to listen.
+     */
+    public synchronized void stopListening() {
+        if (listener != null) {
+            listener.stop();
+            listener = null;
+        }
+    }
+
+    public synchronized boolean isListeningForRemoteWrites() {
+        return listener != null;
+    }
+
+    private static final class CacheEntry {
+
+        /**
+         * The object, or the serialized object when held on the heap.
+         */
+        private final Object value;
+
+        /**
+         * The chunk holding the serialized object when held off the heap, or -1.
+         */
+        private final long chunk;
+
+        /**
+         * The length of the serialized object, or 0 if objects are held deserialized.
+         */
+        private final int length;
+        private final long expiresAt;
+
+        private CacheEntry(Object value, long chunk, int length, long expiresAt) {
+            this.value = value;
+            this.chunk = chunk;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.raylabz.objectis.cache;
+
+/**
+ * The counters of a near cache at a point in time.
+ */
+public class NearCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final int size;
+    private final long bytes;
+    private final long allocatedBytes;
+
+    public NearCacheStatistics(long hits, long misses, long evictions, long expirations, long invalidations, int size, long bytes, long allocatedBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.bytes = bytes;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retrieves the number of lookups that did not find an object, including lookups of expired objects.
+     * @return Returns a long.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Retrieves the number of objects removed to keep the cache within its maximum number of objects.
+     * @return Returns a long.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Retrieves the number of objects removed because their time to live had passed.
+     * @return Returns a long.
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Retrieves the number of objects removed because they were written or deleted, locally or by other clients.
+     * @return Returns a long.
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Retrieves the number of objects in the cache.
+     * @return Returns an int.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of bytes of the serialized objects in the cache, or 0 if the cache holds deserialized objects.
+     * @return Returns a long.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Retrieves the number of bytes allocated outside the heap, or 0 if the cache holds objects on the heap.
+     * @return Returns a long.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Retrieves the ratio of lookups that found an object.
+     * @return Returns a double between 0 and 1, or 0 if there were no lookups.
+     */
+    public double getHitRatio() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "NearCacheStatistics{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", expirations=" + expirations +
+                ", invalidations=" + invalidations +
+                ", size=" + size +
+                ", bytes=" + bytes +
+                ", allocatedBytes=" + allocatedBytes +
+                ", hitRatio=" + String.format("%.2f", getHitRatio()) +
+                '}';
+    }
+
+}
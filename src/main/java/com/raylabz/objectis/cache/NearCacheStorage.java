@@ -0,0 +1,26 @@
+package com.raylabz.objectis.cache;
+
+/**
+ * Determines how a near cache holds the objects it caches.
+ */
+public enum NearCacheStorage {
+
+    /**
+     * Deserialized objects are held on the heap and the same instance is returned by every lookup, so cached objects must not be modified.
+     */
+    OBJECTS,
+
+    /**
+     * Serialized objects are held on the heap, and a new instance is deserialized by every lookup.
+     * Holds more objects per byte of memory than OBJECTS, at the cost of deserializing on every hit.
+     */
+    SERIALIZED,
+
+    /**
+     * Serialized objects are held outside the heap, in direct buffers allocated as needed, and a new instance is deserialized by every lookup.
+     * The memory used does not add to the work of the garbage collector, and is bounded by the maximum number of bytes of the cache.
+     * Objects larger than 1 MB are not cached.
+     */
+    SERIALIZED_OFF_HEAP
+
+}
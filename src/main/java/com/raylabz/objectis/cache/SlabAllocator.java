@@ -0,0 +1,133 @@
+package com.raylabz.objectis.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Allocates chunks of memory outside the heap for serialized objects, out of direct buffers called slabs.
+ * Chunks come in sizes that grow by a constant factor, and each slab is split into chunks of a single size when first needed,
+ * so that freed chunks can be reused by values of a similar size without fragmenting the slabs.
+ * A chunk is identified by a long holding the index of its slab and its offset within the slab.
+ * Not thread-safe - the near cache only calls it while holding its lock.
+ */
+final class SlabAllocator {
+
+    private static final int MAX_SLAB_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double CHUNK_GROWTH_FACTOR = 1.25;
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final int[] chunkSizes;
+    private final ArrayList<ByteBuffer> slabs = new ArrayList<>();
+    private final long[][] freeChunks;
+    private final int[] freeChunkCounts;
+
+    SlabAllocator(long maxBytes) {
+        slabSize = (int) Math.min(MAX_SLAB_SIZE, maxBytes);
+        maxSlabs = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxBytes / slabSize));
+        final ArrayList<Integer> sizes = new ArrayList<>();
+        int size = Math.min(MIN_CHUNK_SIZE, slabSize);
+        while (size < slabSize) {
+            sizes.add(size);
+            size = (int) Math.min(slabSize, ((long) Math.ceil(size * CHUNK_GROWTH_FACTOR) + 7) & ~7L);
+        }
+        sizes.add(slabSize);
+        chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+        freeChunks = new long[chunkSizes.length][];
+        freeChunkCounts = new int[chunkSizes.length];
+    }
+
+    /**
+     * Retrieves the largest value that fits in a chunk.
+     * @return Returns an int.
+     */
+    int getMaxLength() {
+        return slabSize;
+    }
+
+    /**
+     * Retrieves the size class of the chunks that hold values of a length.
+     * @param length The length of the value.
+     * @return Returns the index of the size class.
+     */
+    int getSizeClass(int length) {
+        int low = 0;
+        int high = chunkSizes.length - 1;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (chunkSizes[middle] < length) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Allocates a chunk for a value, taking a free chunk of its size class or splitting a new slab.
+     * @param length The length of the value. Must not be greater than getMaxLength().
+     * @return Returns the chunk, or -1 if all slabs are in use and no chunk of the size class is free.
+     */
+    long allocate(int length) {
+        final int sizeClass = getSizeClass(length);
+        if (freeChunkCounts[sizeClass] == 0) {
+            if (slabs.size() >= maxSlabs) {
+                return -1;
+            }
+            final int slabIndex = slabs.size();
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            final int chunkSize = chunkSizes[sizeClass];
+            for (int offset = slabSize - slabSize % chunkSize - chunkSize; offset >= 0; offset -= chunkSize) {
+                push(sizeClass, (long) slabIndex << 32 | offset);
+            }
+        }
+        return freeChunks[sizeClass][--freeChunkCounts[sizeClass]];
+    }
+
+    /**
+     * Returns a chunk to the chunks of its size class.
+     * @param chunk The chunk.
+     * @param length The length of the value held in the chunk.
+     */
+    void free(long chunk, int length) {
+        push(getSizeClass(length), chunk);
+    }
+
+    void write(long chunk, byte[] value) {
+        final ByteBuffer slab = slabs.get((int) (chunk >>> 32)).duplicate();
+        slab.position((int) chunk);
+        slab.put(value);
+    }
+
+    byte[] read(long chunk, int length) {
+        final ByteBuffer slab = slabs.get((int) (chunk >>> 32)).duplicate();
+        slab.position((int) chunk);
+        final byte[] value = new byte[length];
+        slab.get(value);
+        return value;
+    }
+
+    /**
+     * Retrieves the number of bytes allocated outside the heap, which grows by a slab at a time up to the maximum number of bytes.
+     * @return Returns a long.
+     */
+    long getAllocatedBytes() {
+        return (long) slabs.size() * slabSize;
+    }
+
+    private void push(int sizeClass, long chunk) {
+        long[] stack = freeChunks[sizeClass];
+        if (stack == null) {
+            stack = freeChunks[sizeClass] = new long[16];
+        }
+        else if (freeChunkCounts[sizeClass] == stack.length) {
+            stack = freeChunks[sizeClass] = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[freeChunkCounts[sizeClass]++] = chunk;
+    }
+
+}
@@ -1,5 +1,8 @@
 package com.raylabz.objectis.concurrency;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ArrayRange {
 
     private final int startingItemIndex;
@@ -18,4 +21,22 @@ public class ArrayRange {
         return endingItemIndex;
     }
 
+    public int size() {
+        return endingItemIndex - startingItemIndex;
+    }
+
+    /**
+     * Splits a number of items into consecutive ranges of at most a given size.
+     * @param numOfItems The total number of items.
+     * @param chunkSize The maximum number of items in each range.
+     * @return Returns a list of ranges covering all items, in order.
+     */
+    public static List<ArrayRange> chunks(int numOfItems, int chunkSize) {
+        final ArrayList<ArrayRange> ranges = new ArrayList<>();
+        for (int start = 0; start < numOfItems; start += chunkSize) {
+            ranges.add(new ArrayRange(start, Math.min(start + chunkSize, numOfItems)));
+        }
+        return ranges;
+    }
+
 }
@@ -0,0 +1,112 @@
+package com.raylabz.objectis.concurrency;
+
+/**
+ * Keeps running estimates of the cost of serializing, deserializing and filtering the objects of a class.
+ * Estimates are exponential moving averages over the measured batches, so they follow changes in object size over time.
+ */
+public class CostEstimate {
+
+    private static final double SMOOTHING = 0.2;
+
+    private double serializeNanosPerObject = Double.NaN;
+    private double deserializeNanosPerByte = Double.NaN;
+    private double bytesPerObject = Double.NaN;
+    private double filterNanosPerCheck = Double.NaN;
+    private long numOfSamples = 0;
+
+    /**
+     * Records the time taken to serialize a batch of objects.
+     * @param numOfObjects The number of objects serialized.
+     * @param numOfBytes The total size of the serialized objects.
+     * @param nanos The time taken in nanoseconds.
+     */
+    public synchronized void recordSerialization(int numOfObjects, long numOfBytes, long nanos) {
+        if (numOfObjects <= 0) {
+            return;
+        }
+        serializeNanosPerObject = smooth(serializeNanosPerObject, nanos / (double) numOfObjects);
+        bytesPerObject = smooth(bytesPerObject, numOfBytes / (double) numOfObjects);
+        numOfSamples++;
+    }
+
+    /**
+     * Records the time taken to deserialize a batch of objects.
+     * @param numOfObjects The number of objects deserialized.
+     * @param numOfBytes The total size of the deserialized payloads.
+     * @param nanos The time taken in nanoseconds.
+     */
+    public synchronized void recordDeserialization(int numOfObjects, long numOfBytes, long nanos) {
+        if (numOfObjects <= 0 || numOfBytes <= 0) {
+            return;
+        }
+        deserializeNanosPerByte = smooth(deserializeNanosPerByte, nanos / (double) numOfBytes);
+        bytesPerObject = smooth(bytesPerObject, numOfBytes / (double) numOfObjects);
+        numOfSamples++;
+    }
+
+    /**
+     * Records the time taken to check a number of objects against a number of filters.
+     * @param numOfObjects The number of objects checked.
+     * @param numOfFilters The number of filters each object was checked against, at most.
+     * @param nanos The time taken in nanoseconds.
+     */
+    public synchronized void recordFiltering(int numOfObjects, int numOfFilters, long nanos) {
+        if (numOfObjects <= 0 || numOfFilters <= 0) {
+            return;
+        }
+        filterNanosPerCheck = smooth(filterNanosPerCheck, nanos / ((double) numOfObjects * numOfFilters));
+        numOfSamples++;
+    }
+
+    /**
+     * Retrieves the average time taken to serialize an object.
+     * @return Returns the time in nanoseconds, or NaN if no serialization has been measured yet.
+     */
+    public synchronized double getSerializeNanosPerObject() {
+        return serializeNanosPerObject;
+    }
+
+    /**
+     * Retrieves the average time taken to deserialize a byte of payload.
+     * @return Returns the time in nanoseconds, or NaN if no deserialization has been measured yet.
+     */
+    public synchronized double getDeserializeNanosPerByte() {
+        return deserializeNanosPerByte;
+    }
+
+    /**
+     * Retrieves the average size of a serialized object.
+     * @return Returns the size in bytes, or NaN if nothing has been measured yet.
+     */
+    public synchronized double getBytesPerObject() {
+        return bytesPerObject;
+    }
+
+    /**
+     * Retrieves the average time taken to check an object against a filter.
+     * @return Returns the time in nanoseconds, or NaN if no filtering has been measured yet.
+     */
+    public synchronized double getFilterNanosPerCheck() {
+        return filterNanosPerCheck;
+    }
+
+    public synchronized long getNumOfSamples() {
+        return numOfSamples;
+    }
+
+    private static double smooth(double average, double sample) {
+        return Double.isNaN(average) ? sample : average + SMOOTHING * (sample - average);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CostEstimate{" +
+                "serializeNanosPerObject=" + String.format("%.1f", serializeNanosPerObject) +
+                ", deserializeNanosPerByte=" + String.format("%.2f", deserializeNanosPerByte) +
+                ", bytesPerObject=" + String.format("%.1f", bytesPerObject) +
+                ", filterNanosPerCheck=" + String.format("%.1f", filterNanosPerCheck) +
+                ", numOfSamples=" + numOfSamples +
+                '}';
+    }
+
+}
@@ -1,13 +1,17 @@
 package com.raylabz.objectis.concurrency;
 
 import com.raylabz.objectis.Objectis;
-import com.raylabz.objectis.PathMaker;
-import com.raylabz.objectis.Serializer;
-import redis.clients.jedis.Jedis;
 
 import java.util.List;
 import java.util.concurrent.Callable;
 
+/**
+ * Creates a range of objects.
+ * @param <T> The type of objects.
+ * @deprecated Objectis.createAll() now writes objects in pipelined batches, along with their class lists and index entries.
+ * This callable creates its range of objects using Objectis.createAll(), and will be removed in a future version.
+ */
+@Deprecated
 public class CreateManyCallable<T> implements Callable<Void> {
 
     private final List<T> objects;
@@ -20,11 +24,7 @@ public class CreateManyCallable<T> implements Callable<Void> {
 
     @Override
     public Void call() throws Exception {
-        Jedis jedis = Objectis.getJedis();
-        for (int i = range.getStartingItemIndex(); i < range.getEndingItemIndex(); i++) {
-            jedis.set(PathMaker.getObjectPath(objects.get(i)), Serializer.serializeObject(objects.get(i)));
-        }
-        Objectis.releaseJedis(jedis);
+        Objectis.createAll(objects.subList(range.getStartingItemIndex(), range.getEndingItemIndex()));
         return null;
     }
 
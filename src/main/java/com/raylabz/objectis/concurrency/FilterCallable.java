@@ -1,21 +1,21 @@
 package com.raylabz.objectis.concurrency;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 
+/**
+ * Filters a range of a list of items, returning the items of the range that are not excluded, in their original order.
+ * @param <T> The type of items.
+ */
 public class FilterCallable<T> implements Callable<List<T>> {
 
-    private final Class<T> aClass;
     private final FilterCallableProcessor<T> callableProcessor;
     private final List<T> items;
     private final ArrayRange range;
-    private final Field field;
+    private long elapsedNanos = 0;
 
-    public FilterCallable(Class<T> aClass, Field field, List<T> items, ArrayRange range, FilterCallableProcessor<T> callableProcessor) {
-        this.aClass = aClass;
-        this.field = field;
+    public FilterCallable(List<T> items, ArrayRange range, FilterCallableProcessor<T> callableProcessor) {
         this.callableProcessor = callableProcessor;
         this.items = items;
         this.range = range;
@@ -23,13 +23,24 @@ public class FilterCallable<T> implements Callable<List<T>> {
 
     @Override
     public List<T> call() throws Exception {
-        ArrayList<T> itemsToRemove = new ArrayList<>();
+        final long startTime = System.nanoTime();
+        ArrayList<T> matchingItems = new ArrayList<>();
         for (int i = range.getStartingItemIndex(); i < range.getEndingItemIndex(); i++) {
-            if (callableProcessor.exclude(items.get(i))) {
-                itemsToRemove.add(items.get(i));
+            final T item = items.get(i);
+            if (!callableProcessor.exclude(item)) {
+                matchingItems.add(item);
             }
         }
-        return itemsToRemove;
+        elapsedNanos = System.nanoTime() - startTime;
+        return matchingItems;
+    }
+
+    /**
+     * Retrieves the time taken to filter the range, once the call has completed.
+     * @return Returns the time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
     }
 
 }
@@ -1,7 +1,17 @@
 package com.raylabz.objectis.concurrency;
 
+/**
+ * Decides which items a FilterCallable leaves out.
+ * @param <T> The type of items.
+ */
 public interface FilterCallableProcessor<T> {
 
+    /**
+     * Checks if an item should be left out. Called concurrently for different items.
+     * @param item The item.
+     * @return Returns true if the item is excluded, false if it is kept.
+     * @throws IllegalAccessException thrown when a field of the item cannot be accessed.
+     */
     boolean exclude(T item) throws IllegalAccessException;
 
 }
@@ -0,0 +1,234 @@
+package com.raylabz.objectis.concurrency;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.exception.OperationFailedException;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces objects read concurrently by get() into batches, which are read from Redis using a single MGET and a single connection.
+ * The first thread to read an object while no batch is open opens a batch and waits for a short window, during which other threads add
+ * their objects to it. The batch is then read by that thread, or as soon as it holds the maximum number of objects, by the thread that filled it,
+ * which also wakes up the thread that opened it.
+ * Threads reading an object that is already in the open batch share its read instead of adding it again.
+ * Objects are only shared within a batch that has not been sent yet, so a thread always reads a state at least as recent as its own writes.
+ * <p>
+ * Each thread deserializes its own copy of the object it reads. Objects stored as hashes are read using HGETALL, in the same pipeline as the MGET.
+ * Use Objectis.useGetBatcher() to enable batching.
+ */
+public final class GetBatcher {
+
+    private final long windowNanos;
+    private final int maxKeys;
+    private final Object lock = new Object();
+    private Batch openBatch = null;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder sharedReads = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * Constructs a batcher.
+     * @param window The time that a batch is kept open for other threads to add objects to. Windows of tens to hundreds of microseconds
+     *               suit most workloads, as the window is added to the latency of the first read of each batch.
+     * @param unit The unit of the window.
+     * @param maxKeys The maximum number of objects read in a single batch. Must be greater than 0.
+     */
+    public GetBatcher(long window, TimeUnit unit, int maxKeys) {
+        if (window < 0) {
+            throw new IllegalArgumentException("The window must not be negative.");
+        }
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("The maximum number of keys must be greater than 0.");
+        }
+        this.windowNanos = unit.toNanos(window);
+        this.maxKeys = maxKeys;
+    }
+
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    /**
+     * Reads an object stored as a value as part of a batch, blocking until the batch is read.
+     * @param objectPath The path of the object.
+     * @return Returns the serialized object, or null if the object does not exist.
+     * @throws OperationFailedException thrown when the batch cannot be read.
+     */
+    public byte[] getValue(byte[] objectPath) throws OperationFailedException {
+        return (byte[]) get(objectPath, false);
+    }
+
+    /**
+     * Reads an object stored as a hash as part of a batch, blocking until the batch is read.
+     * @param objectPath The path of the object.
+     * @return Returns the entries of the hash, or an empty map if the object does not exist.
+     * @throws OperationFailedException thrown when the batch cannot be read.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<byte[], byte[]> getHash(byte[] objectPath) throws OperationFailedException {
+        return (Map<byte[], byte[]>) get(objectPath, true);
+    }
+
+    private Object get(byte[] objectPath, boolean hash) throws OperationFailedException {
+        requests.increment();
+        final ByteBuffer key = ByteBuffer.wrap(objectPath);
+        final Batch batch;
+        final boolean opened;
+        boolean filled = false;
+        Read read;
+        synchronized (lock) {
+            opened = openBatch == null;
+            if (opened) {
+                openBatch = new Batch(Thread.currentThread());
+            }
+            batch = openBatch;
+            read = batch.reads.get(key);
+            if (read == null) {
+                read = new Read(hash);
+                batch.reads.put(key, read);
+                if (batch.reads.size() >= maxKeys) {
+                    openBatch = null;
+                    batch.closed = true;
+                    filled = true;
+                }
+            }
+            else {
+                sharedReads.increment();
+            }
+        }
+        if (filled) {
+            //Wakes up the thread that opened the batch, which no longer needs to wait for the window to end:
+            if (!opened) {
+                LockSupport.unpark(batch.opener);
+            }
+            send(batch);
+        }
+        else if (opened) {
+            final long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (remaining > 0 && !batch.closed) {
+                LockSupport.parkNanos(remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            boolean closed = false;
+            synchronized (lock) {
+                //Otherwise, the batch was filled and is being sent by another thread:
+                if (openBatch == batch) {
+                    openBatch = null;
+                    closed = true;
+                }
+            }
+            if (closed) {
+                send(batch);
+            }
+        }
+        try {
+            return read.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof OperationFailedException ? (OperationFailedException) e.getCause() : new OperationFailedException(e.getCause());
+        }
+    }
+
+    private void send(Batch batch) {
+        batches.increment();
+        final List<byte[]> valuePaths = new ArrayList<>(batch.reads.size());
+        final List<Read> valueReads = new ArrayList<>(batch.reads.size());
+        final List<byte[]> hashPaths = new ArrayList<>();
+        final List<Read> hashReads = new ArrayList<>();
+        for (Map.Entry<ByteBuffer, Read> entry : batch.reads.entrySet()) {
+            (entry.getValue().hash ? hashPaths : valuePaths).add(entry.getKey().array());
+            (entry.getValue().hash ? hashReads : valueReads).add(entry.getValue());
+        }
+        Jedis jedis = null;
+        try {
+            jedis = Objectis.getJedis();
+            final Pipeline pipeline = jedis.pipelined();
+            final Response<List<byte[]>> values = valuePaths.isEmpty() ? null : pipeline.mget(valuePaths.toArray(new byte[0][]));
+            final List<Response<Map<byte[], byte[]>>> hashes = new ArrayList<>(hashPaths.size());
+            for (byte[] hashPath : hashPaths) {
+                hashes.add(pipeline.hgetAll(hashPath));
+            }
+            pipeline.sync();
+            if (values != null) {
+                final List<byte[]> valueList = values.get();
+                for (int i = 0; i < valueReads.size(); i++) {
+                    valueReads.get(i).result.complete(valueList.get(i));
+                }
+            }
+            for (int i = 0; i < hashReads.size(); i++) {
+                hashReads.get(i).result.complete(hashes.get(i).get());
+            }
+        } catch (RuntimeException e) {
+            for (Read read : batch.reads.values()) {
+                read.result.completeExceptionally(new OperationFailedException(e));
+            }
+        } finally {
+            Objectis.releaseJedis(jedis);
+        }
+    }
+
+    /**
+     * Retrieves the number of objects requested through the batcher.
+     * @return Returns a long.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Retrieves the number of requests that shared the read of an object already in the open batch.
+     * @return Returns a long.
+     */
+    public long getSharedReadCount() {
+        return sharedReads.sum();
+    }
+
+    /**
+     * Retrieves the number of batches sent to Redis, which is the number of round trips made.
+     * @return Returns a long.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    private static final class Batch {
+
+        private final Thread opener;
+        private final LinkedHashMap<ByteBuffer, Read> reads = new LinkedHashMap<>();
+        private volatile boolean closed = false;
+
+        private Batch(Thread opener) {
+            this.opener = opener;
+        }
+
+    }
+
+    private static final class Read {
+
+        private final boolean hash;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Read(boolean hash) {
+            this.hash = hash;
+        }
+
+    }
+
+}
@@ -1,31 +1,70 @@
 package com.raylabz.objectis.concurrency;
 
+import com.raylabz.objectis.ClassMetadata;
 import com.raylabz.objectis.Serializer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 public class GetManyCallable<T> implements Callable<List<T>> {
 
+    private final ClassMetadata metadata;
     private final Class<T> aClass;
     private final List<byte[]> objectBytes;
     private final ArrayRange range;
+    private final Set<String> fieldNames;
+    private long elapsedNanos = 0;
 
     public GetManyCallable(final Class<T> aClass, final List<byte[]> objectBytes, final ArrayRange range) {
+        this(null, aClass, objectBytes, range, null);
+    }
+
+    /**
+     * Constructs a callable that deserializes a range of objects, possibly only some of their fields.
+     * @param metadata The metadata of the class, or null to use the serializer registered for the class.
+     * @param aClass The class of the objects.
+     * @param objectBytes The serialized objects. Null elements are deserialized as null.
+     * @param range The range of objects to deserialize.
+     * @param fieldNames The names of the fields to deserialize, or null to deserialize all fields.
+     */
+    public GetManyCallable(final ClassMetadata metadata, final Class<T> aClass, final List<byte[]> objectBytes, final ArrayRange range, final Set<String> fieldNames) {
+        this.metadata = metadata;
         this.aClass = aClass;
         this.objectBytes = objectBytes;
         this.range = range;
+        this.fieldNames = fieldNames;
     }
 
     @Override
     public List<T> call() throws Exception {
-        ArrayList<T> items = new ArrayList<>();
+        final long startTime = System.nanoTime();
+        ArrayList<T> items = new ArrayList<>(range.size());
         for (int i = range.getStartingItemIndex(); i < range.getEndingItemIndex(); i++) {
-            final T item = Serializer.deserializeObject(objectBytes.get(i), aClass);
+            final byte[] bytes = objectBytes.get(i);
+            final T item;
+            if (bytes == null) {
+                item = null;
+            }
+            else if (metadata != null) {
+                item = metadata.deserialize(bytes, aClass, fieldNames);
+            }
+            else {
+                item = Serializer.deserializeObject(bytes, aClass);
+            }
             items.add(item);
         }
+        elapsedNanos = System.nanoTime() - startTime;
         return items;
     }
 
+    /**
+     * Retrieves the time taken to deserialize the range, once the call has completed.
+     * @return Returns the time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
 }
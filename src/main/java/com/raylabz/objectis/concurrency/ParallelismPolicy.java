@@ -0,0 +1,211 @@
+package com.raylabz.objectis.concurrency;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether bulk operations serialize, deserialize or filter objects on multiple threads, and how the work is split.
+ * Decisions are based on the estimated amount of work, derived from the measured cost of previous operations on the same class
+ * and from the size of the payloads involved. Work below a threshold runs on the calling thread, as handing it off to other
+ * threads would cost more than it saves. Larger work is split into tasks of roughly equal duration.
+ */
+public class ParallelismPolicy {
+
+    private final Map<Class<?>, CostEstimate> estimates = new ConcurrentHashMap<>();
+    private final AtomicLong serialDecisions = new AtomicLong();
+    private final AtomicLong parallelDecisions = new AtomicLong();
+    private volatile long minParallelWorkNanos = 500_000;
+    private volatile long targetTaskNanos = 200_000;
+    private volatile int minItemsPerTask = 16;
+    private volatile double defaultSerializeNanosPerObject = 5_000;
+    private volatile double defaultDeserializeNanosPerByte = 20;
+    private volatile double defaultFilterNanosPerCheck = 100;
+
+    /**
+     * Retrieves the cost estimate of a class, creating an empty one if needed.
+     * @param aClass The class.
+     * @return Returns a CostEstimate.
+     */
+    public CostEstimate getEstimate(Class<?> aClass) {
+        return estimates.computeIfAbsent(aClass, c -> new CostEstimate());
+    }
+
+    /**
+     * Retrieves the cost estimates of all classes measured so far.
+     * @return Returns an unmodifiable map of classes to their estimates.
+     */
+    public Map<Class<?>, CostEstimate> getEstimates() {
+        return Collections.unmodifiableMap(estimates);
+    }
+
+    /**
+     * Decides whether a number of objects should be serialized on multiple threads.
+     * @param aClass The class of the objects.
+     * @param numOfObjects The number of objects.
+     * @return Returns true if the objects should be serialized in parallel, false otherwise.
+     */
+    public boolean shouldSerializeInParallel(Class<?> aClass, int numOfObjects) {
+        double nanosPerObject = getEstimate(aClass).getSerializeNanosPerObject();
+        if (Double.isNaN(nanosPerObject)) {
+            nanosPerObject = defaultSerializeNanosPerObject;
+        }
+        final boolean parallel = numOfObjects >= minItemsPerTask * 2 && numOfObjects * nanosPerObject >= minParallelWorkNanos;
+        (parallel ? parallelDecisions : serialDecisions).incrementAndGet();
+        return parallel;
+    }
+
+    /**
+     * Splits the deserialization of a list of payloads into ranges, each processed by a separate task.
+     * @param aClass The class of the objects.
+     * @param payloads The serialized objects. Null elements are allowed.
+     * @param parallelism The maximum number of tasks.
+     * @return Returns the ranges to deserialize. A single range means that the payloads should be deserialized on the calling thread.
+     */
+    public List<ArrayRange> planDeserialization(Class<?> aClass, List<byte[]> payloads, int parallelism) {
+        long numOfBytes = 0;
+        for (byte[] payload : payloads) {
+            if (payload != null) {
+                numOfBytes += payload.length;
+            }
+        }
+        double nanosPerByte = getEstimate(aClass).getDeserializeNanosPerByte();
+        if (Double.isNaN(nanosPerByte)) {
+            nanosPerByte = defaultDeserializeNanosPerByte;
+        }
+        return plan(payloads.size(), numOfBytes * nanosPerByte, parallelism);
+    }
+
+    /**
+     * Splits the filtering of a list of objects into ranges, each processed by a separate task.
+     * @param aClass The class of the objects.
+     * @param numOfItems The number of objects.
+     * @param numOfFilters The number of filters each object is checked against.
+     * @param parallelism The maximum number of tasks.
+     * @return Returns the ranges to filter. A single range means that the objects should be filtered on the calling thread.
+     */
+    public List<ArrayRange> planFiltering(Class<?> aClass, int numOfItems, int numOfFilters, int parallelism) {
+        double nanosPerCheck = getEstimate(aClass).getFilterNanosPerCheck();
+        if (Double.isNaN(nanosPerCheck)) {
+            nanosPerCheck = defaultFilterNanosPerCheck;
+        }
+        return plan(numOfItems, (double) numOfItems * numOfFilters * nanosPerCheck, parallelism);
+    }
+
+    private List<ArrayRange> plan(int numOfItems, double work, int parallelism) {
+        final int maxTasks = Math.min(parallelism, numOfItems / minItemsPerTask);
+        if (maxTasks < 2 || work < minParallelWorkNanos) {
+            serialDecisions.incrementAndGet();
+            return Collections.singletonList(new ArrayRange(0, numOfItems));
+        }
+        final int numOfTasks = (int) Math.max(2, Math.min(maxTasks, Math.ceil(work / targetTaskNanos)));
+        parallelDecisions.incrementAndGet();
+        return ArrayRange.chunks(numOfItems, (numOfItems + numOfTasks - 1) / numOfTasks);
+    }
+
+    /**
+     * Retrieves the estimated amount of work below which bulk operations run on the calling thread.
+     * @return Returns the time in nanoseconds.
+     */
+    public long getMinParallelWorkNanos() {
+        return minParallelWorkNanos;
+    }
+
+    /**
+     * Sets the estimated amount of work below which bulk operations run on the calling thread. Defaults to 0.5 ms.
+     * @param minParallelWorkNanos The time in nanoseconds.
+     */
+    public void setMinParallelWorkNanos(long minParallelWorkNanos) {
+        if (minParallelWorkNanos < 0) {
+            throw new IllegalArgumentException("The minimum parallel work cannot be negative.");
+        }
+        this.minParallelWorkNanos = minParallelWorkNanos;
+    }
+
+    /**
+     * Retrieves the estimated amount of work that each parallel task should perform.
+     * @return Returns the time in nanoseconds.
+     */
+    public long getTargetTaskNanos() {
+        return targetTaskNanos;
+    }
+
+    /**
+     * Sets the estimated amount of work that each parallel task should perform. Defaults to 0.2 ms.
+     * Work is never split into more tasks than the number of threads.
+     * @param targetTaskNanos The time in nanoseconds. Must be greater than 0.
+     */
+    public void setTargetTaskNanos(long targetTaskNanos) {
+        if (targetTaskNanos <= 0) {
+            throw new IllegalArgumentException("The target task time must be greater than 0.");
+        }
+        this.targetTaskNanos = targetTaskNanos;
+    }
+
+    public int getMinItemsPerTask() {
+        return minItemsPerTask;
+    }
+
+    /**
+     * Sets the minimum number of objects processed by each parallel task. Defaults to 16.
+     * @param minItemsPerTask The number of objects. Must be greater than 0.
+     */
+    public void setMinItemsPerTask(int minItemsPerTask) {
+        if (minItemsPerTask <= 0) {
+            throw new IllegalArgumentException("The minimum number of items per task must be greater than 0.");
+        }
+        this.minItemsPerTask = minItemsPerTask;
+    }
+
+    /**
+     * Sets the serialization cost assumed for classes that have not been measured yet. Defaults to 5 us per object.
+     * @param nanosPerObject The time in nanoseconds.
+     */
+    public void setDefaultSerializeNanosPerObject(double nanosPerObject) {
+        this.defaultSerializeNanosPerObject = nanosPerObject;
+    }
+
+    /**
+     * Sets the deserialization cost assumed for classes that have not been measured yet. Defaults to 20 ns per byte.
+     * @param nanosPerByte The time in nanoseconds.
+     */
+    public void setDefaultDeserializeNanosPerByte(double nanosPerByte) {
+        this.defaultDeserializeNanosPerByte = nanosPerByte;
+    }
+
+    /**
+     * Sets the cost of checking an object against a filter assumed for classes that have not been measured yet. Defaults to 100 ns.
+     * @param nanosPerCheck The time in nanoseconds.
+     */
+    public void setDefaultFilterNanosPerCheck(double nanosPerCheck) {
+        this.defaultFilterNanosPerCheck = nanosPerCheck;
+    }
+
+    /**
+     * Retrieves the number of bulk operations that were run on the calling thread.
+     * @return Returns a long.
+     */
+    public long getSerialDecisions() {
+        return serialDecisions.get();
+    }
+
+    /**
+     * Retrieves the number of bulk operations that were split into parallel tasks.
+     * @return Returns a long.
+     */
+    public long getParallelDecisions() {
+        return parallelDecisions.get();
+    }
+
+    /**
+     * Clears all measurements and counters.
+     */
+    public void reset() {
+        estimates.clear();
+        serialDecisions.set(0);
+        parallelDecisions.set(0);
+    }
+
+}
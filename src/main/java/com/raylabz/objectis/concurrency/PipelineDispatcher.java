@@ -0,0 +1,188 @@
+package com.raylabz.objectis.concurrency;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.exception.OperationFailedException;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sends commands submitted concurrently by many callers to Redis in shared pipelines.
+ * Commands are queued, and a single task running on the Objectis executor drains the queue, sending every queued command
+ * in one pipeline per round trip. Commands submitted while a pipeline is in flight are sent together in the next one,
+ * so the more callers submit concurrently, the more commands share each round trip, without delaying a lone command.
+ * The replies of each submitted command are checked separately, so an error fails only the future of the command it belongs to.
+ * <p>
+ * Futures are completed on the thread that drains the queue, so callbacks attached using non-async methods such as thenApply()
+ * delay the next pipeline and must not block. Attach blocking callbacks using the async variants instead.
+ */
+public final class PipelineDispatcher {
+
+    private final Supplier<? extends Executor> executorSupplier;
+    private final ConcurrentLinkedQueue<Submission<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile int maxPipelineSize = 1000;
+
+    /**
+     * Constructs a dispatcher.
+     * @param executorSupplier Supplies the executor that the queue is drained on.
+     */
+    public PipelineDispatcher(Supplier<? extends Executor> executorSupplier) {
+        this.executorSupplier = executorSupplier;
+    }
+
+    /**
+     * Sets the maximum number of submitted commands sent in a single pipeline.
+     * @param maxPipelineSize The maximum number of commands. Must be greater than 0. Defaults to 1000.
+     */
+    public void setMaxPipelineSize(int maxPipelineSize) {
+        if (maxPipelineSize <= 0) {
+            throw new IllegalArgumentException("The maximum pipeline size must be greater than 0.");
+        }
+        this.maxPipelineSize = maxPipelineSize;
+    }
+
+    public int getMaxPipelineSize() {
+        return maxPipelineSize;
+    }
+
+    /**
+     * Submits a command to be sent in the next pipeline.
+     * @param command Adds the command to a pipeline, and returns a supplier that computes the result once the pipeline is synced.
+     *                Both may throw, failing only the returned future.
+     * @param <R> The type of the result.
+     * @return Returns a future completed with the result of the command.
+     */
+    public <R> CompletableFuture<R> submit(Function<Pipeline, Supplier<R>> command) {
+        final Submission<R> submission = new Submission<>(command);
+        queue.add(submission);
+        scheduleDrain();
+        return submission.future;
+    }
+
+    private void scheduleDrain() {
+        if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                executorSupplier.get().execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                Submission<?> submission;
+                while ((submission = queue.poll()) != null) {
+                    submission.future.completeExceptionally(new OperationFailedException(e));
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            final List<Submission<?>> submissions = new ArrayList<>();
+            while (true) {
+                final int maxSize = maxPipelineSize;
+                Submission<?> submission;
+                while (submissions.size() < maxSize && (submission = queue.poll()) != null) {
+                    submissions.add(submission);
+                }
+                if (submissions.isEmpty()) {
+                    break;
+                }
+                send(submissions);
+                submissions.clear();
+            }
+        } finally {
+            draining.set(false);
+            //Commands submitted after the queue was found empty, but before the flag was cleared:
+            scheduleDrain();
+        }
+    }
+
+    private void send(List<Submission<?>> submissions) {
+        Jedis jedis = null;
+        try {
+            jedis = Objectis.getJedis();
+            final SharedPipeline pipeline = new SharedPipeline();
+            pipeline.setClient(jedis.getClient());
+            for (Submission<?> submission : submissions) {
+                submission.queue(pipeline);
+            }
+            final List<Object> replies = pipeline.syncAndReturnAll();
+            for (Submission<?> submission : submissions) {
+                submission.complete(replies);
+            }
+        } catch (RuntimeException e) {
+            //The connection failed, and the outcome of the commands is unknown:
+            for (Submission<?> submission : submissions) {
+                submission.fail(e);
+            }
+        } finally {
+            if (jedis != null) {
+                Objectis.releaseJedis(jedis);
+            }
+        }
+    }
+
+    private static final class Submission<R> {
+
+        private final Function<Pipeline, Supplier<R>> command;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private Supplier<R> result = null;
+        private int firstReply = 0;
+        private int lastReply = 0;
+
+        private Submission(Function<Pipeline, Supplier<R>> command) {
+            this.command = command;
+        }
+
+        private void queue(SharedPipeline pipeline) {
+            firstReply = pipeline.getReplyCount();
+            try {
+                result = command.apply(pipeline);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            lastReply = pipeline.getReplyCount();
+        }
+
+        private void complete(List<Object> replies) {
+            if (result != null) {
+                for (Object reply : replies.subList(firstReply, lastReply)) {
+                    if (reply instanceof Exception) {
+                        fail((Exception) reply);
+                        return;
+                    }
+                }
+                try {
+                    future.complete(result.get());
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        private void fail(Exception e) {
+            future.completeExceptionally(e instanceof OperationFailedException ? e : new OperationFailedException(e));
+        }
+
+    }
+
+    /**
+     * A pipeline that exposes the number of replies it expects, so that the replies of each submitted command can be told apart.
+     */
+    private static final class SharedPipeline extends Pipeline {
+
+        private int getReplyCount() {
+            return getPipelinedResponseLength();
+        }
+
+    }
+
+}
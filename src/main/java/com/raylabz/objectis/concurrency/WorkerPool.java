@@ -0,0 +1,186 @@
+package com.raylabz.objectis.concurrency;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Manages the executor shared by all parallel operations.
+ * The executor is created lazily and reused across calls. It is either owned by the pool - a fixed pool of daemon threads,
+ * or a virtual thread per task executor on JDKs that support them - or supplied by the user, in which case it is never shut down by the pool.
+ * Changing the settings replaces the owned executor without shutting it down, as operations in progress may still submit tasks to it.
+ * The threads of a replaced executor stop once they have been idle for a while, and a new executor is created on the next use.
+ * Callers should fetch the executor each time they submit tasks, so that new settings apply, and treat a RejectedExecutionException,
+ * thrown once the pool is shut down or by a user-supplied executor, as a failure of their operation.
+ * Tasks that may start parallel work of their own should be run through {@link #execute(Runnable)}. Operations running on a worker thread
+ * must not split their work into more tasks and wait for them, as the tasks could queue behind the ones waiting for them on a bounded pool.
+ */
+public final class WorkerPool implements Executor {
+
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+    private static final ThreadLocal<Boolean> workerThread = ThreadLocal.withInitial(() -> false);
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private volatile ExecutorService executor = null;
+    private boolean ownsExecutor = false;
+    private volatile int threadCount;
+    private boolean useVirtualThreads = false;
+
+    /**
+     * Creates a worker pool.
+     * @param threadCount The number of threads of the executor owned by the pool.
+     */
+    public WorkerPool(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Retrieves the shared executor, creating it if needed.
+     * @return Returns an ExecutorService.
+     */
+    public ExecutorService getExecutor() {
+        final ExecutorService currentExecutor = executor;
+        if (currentExecutor != null) {
+            return currentExecutor;
+        }
+        synchronized (this) {
+            if (executor == null) {
+                executor = useVirtualThreads ? newVirtualThreadExecutor() : newFixedThreadPool();
+                ownsExecutor = true;
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Runs a task on the shared executor. Operations performed by the task run on its thread, without being split into parallel tasks.
+     * @param task The task.
+     */
+    @Override
+    public void execute(Runnable task) {
+        getExecutor().execute(() -> runAsWorker(task));
+    }
+
+    /**
+     * Checks whether the current thread runs a task of a worker pool, in which case its work should not be split into parallel tasks.
+     * @return Returns true if the current thread is a worker thread, false otherwise.
+     */
+    public static boolean isWorkerThread() {
+        return workerThread.get();
+    }
+
+    private static void runAsWorker(Runnable task) {
+        if (workerThread.get()) {
+            task.run();
+            return;
+        }
+        workerThread.set(true);
+        try {
+            task.run();
+        } finally {
+            workerThread.set(false);
+        }
+    }
+
+    /**
+     * Retrieves the number of parallel tasks that work should be split into.
+     * @return Returns an int.
+     */
+    public int getParallelism() {
+        return threadCount;
+    }
+
+    /**
+     * Sets the number of threads used for parallel operations. If the pool owns an executor, it is replaced, but not shut down.
+     * @param threadCount The number of threads. Must be greater than 0.
+     */
+    public synchronized void setThreadCount(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("The thread count must be greater than 0.");
+        }
+        this.threadCount = threadCount;
+        releaseOwnedExecutor();
+    }
+
+    /**
+     * Sets whether parallel operations run on virtual threads. Virtual threads require JDK 21 or newer.
+     * @param useVirtualThreads True to use virtual threads, false to use a fixed pool of platform threads.
+     * @throws UnsupportedOperationException thrown when virtual threads are not supported by the running JDK.
+     */
+    public synchronized void useVirtualThreads(boolean useVirtualThreads) {
+        if (useVirtualThreads) {
+            newVirtualThreadExecutor().shutdown();
+        }
+        this.useVirtualThreads = useVirtualThreads;
+        releaseOwnedExecutor();
+    }
+
+    /**
+     * Sets an executor supplied by the user. The pool does not shut down user-supplied executors, nor the owned executor it replaces.
+     * @param executor The executor, or null to go back to an executor owned by the pool.
+     */
+    public synchronized void setExecutor(ExecutorService executor) {
+        releaseOwnedExecutor();
+        this.executor = executor;
+        this.ownsExecutor = false;
+    }
+
+    /**
+     * Shuts down the executor if it is owned by the pool. A new executor is created if the pool is used again.
+     */
+    public synchronized void shutdown() {
+        shutdownOwnedExecutor();
+    }
+
+    /**
+     * Stops using the owned executor, if any, without shutting it down. Its threads stop on their own once idle.
+     */
+    private void releaseOwnedExecutor() {
+        if (ownsExecutor) {
+            executor = null;
+            ownsExecutor = false;
+        }
+    }
+
+    private void shutdownOwnedExecutor() {
+        if (executor != null && ownsExecutor) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Creates a fixed pool of threads that stop after being idle for a while, so that a replaced pool does not need to be shut down.
+     * @return Returns an ExecutorService.
+     */
+    private ExecutorService newFixedThreadPool() {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threadCount, threadCount, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), newThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private ThreadFactory newThreadFactory() {
+        return runnable -> {
+            final Thread thread = new Thread(() -> runAsWorker(runnable), "objectis-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JDK (" + System.getProperty("java.version") + ").", e);
+        }
+    }
+
+}
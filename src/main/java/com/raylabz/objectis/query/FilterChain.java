@@ -0,0 +1,132 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.concurrency.ArrayRange;
+import com.raylabz.objectis.concurrency.FilterCallable;
+import com.raylabz.objectis.concurrency.FilterCallableProcessor;
+import com.raylabz.objectis.concurrency.WorkerPool;
+import com.raylabz.objectis.exception.InvalidFieldException;
+import com.raylabz.objectis.exception.OperationFailedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps the items that match all of a sequence of filters, checking every filter on each item in a single pass over the items.
+ * Filters are checked in the order they were added, and checking an item stops at the first filter it does not match.
+ * Null items, such as objects that were deleted while being fetched, never match.
+ * <p>
+ * Large lists are split into ranges that are filtered on the Objectis executor and merged back in order. Whether a list is split,
+ * and into how many ranges, is decided by the parallelism policy from the measured cost of filtering objects of the same class.
+ * @param <T> The type of items.
+ */
+final class FilterChain<T> extends QueryOperation<T> implements FilterCallableProcessor<T> {
+
+    private final Class<T> aClass;
+
+    private final ArrayList<QueryFilter<T>> filters = new ArrayList<>();
+
+    FilterChain(Class<T> aClass) {
+        this.aClass = aClass;
+    }
+
+    void add(QueryFilter<T> filter) {
+        filters.add(filter);
+    }
+
+    boolean isEmpty() {
+        return filters.isEmpty();
+    }
+
+    int size() {
+        return filters.size();
+    }
+
+    /**
+     * Checks if an item matches all filters.
+     * @param item The item.
+     * @return Returns true if the item matches, false otherwise.
+     * @throws InvalidFieldException thrown when a field's value cannot be compared with the value of a filter.
+     */
+    boolean test(T item) throws InvalidFieldException {
+        if (item == null) {
+            return false;
+        }
+        for (QueryFilter<T> filter : filters) {
+            if (!filter.test(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean exclude(T item) {
+        return !test(item);
+    }
+
+    @Override
+    List<T> apply(List<T> items) {
+        final List<ArrayRange> ranges = Objectis.isUsingMultithreading() && !WorkerPool.isWorkerThread()
+                ? Objectis.getParallelismPolicy().planFiltering(aClass, items.size(), filters.size(), Objectis.getThreadCount())
+                : Collections.singletonList(new ArrayRange(0, items.size()));
+
+        if (ranges.size() == 1) {
+            final long startTime = System.nanoTime();
+            final ArrayList<T> matchingItems = new ArrayList<>();
+            for (T item : items) {
+                if (test(item)) {
+                    matchingItems.add(item);
+                }
+            }
+            Objectis.getParallelismPolicy().getEstimate(aClass).recordFiltering(items.size(), filters.size(), System.nanoTime() - startTime);
+            return matchingItems;
+        }
+
+        try {
+            final List<FilterCallable<T>> callables = new ArrayList<>();
+            for (ArrayRange range : ranges) {
+                callables.add(new FilterCallable<>(items, range, this));
+            }
+
+            final List<Future<List<T>>> futures = Objectis.getExecutor().invokeAll(callables);
+
+            final ArrayList<T> matchingItems = new ArrayList<>();
+            for (Future<List<T>> future : futures) {
+                matchingItems.addAll(future.get());
+            }
+
+            long elapsedNanos = 0;
+            for (FilterCallable<T> callable : callables) {
+                elapsedNanos += callable.getElapsedNanos();
+            }
+            Objectis.getParallelismPolicy().getEstimate(aClass).recordFiltering(items.size(), filters.size(), elapsedNanos);
+            return matchingItems;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new OperationFailedException(e);
+        } catch (InterruptedException | RejectedExecutionException e) {
+            throw new OperationFailedException(e);
+        }
+    }
+
+    @Override
+    void collectFieldNames(Set<String> fieldNames) {
+        for (QueryFilter<T> filter : filters) {
+            filter.collectFieldNames(fieldNames);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return filters.toString();
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.raylabz.objectis.query;
+
+/**
+ * The comparisons that a query filter can apply to a field.
+ */
+enum FilterOperator {
+
+    EQUAL_TO,
+    NOT_EQUAL_TO,
+    GREATER_THAN,
+    GREATER_THAN_OR_EQUAL_TO,
+    LESS_THAN,
+    LESS_THAN_OR_EQUAL_TO,
+    ARRAY_CONTAINS,
+    ARRAY_CONTAINS_ANY
+
+}
@@ -0,0 +1,248 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.ClassMetadata;
+import com.raylabz.objectis.ObjectisAsync;
+import com.raylabz.objectis.ObjectisRegistry;
+import com.raylabz.objectis.PathMaker;
+import com.raylabz.objectis.Reflector;
+import com.raylabz.objectis.Serializer;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import com.raylabz.objectis.exception.OperationFailedException;
+import redis.clients.jedis.Response;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An asynchronous counterpart of ObjectisCollection, whose operations return futures and are sent to Redis in the shared pipelines
+ * of ObjectisAsync.
+ * @param <T> The type of the collection's items.
+ */
+public class ObjectisAsyncCollection<T> {
+
+    private final Class<T> aClass;
+    private final String name;
+
+    /**
+     * Constructs a new collection.
+     *
+     * @param aClass The collection class.
+     * @param name   The name of the collection.
+     */
+    public ObjectisAsyncCollection(Class<T> aClass, String name) {
+        this.aClass = aClass;
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the reference key of this collection.
+     *
+     * @return Returns a byte[]
+     */
+    public final byte[] getReference() {
+        return PathMaker.getCollectionPath(aClass, name);
+    }
+
+    /**
+     * Adds an item to the collection.
+     *
+     * @param item The item to add.
+     * @return Returns a future completed when the item is added.
+     */
+    public final CompletableFuture<Void> add(T item) {
+        try {
+            final ClassMetadata metadata = checkClass(item.getClass());
+            final byte[] id = Serializer.serializeKey(getId(metadata, item));
+            return ObjectisAsync.getDispatcher().submit(pipeline -> {
+                pipeline.sadd(getReference(), id);
+                return () -> null;
+            });
+        } catch (NoSuchFieldException | IllegalAccessException | ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Adds a list of items to the collection.
+     *
+     * @param items A list of items to add.
+     * @return Returns a future completed when the items are added.
+     */
+    public final CompletableFuture<Void> addAll(List<T> items) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            final ClassMetadata metadata = checkClass(aClass);
+            final byte[][] ids = new byte[items.size()][];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Serializer.serializeKey(getId(metadata, items.get(i)));
+            }
+            return ObjectisAsync.getDispatcher().submit(pipeline -> {
+                pipeline.sadd(getReference(), ids);
+                return () -> null;
+            });
+        } catch (NoSuchFieldException | IllegalAccessException | ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Retrieve all items in the collection.
+     *
+     * @return Returns a future completed with a list of items. Items that no longer exist are skipped.
+     */
+    public final CompletableFuture<List<T>> list() {
+        try {
+            checkClass(aClass);
+            return ObjectisAsync.getDispatcher().submit(pipeline -> {
+                final Response<Set<byte[]>> response = pipeline.smembers(getReference());
+                return response::get;
+            }).thenCompose(ids -> ObjectisAsync.getManyWithBytes(aClass, ids)).thenApply(items -> {
+                //Items deleted since they were added to the collection:
+                items.removeIf(Objects::isNull);
+                return items;
+            });
+        } catch (ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Deletes an item from the collection.
+     *
+     * @param item The item to delete.
+     * @return Returns a future completed when the item is deleted.
+     */
+    public final CompletableFuture<Void> delete(T item) {
+        try {
+            return delete(getId(checkClass(aClass), item));
+        } catch (NoSuchFieldException | IllegalAccessException | ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Deletes an item from the collection.
+     *
+     * @param itemID The ID of the item to delete.
+     * @return Returns a future completed when the item is deleted.
+     */
+    public final CompletableFuture<Void> delete(String itemID) {
+        return deleteAll(itemID);
+    }
+
+    /**
+     * Delete a list of items from the collection.
+     *
+     * @param items The list of items to delete.
+     * @return Returns a future completed when the items are deleted.
+     */
+    public final CompletableFuture<Void> deleteAll(List<T> items) {
+        try {
+            final ClassMetadata metadata = checkClass(aClass);
+            final String[] ids = new String[items.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = getId(metadata, items.get(i));
+            }
+            return deleteAll(ids);
+        } catch (NoSuchFieldException | IllegalAccessException | ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Delete a list of items from the collection.
+     *
+     * @param ids The IDs of the items to delete.
+     * @return Returns a future completed when the items are deleted.
+     */
+    public final CompletableFuture<Void> deleteAll(String... ids) {
+        if (ids.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            checkClass(aClass);
+            final byte[][] idBytes = new byte[ids.length][];
+            for (int i = 0; i < ids.length; i++) {
+                idBytes[i] = Serializer.serializeKey(ids[i]);
+            }
+            return ObjectisAsync.getDispatcher().submit(pipeline -> {
+                pipeline.srem(getReference(), idBytes);
+                return () -> null;
+            });
+        } catch (ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Checks if an item exists in the collection.
+     *
+     * @param item The item to check.
+     * @return Returns a future completed with true if the item is in the collection, false otherwise.
+     */
+    public final CompletableFuture<Boolean> contains(T item) {
+        try {
+            return contains(getId(checkClass(aClass), item));
+        } catch (NoSuchFieldException | IllegalAccessException | ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Checks if an item exists in the collection.
+     *
+     * @param itemID The ID of the item to check.
+     * @return Returns a future completed with true if the item is in the collection, false otherwise.
+     */
+    public final CompletableFuture<Boolean> contains(String itemID) {
+        try {
+            checkClass(aClass);
+            final byte[] id = Serializer.serializeKey(itemID);
+            return ObjectisAsync.getDispatcher().submit(pipeline -> {
+                final Response<Boolean> response = pipeline.sismember(getReference(), id);
+                return response::get;
+            });
+        } catch (ClassRegistrationException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Checks if a class has a valid structure. Registered classes were checked when registered and are not checked again.
+     *
+     * @param aClass The class to check.
+     * @return Returns the metadata of the class, or null if the class is valid but not registered.
+     * @throws ClassRegistrationException thrown when the class does not have a valid structure.
+     */
+    private static ClassMetadata checkClass(Class<?> aClass) throws ClassRegistrationException {
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(aClass);
+        if (metadata == null) {
+            Reflector.checkClass(aClass);
+        }
+        return metadata;
+    }
+
+    /**
+     * Retrieves the ID of an item, using the ID accessor cached in the metadata of its class when the class is registered.
+     *
+     * @param metadata The metadata of the item's class, or null if the class is not registered.
+     * @param item     The item.
+     * @return Returns the ID of the item.
+     * @throws NoSuchFieldException   thrown when the item's class has no ID field.
+     * @throws IllegalAccessException thrown when the ID field cannot be accessed.
+     */
+    private static String getId(ClassMetadata metadata, Object item) throws NoSuchFieldException, IllegalAccessException {
+        return metadata != null ? metadata.getId(item) : Reflector.getIDField(item);
+    }
+
+    private static <R> CompletableFuture<R> failed(Exception e) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        future.completeExceptionally(new OperationFailedException(e));
+        return future;
+    }
+
+}
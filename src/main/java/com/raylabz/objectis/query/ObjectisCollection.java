@@ -1,6 +1,8 @@
 package com.raylabz.objectis.query;
 
+import com.raylabz.objectis.ClassMetadata;
 import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.ObjectisRegistry;
 import com.raylabz.objectis.PathMaker;
 import com.raylabz.objectis.Reflector;
 import com.raylabz.objectis.Serializer;
@@ -13,8 +15,8 @@ import redis.clients.jedis.Jedis;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.Vector;
 
 public class ObjectisCollection<T> {
 
@@ -58,9 +60,9 @@ public class ObjectisCollection<T> {
      */
     public final void add(T item) throws OperationFailedException {
         try {
-            Reflector.checkClass(item.getClass());
+            final ClassMetadata metadata = checkClass(item.getClass());
             final Jedis jedis = Objectis.getJedis();
-            jedis.sadd(getReference(), Serializer.serializeKey(Reflector.getIDField(item)));
+            jedis.sadd(getReference(), Serializer.serializeKey(getId(metadata, item)));
             Objectis.releaseJedis(jedis);
         } catch (NoSuchFieldException | IllegalAccessException | ClassRegistrationException e) {
             throw new OperationFailedException(e);
@@ -74,10 +76,10 @@ public class ObjectisCollection<T> {
      */
     public final void addAll(List<T> items) {
         try {
-            Reflector.checkClass(aClass);
+            final ClassMetadata metadata = checkClass(aClass);
             final Jedis jedis = Objectis.getJedis();
             for (T item : items) {
-                jedis.sadd(getReference(), Serializer.serializeKey(Reflector.getIDField(item)));
+                jedis.sadd(getReference(), Serializer.serializeKey(getId(metadata, item)));
             }
             Objectis.releaseJedis(jedis);
         } catch (NoSuchFieldException | IllegalAccessException | ClassRegistrationException e) {
@@ -86,20 +88,22 @@ public class ObjectisCollection<T> {
     }
 
     /**
-     * Retrieve all items in the collection.
+     * Retrieve all items in the collection. Items that no longer exist are skipped.
      *
      * @return a List of items.
      * @throws OperationFailedException thrown when the operation has failed.
      */
     public final List<T> list() throws OperationFailedException {
         try {
-            Reflector.checkClass(aClass);
+            checkClass(aClass);
             final Set<byte[]> itemIDsAsBytesSet;
             final Jedis jedis = Objectis.getJedis();
             itemIDsAsBytesSet = jedis.smembers(getReference());
             final List<byte[]> itemIDsAsBytes = new ArrayList<>(itemIDsAsBytesSet);
             final List<T> result;
             result = Objectis.getManyWithBytes(aClass, itemIDsAsBytes);
+            //Items deleted since they were added to the collection:
+            result.removeIf(Objects::isNull);
             Objectis.releaseJedis(jedis);
             return result;
         } catch (ClassRegistrationException e) {
@@ -114,8 +118,8 @@ public class ObjectisCollection<T> {
      */
     public final void delete(T item) {
         try {
-            Reflector.checkClass(aClass);
-            final String id = Reflector.getIDField(item);
+            final ClassMetadata metadata = checkClass(aClass);
+            final String id = getId(metadata, item);
             final Jedis jedis = Objectis.getJedis();
             jedis.srem(getReference(), Serializer.serializeKey(id));
             Objectis.releaseJedis(jedis);
@@ -131,7 +135,7 @@ public class ObjectisCollection<T> {
      */
     public final void delete(String itemID) {
         try {
-            Reflector.checkClass(aClass);
+            checkClass(aClass);
             final Jedis jedis = Objectis.getJedis();
             jedis.srem(getReference(), Serializer.serializeKey(itemID));
             Objectis.releaseJedis(jedis);
@@ -147,10 +151,10 @@ public class ObjectisCollection<T> {
      */
     public final void deleteAll(List<T> items) {
         try {
-            Reflector.checkClass(aClass);
+            final ClassMetadata metadata = checkClass(aClass);
             final Jedis jedis = Objectis.getJedis();
             for (T item : items) {
-                final String id = Reflector.getIDField(item);
+                final String id = getId(metadata, item);
                 jedis.srem(getReference(), Serializer.serializeKey(id));
             }
             Objectis.releaseJedis(jedis);
@@ -166,7 +170,7 @@ public class ObjectisCollection<T> {
      */
     public final void deleteAll(String... ids) {
         try {
-            Reflector.checkClass(aClass);
+            checkClass(aClass);
             final Jedis jedis = Objectis.getJedis();
             for (String id : ids) {
                 jedis.srem(getReference(), Serializer.serializeKey(id));
@@ -185,8 +189,8 @@ public class ObjectisCollection<T> {
      */
     public final boolean contains(T item) {
         try {
-            Reflector.checkClass(aClass);
-            final String id = Reflector.getIDField(item);
+            final ClassMetadata metadata = checkClass(aClass);
+            final String id = getId(metadata, item);
             final Boolean result;
             final Jedis jedis = Objectis.getJedis();
             result = jedis.sismember(getReference(), Serializer.serializeKey(id));
@@ -205,7 +209,7 @@ public class ObjectisCollection<T> {
      */
     public final boolean contains(String itemID) {
         try {
-            Reflector.checkClass(aClass);
+            checkClass(aClass);
 
             final Boolean result;
             final Jedis jedis = Objectis.getJedis();
@@ -217,13 +221,41 @@ public class ObjectisCollection<T> {
         }
     }
 
+    /**
+     * Checks if a class has a valid structure. Registered classes were checked when registered and are not checked again.
+     *
+     * @param aClass The class to check.
+     * @return Returns the metadata of the class, or null if the class is valid but not registered.
+     * @throws ClassRegistrationException thrown when the class does not have a valid structure.
+     */
+    private static ClassMetadata checkClass(Class<?> aClass) throws ClassRegistrationException {
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(aClass);
+        if (metadata == null) {
+            Reflector.checkClass(aClass);
+        }
+        return metadata;
+    }
+
+    /**
+     * Retrieves the ID of an item, using the ID accessor cached in the metadata of its class when the class is registered.
+     *
+     * @param metadata The metadata of the item's class, or null if the class is not registered.
+     * @param item     The item.
+     * @return Returns the ID of the item.
+     * @throws NoSuchFieldException   thrown when the item's class has no ID field.
+     * @throws IllegalAccessException thrown when the ID field cannot be accessed.
+     */
+    private static String getId(ClassMetadata metadata, Object item) throws NoSuchFieldException, IllegalAccessException {
+        return metadata != null ? metadata.getId(item) : Reflector.getIDField(item);
+    }
+
     /**
      * Filters the collection's items.
      *
      * @return Returns an ObjectisFilterable.
      */
     public final ObjectisFilterable<T> filter() {
-        return new ObjectisFilterable<>(aClass, new Vector<>(list()));
+        return new ObjectisFilterable<>(aClass, list());
     }
 
 }
@@ -1,41 +1,50 @@
 package com.raylabz.objectis.query;
 
+import com.raylabz.objectis.ClassMetadata;
+import com.raylabz.objectis.FieldAccessor;
 import com.raylabz.objectis.Objectis;
-import com.raylabz.objectis.Reflector;
-import com.raylabz.objectis.Serializer;
-import com.raylabz.objectis.concurrency.ArrayRange;
-import com.raylabz.objectis.concurrency.FilterCallable;
-import com.raylabz.objectis.concurrency.FilterCallableProcessor;
-import com.raylabz.objectis.concurrency.GetManyCallable;
+import com.raylabz.objectis.ObjectisRegistry;
 import com.raylabz.objectis.exception.InvalidFieldException;
-import com.raylabz.objectis.exception.OperationFailedException;
+import com.raylabz.objectis.reactive.PagePublisher;
+import com.raylabz.objectis.reactive.Publisher;
 
-import java.lang.reflect.Field;
-import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Vector;
 
 /**
  * Provides functionality to filter items in the cache.
+ * Operations are recorded and only executed when the result is fetched, so that they can be planned together:
+ * filters on indexed fields are resolved on the server, the most selective index drives the query and limits or offsets
+ * are pushed down to sorted set indexes where possible. Use explain() to see how a query will be executed.
  * @param <T> The type of item
  */
 public class ObjectisFilterable<T> {
 
     private final Class<T> aClass;
-    private final Field[] classFields;
+    private final ClassMetadata metadata;
 
-    private Vector<T> temporaryItems;
+    /**
+     * The loaded items, or null if the items have not been loaded from Redis yet.
+     */
+    private List<T> temporaryItems;
+
+    /**
+     * The operations recorded since the items were last fetched, in order.
+     */
+    private final ArrayList<QueryOperation<T>> operations = new ArrayList<>();
 
     /**
-     * Constructs a filterable
+     * Constructs a filterable. Items are loaded when the result is fetched, so that only objects that may match are fetched.
      * @param aClass The type of objects this filterable works on.
      */
     public ObjectisFilterable(Class<T> aClass) {
         this.aClass = aClass;
-        temporaryItems = new Vector<>(Objectis.list(aClass));
-        classFields = aClass.getDeclaredFields();
+        temporaryItems = null;
+        metadata = getMetadata(aClass);
     }
 
     /**
@@ -44,13 +53,20 @@ public class ObjectisFilterable<T> {
      * @param items A list of existing items.
      */
     public ObjectisFilterable(Class<T> aClass, Vector<T> items) {
+        this(aClass, new ArrayList<>(items));
+    }
+
+    /**
+     * Constructs a filterable using a list of items that is not shared with other code.
+     * @param aClass The class.
+     * @param items A list of existing items.
+     */
+    ObjectisFilterable(Class<T> aClass, List<T> items) {
         this.aClass = aClass;
         temporaryItems = items;
-        classFields = aClass.getDeclaredFields();
+        metadata = getMetadata(aClass);
     }
 
-    //TODO - Multithreaded filtering?
-
     /**
      * Filters by a field's value being equal to the one provided.
      * @param fieldName The field name.
@@ -59,32 +75,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public ObjectisFilterable<T> whereEqualTo(String fieldName, Object value) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        boolean preAccessible = field.isAccessible();
-        field.setAccessible(true);
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                final Object objectValue = field.get(temporaryItem);
-                if (!objectValue.equals(value)) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException e) {
-            throw new InvalidFieldException(e);
-        }
-
-        field.setAccessible(preAccessible);
+        operations.add(new QueryFilter<>(getField(fieldName), FilterOperator.EQUAL_TO, value));
         return this;
     }
 
@@ -96,31 +87,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public ObjectisFilterable<T> whereNotEqualTo(String fieldName, Object value) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                field.setAccessible(preAccessible);
-                if (objectValue.equals(value)) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), FilterOperator.NOT_EQUAL_TO, value));
         return this;
     }
 
@@ -133,32 +100,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public <Y extends Comparable<?>> ObjectisFilterable<T> whereGreaterThan(String fieldName, Y value) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                final Comparable<Y> castedObject = value.getClass().cast(objectValue);
-                field.setAccessible(preAccessible);
-                if (castedObject.compareTo(value) < 1) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException | ClassCastException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), FilterOperator.GREATER_THAN, value));
         return this;
     }
 
@@ -171,32 +113,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public <Y extends Comparable<?>> ObjectisFilterable<T> whereGreaterThanOrEqualTo(String fieldName, Y value) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                final Comparable<Y> castedObject = value.getClass().cast(objectValue);
-                field.setAccessible(preAccessible);
-                if (castedObject.compareTo(value) < 0) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException | ClassCastException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), FilterOperator.GREATER_THAN_OR_EQUAL_TO, value));
         return this;
     }
 
@@ -209,32 +126,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public <Y extends Comparable<?>> ObjectisFilterable<T> whereLessThan(String fieldName, Y value) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                final Comparable<Y> castedObject = value.getClass().cast(objectValue);
-                field.setAccessible(preAccessible);
-                if (castedObject.compareTo(value) > -1) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException | ClassCastException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), FilterOperator.LESS_THAN, value));
         return this;
     }
 
@@ -247,32 +139,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public <Y extends Comparable<?>> ObjectisFilterable<T> whereLessThanOrEqualTo(String fieldName, Y value) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                final Comparable<Y> castedObject = value.getClass().cast(objectValue);
-                field.setAccessible(preAccessible);
-                if (castedObject.compareTo(value) > 0) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException | ClassCastException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), FilterOperator.LESS_THAN_OR_EQUAL_TO, value));
         return this;
     }
 
@@ -284,32 +151,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public ObjectisFilterable<T> whereArrayContains(String fieldName, Object value) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                field.setAccessible(preAccessible);
-                final Collection<?> collectionObject = (Collection<?>) objectValue;
-                if (!collectionObject.contains(value)) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException | ClassCastException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), FilterOperator.ARRAY_CONTAINS, value));
         return this;
     }
 
@@ -321,39 +163,7 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public ObjectisFilterable<T> whereArrayContainsAny(String fieldName, List<?> values) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                field.setAccessible(preAccessible);
-                final Collection<?> collectionObject = (Collection<?>) objectValue;
-                boolean containsAny = false;
-                for (Object givenValue : values) {
-                    if (collectionObject.contains(givenValue)) {
-                        containsAny = true;
-                        break;
-                    }
-                }
-                if (!containsAny) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException | ClassCastException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), values.toArray()));
         return this;
     }
 
@@ -365,80 +175,40 @@ public class ObjectisFilterable<T> {
      * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
      */
     public ObjectisFilterable<T> whereArrayContainsAny(String fieldName, Object... values) throws InvalidFieldException {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        try {
-            ArrayList<T> itemsToRemove = new ArrayList<>();
-            for (T temporaryItem : temporaryItems) {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue = field.get(temporaryItem);
-                field.setAccessible(preAccessible);
-                final Collection<?> collectionObject = (Collection<?>) objectValue;
-                boolean containsAny = false;
-                for (Object givenValue : values) {
-                    if (collectionObject.contains(givenValue)) {
-                        containsAny = true;
-                        break;
-                    }
-                }
-                if (!containsAny) {
-                    itemsToRemove.add(temporaryItem);
-                }
-            }
-
-            for (T item : itemsToRemove) {
-                temporaryItems.remove(item);
-            }
-
-        } catch (IllegalAccessException | ClassCastException e) {
-            throw new InvalidFieldException(e);
-        }
-
+        operations.add(new QueryFilter<>(getField(fieldName), values.clone()));
         return this;
     }
 
     /**
      * Orders items based on a field's value in a specific direction.
+     * If the field is range indexed and it is the only ordering before any limit or offset, ordering may be resolved using its sorted set,
+     * when that cannot leave out objects with a null value for the field: the field is primitive or a range filter on it excludes nulls.
+     * Calling orderBy() again orders items by the new field, keeping the previous order among items with equal values.
+     * Use thenBy() to order items with equal values by another field.
      * @param fieldName The field name.
      * @param direction The direction of ordering.
      * @return Returns a filterable.
      */
     public ObjectisFilterable<T> orderBy(String fieldName, OrderDirection direction) {
-        final Field field = getField(fieldName);
-        if (field == null) {
-            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
-        }
-
-        temporaryItems.sort((o1, o2) -> {
-            try {
-                boolean preAccessible = field.isAccessible();
-                field.setAccessible(true);
-                final Object objectValue1 = field.get(o1);
-                final Object objectValue2 = field.get(o2);
-                Class<?> type = field.getType();
-                type = fixUnboxedType(type);
-
-                field.setAccessible(preAccessible);
-
-                final Comparable<Object> castedObject1 = (Comparable<Object>) type.cast(objectValue1);
-                final Comparable<Object> castedObject2 = (Comparable<Object>) type.cast(objectValue2);
-
-                if (direction == OrderDirection.ASCENDING) {
-                    return castedObject1.compareTo(castedObject2);
-                }
-                else {
-                    return castedObject2.compareTo(castedObject1);
-                }
-
-            } catch (IllegalAccessException | ClassCastException e) {
-                throw new InvalidFieldException(e);
-            }
-        });
+        operations.add(new QueryOrder<>(getField(fieldName), direction));
+        return this;
+    }
 
+    /**
+     * Orders items that have equal values for the fields of the preceding orderBy() or thenBy() by another field's value.
+     * Ordering followed by a limit only keeps the items within the limit while ordering, instead of ordering all items.
+     * @param fieldName The field name.
+     * @param direction The direction of ordering.
+     * @return Returns a filterable.
+     * @throws InvalidFieldException thrown when the field cannot be accessed or does not exist.
+     * @throws IllegalStateException thrown when not called right after orderBy() or thenBy().
+     */
+    public ObjectisFilterable<T> thenBy(String fieldName, OrderDirection direction) throws InvalidFieldException {
+        final FieldAccessor field = getField(fieldName);
+        if (operations.isEmpty() || !(operations.get(operations.size() - 1) instanceof QueryOrder)) {
+            throw new IllegalStateException("thenBy() must follow orderBy() or thenBy().");
+        }
+        ((QueryOrder<T>) operations.get(operations.size() - 1)).thenBy(field, direction);
         return this;
     }
 
@@ -448,9 +218,7 @@ public class ObjectisFilterable<T> {
      * @return Returns a filterable.
      */
     public ObjectisFilterable<T> limit(int limit) {
-        if (limit > 0 && temporaryItems.size() >= limit) {
-            temporaryItems = new Vector<>(temporaryItems.subList(0, limit));
-        }
+        operations.add(QueryWindow.limit(limit));
         return this;
     }
 
@@ -460,9 +228,25 @@ public class ObjectisFilterable<T> {
      * @return Returns a filterable.
      */
     public ObjectisFilterable<T> offset(int offset) {
-        if (offset >= 0 && offset < temporaryItems.size()) {
-            temporaryItems = new Vector<>(temporaryItems.subList(offset, temporaryItems.size()));
+        operations.add(QueryWindow.offset(offset));
+        return this;
+    }
+
+    /**
+     * Skips the items up to and including the item with the given ID, such as the last document ID of a previous result,
+     * so that results can be paged through by their ordering without skipping all previous pages.
+     * When ordering by a range indexed field with no filters other than ranges on the same field, the next page is found
+     * using the rank of the item in the field's sorted set, so retrieving a page costs the same regardless of its position.
+     * Otherwise, the items are loaded, filtered and ordered, and the items up to the given one are skipped.
+     * If no item has the given ID, for example because it was deleted or no longer matches, the result is empty.
+     * @param lastDocumentID The ID of the last item of the previous page.
+     * @return Returns a filterable.
+     */
+    public ObjectisFilterable<T> startAfter(String lastDocumentID) {
+        if (lastDocumentID == null) {
+            throw new IllegalArgumentException("The ID to start after cannot be null.");
         }
+        operations.add(QueryWindow.startAfter(lastDocumentID, metadata));
         return this;
     }
 
@@ -471,59 +255,138 @@ public class ObjectisFilterable<T> {
      * @return Returns a collection of objects.
      */
     public ObjectisQueryResult<T> fetch() {
-        try {
-            if (temporaryItems.size() > 0) {
-                final String lastElementID = Reflector.getIDField(temporaryItems.lastElement());
-                return new ObjectisQueryResult<>(temporaryItems, lastElementID);
-            }
-            return new ObjectisQueryResult<>(temporaryItems, null);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new OperationFailedException(e);
+        if (temporaryItems == null) {
+            temporaryItems = QueryPlan.create(aClass, metadata, operations).execute();
+        }
+        else if (!operations.isEmpty()) {
+            temporaryItems = QueryPlan.applyAll(aClass, temporaryItems, operations);
+        }
+        operations.clear();
+        if (temporaryItems.size() > 0) {
+            final String lastElementID = metadata.getId(temporaryItems.get(temporaryItems.size() - 1));
+            return new ObjectisQueryResult<>(temporaryItems, lastElementID);
         }
+        return new ObjectisQueryResult<>(temporaryItems, null);
     }
 
     /**
-     * Searches the class fields for a particular field by name.
-     * @param fieldName The field name.
-     * @return Returns the field, or null if the field was not found.
+     * Publishes the matching objects to subscribers as they request them, instead of fetching them all at once.
+     * Uses the scan page size configured in Objectis as the number of objects fetched per page.
+     * @return Returns a publisher of the matching objects.
+     * @see #publish(int)
      */
-    private Field getField(String fieldName) {
-        for (Field classField : classFields) {
-            if (classField.getName().equals(fieldName)) {
-                return classField;
-            }
-        }
-        return null;
+    public Publisher<T> publish() {
+        return publish(Objectis.getScanPageSize());
     }
 
-    private Class<?> fixUnboxedType(Class<?> type) {
-        if (type == int.class) {
-            return Integer.class;
+    /**
+     * Publishes the matching objects to subscribers as they request them, instead of fetching them all at once.
+     * Objects are fetched from Redis a page at a time, and the next page is only fetched once the objects of the previous page have been
+     * requested, so at most about one page of objects is held in memory per subscriber. The query is executed again for each subscriber, and the recorded operations are kept.
+     * Queries that order objects by a field without a range index, or that apply operations after a limit or offset, need all matching
+     * objects at once, so they are executed in full when subscribed to and only their result is published in pages.
+     * Pages are fetched, deserialized and filtered, and objects are published, by tasks on the executor used by parallel operations in Objectis,
+     * without splitting their work into further parallel tasks (see Objectis.getTaskExecutor()).
+     * @param pageSize The maximum number of objects fetched per page. Must be greater than 0.
+     * @return Returns a publisher of the matching objects.
+     */
+    public Publisher<T> publish(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be greater than 0.");
         }
-        else if (type == double.class) {
-            return Double.class;
+        final ArrayList<QueryOperation<T>> recordedOperations = new ArrayList<>(operations);
+        if (temporaryItems != null) {
+            final List<T> loadedItems = temporaryItems;
+            return new PagePublisher<>(() -> Collections.singletonList(QueryPlan.applyAll(aClass, loadedItems, recordedOperations)).iterator(), Objectis::getTaskExecutor);
         }
-        else if (type == float.class) {
-            return Float.class;
+        return new PagePublisher<>(() -> QueryPlan.create(aClass, metadata, recordedOperations).executeInPages(pageSize), Objectis::getTaskExecutor);
+    }
+
+    /**
+     * Fetches the values of some fields of the matching objects, instead of whole objects.
+     * When objects are loaded from Redis and their serializer can skip fields, only the selected fields and the fields used by the
+     * query's filters and orderings are deserialized. Unlike fetch(), the recorded operations are kept and the loaded items are not
+     * replaced, so the query can still be fetched afterwards.
+     * @param fieldNames The names of the fields to select.
+     * @return Returns a collection of records with the values of the selected fields, in the order of the matching objects.
+     * @throws InvalidFieldException thrown when a field does not exist.
+     */
+    public ObjectisQueryResult<ObjectisRecord> select(String... fieldNames) throws InvalidFieldException {
+        final FieldAccessor[] selectedFields = new FieldAccessor[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            selectedFields[i] = getField(fieldNames[i]);
         }
-        else if (type == long.class) {
-            return Long.class;
+
+        final List<T> items;
+        if (temporaryItems == null) {
+            final HashSet<String> neededFieldNames = new HashSet<>();
+            for (FieldAccessor field : selectedFields) {
+                neededFieldNames.add(field.getName());
+            }
+            for (QueryOperation<T> operation : operations) {
+                operation.collectFieldNames(neededFieldNames);
+            }
+            if (metadata.getIdAccessor() != null) {
+                neededFieldNames.add(metadata.getIdAccessor().getName());
+            }
+            items = QueryPlan.create(aClass, metadata, operations, neededFieldNames).execute();
         }
-        else if (type == short.class) {
-            return Short.class;
+        else {
+            items = QueryPlan.applyAll(aClass, temporaryItems, operations);
         }
-        else if (type == byte.class) {
-            return Byte.class;
+
+        final ArrayList<ObjectisRecord> records = new ArrayList<>(items.size());
+        for (T item : items) {
+            final LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+            for (FieldAccessor field : selectedFields) {
+                values.put(field.getName(), field.get(item));
+            }
+            records.add(new ObjectisRecord(metadata.getIdAccessor() != null ? metadata.getId(item) : null, values));
         }
-        else if (type == char.class) {
-            return Character.class;
+        final String lastElementID = records.isEmpty() ? null : records.get(records.size() - 1).getId();
+        return new ObjectisQueryResult<>(records, lastElementID);
+    }
+
+    /**
+     * Describes how the query will be executed when fetched, without executing it.
+     * Estimating the size of index sets may require a round trip to Redis.
+     * @return Returns a multi-line description of the query plan.
+     */
+    public String explain() {
+        if (temporaryItems == null) {
+            return QueryPlan.create(aClass, metadata, operations).toString();
         }
-        else if (type == boolean.class) {
-            return Boolean.class;
+        final StringBuilder builder = new StringBuilder("Query plan for ").append(aClass.getName()).append(':');
+        int step = 1;
+        builder.append("\n  ").append(step++).append(". Use ").append(temporaryItems.size()).append(" loaded items");
+        for (QueryOperation<T> operation : QueryPlan.fuseOperations(aClass, operations)) {
+            builder.append("\n  ").append(step++).append(". Apply to loaded items: ").append(operation);
         }
-        else {
-            return type;
+        return builder.toString();
+    }
+
+    /**
+     * Retrieves the metadata of a class, built when the class was registered.
+     * @param aClass The class.
+     * @return Returns the class metadata.
+     */
+    private static ClassMetadata getMetadata(Class<?> aClass) {
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(aClass);
+        return metadata != null ? metadata : new ClassMetadata(aClass);
+    }
+
+    /**
+     * Searches the class fields for a particular field by name.
+     * @param fieldName The field name.
+     * @return Returns the field accessor.
+     * @throws InvalidFieldException thrown when the field does not exist.
+     */
+    private FieldAccessor getField(String fieldName) throws InvalidFieldException {
+        final FieldAccessor field = metadata.getFieldAccessor(fieldName);
+        if (field == null) {
+            throw new InvalidFieldException("The field '" + fieldName + "' does not exist in class '" + aClass.getSimpleName() + "'.");
         }
+        return field;
     }
 
 }
@@ -0,0 +1,49 @@
+package com.raylabz.objectis.query;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The values of some of the fields of an object, as returned by a projection query.
+ */
+public class ObjectisRecord {
+
+    private final String id;
+    private final Map<String, Object> values;
+
+    public ObjectisRecord(String id, LinkedHashMap<String, Object> values) {
+        this.id = id;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the value of a selected field.
+     * @param fieldName The name of the field.
+     * @return Returns the value, or null if the value is null or the field was not selected.
+     */
+    public Object get(String fieldName) {
+        return values.get(fieldName);
+    }
+
+    /**
+     * Retrieves the values of all selected fields.
+     * @return Returns an unmodifiable map of field names to values, in the order the fields were selected.
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectisRecord{" +
+                "id='" + id + '\'' +
+                ", values=" + values +
+                '}';
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.FieldAccessor;
+import com.raylabz.objectis.RangeIndex;
+import com.raylabz.objectis.exception.InvalidFieldException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the items whose field matches a comparison.
+ * @param <T> The type of items.
+ */
+final class QueryFilter<T> extends QueryOperation<T> {
+
+    private final FieldAccessor field;
+    private final FilterOperator operator;
+    private final Object value;
+    private final Object[] values;
+
+    QueryFilter(FieldAccessor field, FilterOperator operator, Object value) {
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+        this.values = null;
+    }
+
+    QueryFilter(FieldAccessor field, Object[] values) {
+        this.field = field;
+        this.operator = FilterOperator.ARRAY_CONTAINS_ANY;
+        this.value = null;
+        this.values = values;
+    }
+
+    FieldAccessor getField() {
+        return field;
+    }
+
+    FilterOperator getOperator() {
+        return operator;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    Object[] getValues() {
+        return values;
+    }
+
+    /**
+     * Checks if an item matches the filter.
+     * Values are compared using their natural ordering. Numbers, characters and Dates of different types are compared by their exact values,
+     * as they are by range indexes.
+     * @param item The item.
+     * @return Returns true if the item matches, false otherwise.
+     * @throws InvalidFieldException thrown when the field's value cannot be compared with the value of the filter.
+     */
+    @SuppressWarnings("unchecked")
+    boolean test(T item) throws InvalidFieldException {
+        final Object objectValue = field.get(item);
+        try {
+            switch (operator) {
+                case EQUAL_TO:
+                    return objectValue != null && objectValue.equals(value);
+                case NOT_EQUAL_TO:
+                    return objectValue == null || !objectValue.equals(value);
+                case GREATER_THAN:
+                    return objectValue != null && compare(objectValue) > 0;
+                case GREATER_THAN_OR_EQUAL_TO:
+                    return objectValue != null && compare(objectValue) >= 0;
+                case LESS_THAN:
+                    return objectValue != null && compare(objectValue) < 0;
+                case LESS_THAN_OR_EQUAL_TO:
+                    return objectValue != null && compare(objectValue) <= 0;
+                case ARRAY_CONTAINS:
+                    return objectValue != null && ((Collection<?>) objectValue).contains(value);
+                case ARRAY_CONTAINS_ANY:
+                    if (objectValue != null) {
+                        final Collection<?> collectionObject = (Collection<?>) objectValue;
+                        for (Object givenValue : values) {
+                            if (collectionObject.contains(givenValue)) {
+                                return true;
+                            }
+                        }
+                    }
+                    return false;
+                default:
+                    throw new IllegalStateException("Unknown operator " + operator + ".");
+            }
+        } catch (ClassCastException e) {
+            throw new InvalidFieldException(e);
+        }
+    }
+
+    /**
+     * Compares a field's value with the value of the filter.
+     * @param objectValue The field's value. Must not be null.
+     * @return Returns a negative integer, zero, or a positive integer if the field's value is less than, equal to, or greater than the filter's value.
+     * @throws ClassCastException thrown when the values cannot be compared.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(Object objectValue) throws ClassCastException {
+        if (value.getClass().isInstance(objectValue) || !RangeIndex.isScorable(objectValue) || !RangeIndex.isScorable(value)) {
+            return ((Comparable<Object>) value.getClass().cast(objectValue)).compareTo(value);
+        }
+        return RangeIndex.compare(objectValue, value);
+    }
+
+    @Override
+    List<T> apply(List<T> items) {
+        final ArrayList<T> matchingItems = new ArrayList<>();
+        for (T item : items) {
+            if (test(item)) {
+                matchingItems.add(item);
+            }
+        }
+        return matchingItems;
+    }
+
+    @Override
+    void collectFieldNames(Set<String> fieldNames) {
+        fieldNames.add(field.getName());
+    }
+
+    @Override
+    public String toString() {
+        return field.getName() + " " + operator + " " + (values != null ? Arrays.toString(values) : String.valueOf(value));
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.raylabz.objectis.query;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An operation recorded by a filterable, applied when the query is fetched.
+ * @param <T> The type of items.
+ */
+abstract class QueryOperation<T> {
+
+    /**
+     * Applies the operation to a list of items that have already been loaded.
+     * @param items The items.
+     * @return Returns the resulting items. The list provided may be returned, or modified in place.
+     */
+    abstract List<T> apply(List<T> items);
+
+    /**
+     * Collects the names of the fields the operation reads, which must be deserialized for the operation to be applied.
+     * @param fieldNames The set to add the names to.
+     */
+    abstract void collectFieldNames(Set<String> fieldNames);
+
+}
@@ -0,0 +1,216 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.FieldAccessor;
+import com.raylabz.objectis.exception.InvalidFieldException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Orders items by the values of one or more fields. Items are compared by the first field, then by the next field for items
+ * with equal values, and so on. Items with equal values for all fields keep their relative order.
+ * <p>
+ * The values of the fields are extracted once per item before sorting. When only the first items of the result are needed,
+ * such as when ordering is followed by a limit, a bounded heap holding only those items is used instead of sorting all items.
+ * Null values come before any other value in ascending order, and after any other value in descending order.
+ * @param <T> The type of items.
+ */
+final class QueryOrder<T> extends QueryOperation<T> {
+
+    private final ArrayList<FieldAccessor> fields = new ArrayList<>();
+    private final ArrayList<OrderDirection> directions = new ArrayList<>();
+
+    QueryOrder(FieldAccessor field, OrderDirection direction) {
+        thenBy(field, direction);
+    }
+
+    private QueryOrder() {
+    }
+
+    /**
+     * Adds a field to order items by, when they have equal values for the fields added so far.
+     * @param field The field.
+     * @param direction The direction of ordering.
+     */
+    void thenBy(FieldAccessor field, OrderDirection direction) {
+        fields.add(field);
+        directions.add(direction);
+    }
+
+    /**
+     * Combines orderings that are applied one after the other into a single ordering. As each ordering keeps the relative
+     * order of items it considers equal, the last ordering decides first, and earlier orderings only break its ties.
+     * @param orders The orderings, in the order they are applied.
+     * @param <T> The type of items.
+     * @return Returns a QueryOrder.
+     */
+    static <T> QueryOrder<T> combine(List<QueryOrder<T>> orders) {
+        if (orders.size() == 1) {
+            return orders.get(0);
+        }
+        final QueryOrder<T> combined = new QueryOrder<>();
+        for (int i = orders.size() - 1; i >= 0; i--) {
+            combined.fields.addAll(orders.get(i).fields);
+            combined.directions.addAll(orders.get(i).directions);
+        }
+        return combined;
+    }
+
+    /**
+     * Retrieves the field that decides the order first.
+     * @return Returns a FieldAccessor.
+     */
+    FieldAccessor getField() {
+        return fields.get(0);
+    }
+
+    /**
+     * Retrieves the direction of the field that decides the order first.
+     * @return Returns an OrderDirection.
+     */
+    OrderDirection getDirection() {
+        return directions.get(0);
+    }
+
+    int getNumOfFields() {
+        return fields.size();
+    }
+
+    @Override
+    List<T> apply(List<T> items) {
+        return apply(items, -1);
+    }
+
+    /**
+     * Orders items, keeping only the first ones.
+     * @param items The items.
+     * @param maxItems The number of items to keep, or -1 to keep all items.
+     * @return Returns a new list with the first items, in order.
+     * @throws InvalidFieldException thrown when the values of a field cannot be compared.
+     */
+    List<T> apply(List<T> items, int maxItems) throws InvalidFieldException {
+        final int numOfItems = items.size();
+        final Comparator<SortEntry<T>> comparator = getEntryComparator();
+        final ArrayList<SortEntry<T>> entries;
+        if (maxItems >= 0 && maxItems < numOfItems) {
+            //Keep the best items seen so far in a heap whose head is the worst of them:
+            final PriorityQueue<SortEntry<T>> heap = new PriorityQueue<>(Math.max(1, maxItems), comparator.reversed());
+            for (int i = 0; i < numOfItems && maxItems > 0; i++) {
+                final SortEntry<T> entry = new SortEntry<>(items.get(i), extractKeys(items.get(i)), i);
+                if (heap.size() < maxItems) {
+                    heap.add(entry);
+                }
+                else if (comparator.compare(entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+            entries = new ArrayList<>(heap);
+        }
+        else {
+            entries = new ArrayList<>(numOfItems);
+            for (int i = 0; i < numOfItems; i++) {
+                entries.add(new SortEntry<>(items.get(i), extractKeys(items.get(i)), i));
+            }
+        }
+        entries.sort(comparator);
+        final ArrayList<T> sortedItems = new ArrayList<>(entries.size());
+        for (SortEntry<T> entry : entries) {
+            sortedItems.add(entry.item);
+        }
+        return sortedItems;
+    }
+
+    /**
+     * Extracts the values of the fields of an item.
+     * @param item The item.
+     * @return Returns the values, which are null or Comparable.
+     * @throws InvalidFieldException thrown when the value of a field is not Comparable.
+     */
+    private Object[] extractKeys(T item) throws InvalidFieldException {
+        final Object[] keys = new Object[fields.size()];
+        for (int i = 0; i < keys.length; i++) {
+            final Object value = fields.get(i).get(item);
+            if (value != null && !(value instanceof Comparable)) {
+                throw new InvalidFieldException("The values of field '" + fields.get(i).getName() + "' are not Comparable.");
+            }
+            keys[i] = value;
+        }
+        return keys;
+    }
+
+    /**
+     * Builds a comparator of entries that compares their values field by field, and then their positions.
+     * @return Returns a Comparator.
+     */
+    private Comparator<SortEntry<T>> getEntryComparator() {
+        final Comparator<Comparable<Object>> ascending = Comparator.nullsFirst(QueryOrder::compareValues);
+        Comparator<SortEntry<T>> comparator = null;
+        for (int i = 0; i < fields.size(); i++) {
+            final int keyIndex = i;
+            final Comparator<SortEntry<T>> fieldComparator = Comparator.comparing(entry -> entry.getKey(keyIndex),
+                    directions.get(i) == OrderDirection.DESCENDING ? ascending.reversed() : ascending);
+            comparator = comparator == null ? fieldComparator : comparator.thenComparing(fieldComparator);
+        }
+        return comparator.thenComparingInt(entry -> entry.position);
+    }
+
+    private static int compareValues(Comparable<Object> value1, Comparable<Object> value2) throws InvalidFieldException {
+        try {
+            return value1.compareTo(value2);
+        } catch (ClassCastException e) {
+            throw new InvalidFieldException(e);
+        }
+    }
+
+    @Override
+    void collectFieldNames(Set<String> fieldNames) {
+        for (FieldAccessor field : fields) {
+            fieldNames.add(field.getName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("order by ");
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                builder.append(", then by ");
+            }
+            builder.append(fields.get(i).getName()).append(' ').append(directions.get(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * An item with the values of the fields it is ordered by, and its position in the list being ordered.
+     */
+    private static final class SortEntry<T> {
+
+        private final T item;
+        private final Object[] keys;
+        private final int position;
+
+        private SortEntry(T item, Object[] keys, int position) {
+            this.item = item;
+            this.keys = keys;
+            this.position = position;
+        }
+
+        /**
+         * Retrieves the value of a field. Values were checked to be Comparable when extracted, and values of the same field
+         * that cannot be compared with each other make the comparison fail with an InvalidFieldException.
+         * @param index The index of the field.
+         * @return Returns the value, or null.
+         */
+        @SuppressWarnings("unchecked")
+        private Comparable<Object> getKey(int index) {
+            return (Comparable<Object>) keys[index];
+        }
+
+    }
+
+}
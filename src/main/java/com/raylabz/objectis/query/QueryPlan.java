@@ -0,0 +1,775 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.ClassMetadata;
+import com.raylabz.objectis.EqualityIndex;
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.RangeIndex;
+import com.raylabz.objectis.Serializer;
+import com.raylabz.objectis.concurrency.ArrayRange;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plans and executes the operations recorded by a filterable on the objects of a class stored in Redis.
+ * <p>
+ * Operations are split in two stages. The first stage holds the filters and orderings recorded before any limit or offset,
+ * followed by those limits and offsets. Its filters are resolved using indexes where possible:
+ * equality filters become a single SINTER, array-contains-any filters become SUNIONs and range filters become ZRANGEBYSCOREs.
+ * The sizes of these ID sets are estimated with SCARD and ZCOUNT in a single round trip, the smallest set drives the query,
+ * and the IDs of other sets that are not much larger are intersected with it before any object is fetched.
+ * When ordering by a range indexed field with no other filters than ranges on the same field, the limit and offset are pushed
+ * down to ZRANGEBYSCORE, so only the requested page is fetched. This requires the field to have exact scores, and either to be primitive
+ * or to be filtered, as objects with null values are not indexed but are kept by an ordering.
+ * Matching objects are then fetched with MGET, or with HGETALL or HMGET for classes stored as hashes, and all filters of the first stage
+ * are checked against their values, including those resolved by indexes, as scores may be rounded.
+ * <p>
+ * The second stage holds the remaining operations, which are applied in order to the loaded items.
+ * @param <T> The type of items.
+ */
+final class QueryPlan<T> {
+
+    /**
+     * The IDs of an index set are intersected with the driving set before fetching objects if the set is at most this many times
+     * larger than the driving set. Larger sets are cheaper to check against the fetched objects than to transfer.
+     */
+    private static final int MAX_INTERSECTION_RATIO = 8;
+
+    private static final byte[] NEGATIVE_INFINITY = "-inf".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POSITIVE_INFINITY = "+inf".getBytes(StandardCharsets.US_ASCII);
+
+    private final Class<T> aClass;
+    private final ClassMetadata metadata;
+
+    private final ArrayList<QueryFilter<T>> filters = new ArrayList<>();
+    private final ArrayList<QueryOrder<T>> orders = new ArrayList<>();
+    private QueryOrder<T> order = null;
+    private int windowStart = 0;
+    private int windowSize = -1;
+    private String startAfterID = null;
+    private Set<String> fieldNames = null;
+    private final ArrayList<QueryOperation<T>> remainingOperations = new ArrayList<>();
+
+    /**
+     * All filters of the first stage, checked in a single pass against the fetched objects.
+     */
+    private final FilterChain<T> residualFilter;
+
+    private final ArrayList<AccessPath> accessPaths = new ArrayList<>();
+
+    /**
+     * The range indexes whose bounds may match objects that do not match the filters, because values were rounded to scores.
+     */
+    private final HashSet<RangeIndex> inexactIndexes = new HashSet<>();
+    private AccessPath drivingPath = null;
+    private final ArrayList<AccessPath> intersectedPaths = new ArrayList<>();
+    private RangeIndex pagedIndex = null;
+    private boolean empty = false;
+
+    private QueryPlan(Class<T> aClass, ClassMetadata metadata) {
+        this.aClass = aClass;
+        this.metadata = metadata;
+        this.residualFilter = new FilterChain<>(aClass);
+    }
+
+    /**
+     * Plans the execution of a list of operations. Estimating the size of index sets may require a round trip to Redis.
+     * @param aClass The class of the objects.
+     * @param metadata The metadata of the class.
+     * @param operations The operations, in the order they were recorded.
+     * @param <T> The type of objects.
+     * @return Returns a QueryPlan.
+     */
+    static <T> QueryPlan<T> create(Class<T> aClass, ClassMetadata metadata, List<QueryOperation<T>> operations) {
+        return create(aClass, metadata, operations, null);
+    }
+
+    /**
+     * Plans the execution of a list of operations, deserializing only some fields of the objects.
+     * @param aClass The class of the objects.
+     * @param metadata The metadata of the class.
+     * @param operations The operations, in the order they were recorded.
+     * @param fieldNames The names of the fields to deserialize, which must include the fields used by the operations,
+     *                   or null to deserialize all fields.
+     * @param <T> The type of objects.
+     * @return Returns a QueryPlan.
+     */
+    static <T> QueryPlan<T> create(Class<T> aClass, ClassMetadata metadata, List<QueryOperation<T>> operations, Set<String> fieldNames) {
+        final QueryPlan<T> plan = new QueryPlan<>(aClass, metadata);
+        plan.fieldNames = fieldNames;
+        plan.splitStages(operations);
+        plan.order = plan.orders.isEmpty() ? null : QueryOrder.combine(plan.orders);
+        plan.findAccessPaths();
+        plan.chooseAccessPaths();
+        return plan;
+    }
+
+    /**
+     * Applies a list of operations, in order, to items that have already been loaded.
+     * Consecutive filters are checked together in a single pass over the items, consecutive orderings are combined into one,
+     * and an ordering followed by a limit only keeps the items within the limit while ordering.
+     * @param aClass The class of the items.
+     * @param items The items.
+     * @param operations The operations.
+     * @param <T> The type of items.
+     * @return Returns the resulting items.
+     */
+    static <T> List<T> applyAll(Class<T> aClass, List<T> items, List<QueryOperation<T>> operations) {
+        return applyFused(new ArrayList<>(items), fuseOperations(aClass, operations));
+    }
+
+    private static <T> List<T> applyFused(List<T> items, List<QueryOperation<T>> fusedOperations) {
+        for (int i = 0; i < fusedOperations.size(); i++) {
+            final QueryOperation<T> operation = fusedOperations.get(i);
+            if (operation instanceof QueryOrder) {
+                items = ((QueryOrder<T>) operation).apply(items, getWindowEnd(fusedOperations, i + 1));
+            }
+            else {
+                items = operation.apply(items);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Replaces each run of consecutive filters in a list of operations with a single filter chain,
+     * and each run of consecutive orderings with a single ordering.
+     * @param aClass The class of the items.
+     * @param operations The operations.
+     * @param <T> The type of items.
+     * @return Returns the fused operations.
+     */
+    static <T> List<QueryOperation<T>> fuseOperations(Class<T> aClass, List<QueryOperation<T>> operations) {
+        final ArrayList<QueryOperation<T>> fusedOperations = new ArrayList<>();
+        FilterChain<T> chain = null;
+        final ArrayList<QueryOrder<T>> orders = new ArrayList<>();
+        for (QueryOperation<T> operation : operations) {
+            if (!(operation instanceof QueryOrder) && !orders.isEmpty()) {
+                fusedOperations.add(QueryOrder.combine(orders));
+                orders.clear();
+            }
+            if (operation instanceof QueryFilter) {
+                if (chain == null) {
+                    chain = new FilterChain<>(aClass);
+                    fusedOperations.add(chain);
+                }
+                chain.add((QueryFilter<T>) operation);
+            }
+            else if (operation instanceof QueryOrder) {
+                chain = null;
+                orders.add((QueryOrder<T>) operation);
+            }
+            else {
+                chain = null;
+                fusedOperations.add(operation);
+            }
+        }
+        if (!orders.isEmpty()) {
+            fusedOperations.add(QueryOrder.combine(orders));
+        }
+        return fusedOperations;
+    }
+
+    /**
+     * Finds how many leading items can be kept by the limits and offsets at a position in a list of operations.
+     * Limits after a start after are not considered, as the position of the item to start after is not known in advance.
+     * @param operations The operations.
+     * @param from The position of the first operation to consider.
+     * @param <T> The type of items.
+     * @return Returns the number of leading items, or -1 if the number of items is not limited.
+     */
+    private static <T> int getWindowEnd(List<QueryOperation<T>> operations, int from) {
+        int start = 0;
+        int size = -1;
+        for (int i = from; i < operations.size() && operations.get(i) instanceof QueryWindow; i++) {
+            final QueryWindow<T> window = (QueryWindow<T>) operations.get(i);
+            if (window.getStartAfterID() != null) {
+                break;
+            }
+            else if (window.getLimit() > 0) {
+                size = size < 0 ? window.getLimit() : Math.min(size, window.getLimit());
+            }
+            else if (window.getOffset() > 0) {
+                start += window.getOffset();
+                size = size < 0 ? -1 : Math.max(0, size - window.getOffset());
+            }
+        }
+        return size < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, (long) start + size);
+    }
+
+    private void splitStages(List<QueryOperation<T>> operations) {
+        boolean windowed = false;
+        for (QueryOperation<T> operation : operations) {
+            if (!remainingOperations.isEmpty()) {
+                remainingOperations.add(operation);
+            }
+            else if (operation instanceof QueryWindow) {
+                final QueryWindow<T> window = (QueryWindow<T>) operation;
+                if (window.getStartAfterID() != null) {
+                    if (windowed) {
+                        remainingOperations.add(operation);
+                        continue;
+                    }
+                    startAfterID = window.getStartAfterID();
+                }
+                else if (window.getLimit() > 0) {
+                    windowSize = windowSize < 0 ? window.getLimit() : Math.min(windowSize, window.getLimit());
+                }
+                else if (window.getOffset() > 0) {
+                    windowStart += window.getOffset();
+                    windowSize = windowSize < 0 ? -1 : Math.max(0, windowSize - window.getOffset());
+                }
+                windowed = true;
+            }
+            else if (windowed) {
+                remainingOperations.add(operation);
+            }
+            else if (operation instanceof QueryFilter) {
+                filters.add((QueryFilter<T>) operation);
+            }
+            else {
+                orders.add((QueryOrder<T>) operation);
+            }
+        }
+    }
+
+    private void findAccessPaths() {
+        final ArrayList<byte[]> equalityKeys = new ArrayList<>();
+        final LinkedHashMap<RangeIndex, RangeBounds> ranges = new LinkedHashMap<>();
+        for (QueryFilter<T> filter : filters) {
+            final String fieldName = filter.getField().getName();
+            final EqualityIndex equalityIndex = metadata.getEqualityIndex(fieldName);
+            final RangeIndex rangeIndex = metadata.getRangeIndex(fieldName);
+            switch (filter.getOperator()) {
+                case EQUAL_TO:
+                    if (equalityIndex != null && !equalityIndex.isCollection() && filter.getValue() != null) {
+                        equalityKeys.add(equalityIndex.getKey(filter.getValue()));
+                    }
+                    else if (rangeIndex != null && RangeIndex.isScorable(filter.getValue())) {
+                        final double score = RangeIndex.toScore(filter.getValue());
+                        final RangeBounds bounds = ranges.computeIfAbsent(rangeIndex, i -> new RangeBounds());
+                        if (!rangeIndex.hasExactScores() || !RangeIndex.isExactScore(filter.getValue())) {
+                            inexactIndexes.add(rangeIndex);
+                        }
+                        bounds.restrictMin(score, false);
+                        bounds.restrictMax(score, false);
+                    }
+                    break;
+                case ARRAY_CONTAINS:
+                    if (equalityIndex != null && equalityIndex.isCollection() && filter.getValue() != null) {
+                        equalityKeys.add(equalityIndex.getKey(filter.getValue()));
+                    }
+                    break;
+                case ARRAY_CONTAINS_ANY:
+                    if (equalityIndex != null && equalityIndex.isCollection() && filter.getValues().length > 0) {
+                        final byte[][] keys = new byte[filter.getValues().length][];
+                        for (int i = 0; i < keys.length; i++) {
+                            keys[i] = filter.getValues()[i] == null ? null : equalityIndex.getKey(filter.getValues()[i]);
+                        }
+                        if (!containsNull(keys)) {
+                            accessPaths.add(AccessPath.union(keys));
+                        }
+                    }
+                    break;
+                case GREATER_THAN:
+                case GREATER_THAN_OR_EQUAL_TO:
+                case LESS_THAN:
+                case LESS_THAN_OR_EQUAL_TO:
+                    if (rangeIndex != null && RangeIndex.isScorable(filter.getValue())) {
+                        final double score = RangeIndex.toScore(filter.getValue());
+                        final RangeBounds bounds = ranges.computeIfAbsent(rangeIndex, i -> new RangeBounds());
+                        //Values that share a rounded score with the bound may still match, so the bound is only exclusive if no value was rounded:
+                        final boolean exact = rangeIndex.hasExactScores() && RangeIndex.isExactScore(filter.getValue());
+                        if (!exact) {
+                            inexactIndexes.add(rangeIndex);
+                        }
+                        switch (filter.getOperator()) {
+                            case GREATER_THAN:
+                                bounds.restrictMin(score, exact);
+                                break;
+                            case GREATER_THAN_OR_EQUAL_TO:
+                                bounds.restrictMin(score, false);
+                                break;
+                            case LESS_THAN:
+                                bounds.restrictMax(score, exact);
+                                break;
+                            default:
+                                bounds.restrictMax(score, false);
+                                break;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            residualFilter.add(filter);
+        }
+        if (!equalityKeys.isEmpty()) {
+            accessPaths.add(0, AccessPath.intersection(equalityKeys.toArray(new byte[0][])));
+        }
+        for (Map.Entry<RangeIndex, RangeBounds> entry : ranges.entrySet()) {
+            accessPaths.add(AccessPath.range(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void chooseAccessPaths() {
+        //Page directly through a sorted set when every filter is a range on the field the items are ordered by,
+        //the set holds every object that the filters keep, including those with null values, and its order and bounds are exact:
+        if (order != null && order.getNumOfFields() == 1) {
+            final RangeIndex orderIndex = metadata.getRangeIndex(order.getField().getName());
+            final int numOfRangeFilters = orderIndex == null ? 0 : countRangeFilters(orderIndex);
+            if (orderIndex != null && filters.size() == numOfRangeFilters
+                    && (accessPaths.isEmpty() || (accessPaths.size() == 1 && accessPaths.get(0).rangeIndex == orderIndex))
+                    && (orderIndex.isNeverNull() || numOfRangeFilters > 0)
+                    && orderIndex.hasExactScores() && !inexactIndexes.contains(orderIndex)) {
+                pagedIndex = orderIndex;
+                return;
+            }
+        }
+        if (accessPaths.isEmpty()) {
+            return;
+        }
+        if (accessPaths.size() > 1) {
+            estimate();
+        }
+        drivingPath = accessPaths.get(0);
+        for (AccessPath path : accessPaths) {
+            if (path.estimate == 0) {
+                empty = true;
+            }
+            if (path.estimate < drivingPath.estimate) {
+                drivingPath = path;
+            }
+        }
+        for (AccessPath path : accessPaths) {
+            if (path != drivingPath && path.estimate <= drivingPath.estimate * MAX_INTERSECTION_RATIO) {
+                intersectedPaths.add(path);
+            }
+        }
+    }
+
+    private int countRangeFilters(RangeIndex index) {
+        int count = 0;
+        for (QueryFilter<T> filter : filters) {
+            if (filter.getField().getName().equals(index.getFieldName()) && filter.getOperator() != FilterOperator.NOT_EQUAL_TO
+                    && filter.getOperator() != FilterOperator.ARRAY_CONTAINS && filter.getOperator() != FilterOperator.ARRAY_CONTAINS_ANY
+                    && RangeIndex.isScorable(filter.getValue())
+                    && (filter.getOperator() != FilterOperator.EQUAL_TO || metadata.getEqualityIndex(index.getFieldName()) == null)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the number of IDs of every access path with a single pipelined round trip.
+     */
+    private void estimate() {
+        final Jedis jedis = Objectis.getJedis();
+        try {
+            final Pipeline pipeline = jedis.pipelined();
+            final ArrayList<List<Response<Long>>> responses = new ArrayList<>();
+            for (AccessPath path : accessPaths) {
+                final ArrayList<Response<Long>> pathResponses = new ArrayList<>();
+                if (path.rangeIndex != null) {
+                    pathResponses.add(pipeline.zcount(path.rangeIndex.getKey(), path.bounds.getMinArgument(), path.bounds.getMaxArgument()));
+                }
+                else {
+                    for (byte[] key : path.keys) {
+                        pathResponses.add(pipeline.scard(key));
+                    }
+                }
+                responses.add(pathResponses);
+            }
+            pipeline.sync();
+            for (int i = 0; i < accessPaths.size(); i++) {
+                final AccessPath path = accessPaths.get(i);
+                long estimate = path.union ? 0 : Long.MAX_VALUE;
+                for (Response<Long> response : responses.get(i)) {
+                    estimate = path.union ? estimate + response.get() : Math.min(estimate, response.get());
+                }
+                path.estimate = estimate;
+            }
+        } finally {
+            Objectis.releaseJedis(jedis);
+        }
+    }
+
+    /**
+     * Executes the plan.
+     * @return Returns the resulting items.
+     */
+    List<T> execute() {
+        List<T> items;
+        if (empty) {
+            items = new ArrayList<>();
+        }
+        else if (pagedIndex != null) {
+            items = fetchMatching(getPageIDs());
+        }
+        else {
+            if (drivingPath == null) {
+                items = fetchMatching(getAllIDs());
+            }
+            else {
+                items = fetchMatching(getIntersectedIDs());
+            }
+            if (order != null) {
+                items = order.apply(items, getWindowEnd());
+            }
+            if (startAfterID != null) {
+                items = QueryWindow.<T>startAfter(startAfterID, metadata).apply(items);
+            }
+            if (windowStart > 0 || windowSize >= 0) {
+                final int from = Math.min(windowStart, items.size());
+                final int to = windowSize < 0 ? items.size() : Math.min(from + windowSize, items.size());
+                items = new ArrayList<>(items.subList(from, to));
+            }
+        }
+        return applyFused(items, fuseOperations(aClass, remainingOperations));
+    }
+
+    /**
+     * Executes the plan a page at a time, so that the matching items can be consumed before all objects are fetched.
+     * The IDs of the matching objects are read as when executing the plan, or scanned from the class list a page at a time if no index
+     * is used, and the objects are fetched, deserialized and filtered a page at a time as the pages are iterated.
+     * Plans that order items without paging through an index, start after an item without paging through an index, or have a second
+     * stage need all matching objects at once, so they are executed in full and only their result is split into pages.
+     * @param pageSize The maximum number of objects fetched per page.
+     * @return Returns an iterator of pages of matching items. Pages may be empty.
+     */
+    Iterator<List<T>> executeInPages(int pageSize) {
+        if (empty) {
+            return Collections.emptyIterator();
+        }
+        if (!remainingOperations.isEmpty() || (pagedIndex == null && (order != null || startAfterID != null))) {
+            return split(execute(), pageSize);
+        }
+        final Iterator<List<byte[]>> idPages;
+        if (pagedIndex != null) {
+            idPages = split(getPageIDs(), pageSize);
+        }
+        else if (drivingPath != null) {
+            idPages = split(getIntersectedIDs(), pageSize);
+        }
+        else {
+            idPages = Objectis.scanIDs(aClass, pageSize);
+        }
+        //The limit and offset are already applied to the IDs read from a paged index:
+        final long offset = pagedIndex == null ? windowStart : 0;
+        final long limit = pagedIndex == null ? windowSize : -1;
+        return new Iterator<List<T>>() {
+
+            private long numSkipped = 0;
+            private long numReturned = 0;
+
+            @Override
+            public boolean hasNext() {
+                return (limit < 0 || numReturned < limit) && idPages.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                List<T> items = fetchMatching(idPages.next());
+                if (numSkipped < offset) {
+                    final int numToSkip = (int) Math.min(offset - numSkipped, items.size());
+                    numSkipped += numToSkip;
+                    items = items.subList(numToSkip, items.size());
+                }
+                if (limit >= 0 && numReturned + items.size() > limit) {
+                    items = items.subList(0, (int) (limit - numReturned));
+                }
+                numReturned += items.size();
+                return items;
+            }
+
+        };
+    }
+
+    private static <E> Iterator<List<E>> split(List<E> items, int pageSize) {
+        return ArrayRange.chunks(items.size(), pageSize).stream()
+                .map(range -> items.subList(range.getStartingItemIndex(), range.getEndingItemIndex()))
+                .iterator();
+    }
+
+    /**
+     * Finds how many leading items of the first stage are kept by its limits and offsets, unless it starts after an item.
+     * @return Returns the number of leading items, or -1 if the number of items is not limited.
+     */
+    private int getWindowEnd() {
+        if (startAfterID != null) {
+            return -1;
+        }
+        return windowSize < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, (long) windowStart + windowSize);
+    }
+
+    private List<byte[]> getPageIDs() {
+        final RangeBounds bounds = accessPaths.isEmpty() ? new RangeBounds() : accessPaths.get(0).bounds;
+        final Jedis jedis = Objectis.getJedis();
+        try {
+            if (startAfterID != null) {
+                return getPageIDsAfter(jedis, bounds);
+            }
+            if (order.getDirection() == OrderDirection.ASCENDING) {
+                return new ArrayList<>(jedis.zrangeByScore(pagedIndex.getKey(), bounds.getMinArgument(), bounds.getMaxArgument(), windowStart, windowSize));
+            }
+            return new ArrayList<>(jedis.zrevrangeByScore(pagedIndex.getKey(), bounds.getMaxArgument(), bounds.getMinArgument(), windowStart, windowSize));
+        } finally {
+            Objectis.releaseJedis(jedis);
+        }
+    }
+
+    /**
+     * Retrieves the IDs of a page that starts after an object, using the rank of the object in the sorted set, so that the cost of
+     * retrieving a page does not depend on how many pages come before it. The ranks of the first and last IDs within the bounds
+     * and the rank of the object are retrieved in a single round trip.
+     * @param jedis The connection.
+     * @param bounds The bounds of the range filters.
+     * @return Returns the IDs, in order. Empty if the object is not in the sorted set.
+     */
+    private List<byte[]> getPageIDsAfter(Jedis jedis, RangeBounds bounds) {
+        final byte[] key = pagedIndex.getKey();
+        final byte[] id = Serializer.serializeKey(startAfterID);
+        final boolean ascending = order.getDirection() == OrderDirection.ASCENDING;
+        final Pipeline pipeline = jedis.pipelined();
+        final Response<Long> rank = ascending ? pipeline.zrank(key, id) : pipeline.zrevrank(key, id);
+        final Response<Long> numBefore = ascending
+                ? pipeline.zcount(key, NEGATIVE_INFINITY, bounds.getBelowMinArgument())
+                : pipeline.zcount(key, bounds.getAboveMaxArgument(), POSITIVE_INFINITY);
+        final Response<Long> numUpToEnd = ascending
+                ? pipeline.zcount(key, NEGATIVE_INFINITY, bounds.getMaxArgument())
+                : pipeline.zcount(key, bounds.getMinArgument(), POSITIVE_INFINITY);
+        pipeline.sync();
+        if (rank.get() == null) {
+            return new ArrayList<>();
+        }
+        final long start = Math.max(rank.get() + 1, numBefore.get()) + windowStart;
+        final long end = windowSize < 0 ? numUpToEnd.get() - 1 : Math.min(numUpToEnd.get() - 1, start + windowSize - 1);
+        if (start > end) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(ascending ? jedis.zrange(key, start, end) : jedis.zrevrange(key, start, end));
+    }
+
+    private List<byte[]> getAllIDs() {
+        final Jedis jedis = Objectis.getJedis();
+        try {
+            return new ArrayList<>(jedis.smembers(metadata.getClassListPath()));
+        } finally {
+            Objectis.releaseJedis(jedis);
+        }
+    }
+
+    private List<byte[]> getIntersectedIDs() {
+        final Jedis jedis = Objectis.getJedis();
+        try {
+            Collection<byte[]> ids = drivingPath.getIDs(jedis);
+            for (AccessPath path : intersectedPaths) {
+                if (ids.isEmpty()) {
+                    break;
+                }
+                final HashSet<ByteBuffer> otherIDs = new HashSet<>();
+                for (byte[] id : path.getIDs(jedis)) {
+                    otherIDs.add(ByteBuffer.wrap(id));
+                }
+                final ArrayList<byte[]> intersection = new ArrayList<>();
+                for (byte[] id : ids) {
+                    if (otherIDs.contains(ByteBuffer.wrap(id))) {
+                        intersection.add(id);
+                    }
+                }
+                ids = intersection;
+            }
+            return new ArrayList<>(ids);
+        } finally {
+            Objectis.releaseJedis(jedis);
+        }
+    }
+
+    private List<T> fetchMatching(List<byte[]> ids) {
+        return residualFilter.apply(Objectis.getManyWithBytes(aClass, ids, fieldNames));
+    }
+
+    private static boolean containsNull(Object[] array) {
+        for (Object element : array) {
+            if (element == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Describes how the plan will be executed.
+     * @return Returns a multi-line description.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("Query plan for ").append(aClass.getName()).append(':');
+        int step = 1;
+        if (empty) {
+            builder.append("\n  ").append(step++).append(". Return no items: an index set is empty");
+        }
+        else if (pagedIndex != null) {
+            final RangeBounds bounds = accessPaths.isEmpty() ? new RangeBounds() : accessPaths.get(0).bounds;
+            if (startAfterID != null) {
+                builder.append("\n  ").append(step++).append(". ")
+                        .append(order.getDirection() == OrderDirection.ASCENDING ? "ZRANK " : "ZREVRANK ")
+                        .append(keyToString(pagedIndex.getKey())).append(' ').append(startAfterID)
+                        .append(" and ZCOUNT the bounds ").append(bounds);
+                builder.append("\n  ").append(step++).append(". ")
+                        .append(order.getDirection() == OrderDirection.ASCENDING ? "ZRANGE " : "ZREVRANGE ")
+                        .append(keyToString(pagedIndex.getKey())).append(" from the next rank");
+                if (windowStart > 0) {
+                    builder.append(" + ").append(windowStart);
+                }
+                if (windowSize >= 0) {
+                    builder.append(", at most ").append(windowSize).append(" IDs");
+                }
+            }
+            else {
+                builder.append("\n  ").append(step++).append(". ")
+                        .append(order.getDirection() == OrderDirection.ASCENDING ? "ZRANGEBYSCORE " : "ZREVRANGEBYSCORE ")
+                        .append(keyToString(pagedIndex.getKey())).append(' ').append(bounds);
+                if (windowStart > 0 || windowSize >= 0) {
+                    builder.append(" LIMIT ").append(windowStart).append(' ').append(windowSize);
+                }
+            }
+            builder.append("\n  ").append(step++).append(". ").append(getFetchCommand()).append(" page").append(describeDeserialization());
+            if (!residualFilter.isEmpty()) {
+                builder.append(", check ").append(residualFilter);
+            }
+        }
+        else {
+            if (drivingPath == null) {
+                builder.append("\n  ").append(step++).append(". SMEMBERS ").append(keyToString(metadata.getClassListPath())).append(" and ").append(getFetchCommand()).append(" all objects").append(describeDeserialization());
+            }
+            else {
+                builder.append("\n  ").append(step++).append(". ").append(drivingPath).append(" (driving set)");
+                for (AccessPath path : intersectedPaths) {
+                    builder.append("\n  ").append(step++).append(". ").append(path).append(", intersected with the driving set");
+                }
+                builder.append("\n  ").append(step++).append(". ").append(getFetchCommand()).append(" candidates").append(describeDeserialization());
+            }
+            if (!residualFilter.isEmpty()) {
+                builder.append("\n  ").append(step++).append(". Check ").append(residualFilter);
+            }
+            if (order != null) {
+                builder.append("\n  ").append(step++).append(". Sort: ").append(order);
+                if (getWindowEnd() >= 0) {
+                    builder.append(", keeping the first ").append(getWindowEnd()).append(" items in a bounded heap");
+                }
+            }
+            if (startAfterID != null) {
+                builder.append("\n  ").append(step++).append(". Skip items up to and including ").append(startAfterID);
+            }
+            if (windowStart > 0 || windowSize >= 0) {
+                builder.append("\n  ").append(step++).append(". Keep items from ").append(windowStart)
+                        .append(windowSize < 0 ? " to the end" : ", at most " + windowSize);
+            }
+        }
+        final List<QueryOperation<T>> fusedOperations = fuseOperations(aClass, remainingOperations);
+        for (int i = 0; i < fusedOperations.size(); i++) {
+            final QueryOperation<T> operation = fusedOperations.get(i);
+            builder.append("\n  ").append(step++).append(". Apply to loaded items: ").append(operation);
+            if (operation instanceof QueryOrder && getWindowEnd(fusedOperations, i + 1) >= 0) {
+                builder.append(", keeping the first ").append(getWindowEnd(fusedOperations, i + 1)).append(" items in a bounded heap");
+            }
+        }
+        return builder.toString();
+    }
+
+    private String getFetchCommand() {
+        if (!metadata.isHashLayout()) {
+            return "MGET";
+        }
+        return fieldNames == null ? "HGETALL" : "HMGET";
+    }
+
+    private String describeDeserialization() {
+        if (fieldNames == null) {
+            return "";
+        }
+        if (metadata.isHashLayout()) {
+            return " (fields " + fieldNames + ")";
+        }
+        return metadata.canDeserializeFields() ? " (decoding only " + fieldNames + ")" : " (decoding whole objects, as the serializer cannot skip fields)";
+    }
+
+    private static String keyToString(byte[] key) {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A way of finding the IDs of objects that match some of the filters using an index.
+     */
+    private static final class AccessPath {
+
+        private final byte[][] keys;
+        private final boolean union;
+        private final RangeIndex rangeIndex;
+        private final RangeBounds bounds;
+        private long estimate = -1;
+
+        private AccessPath(byte[][] keys, boolean union, RangeIndex rangeIndex, RangeBounds bounds) {
+            this.keys = keys;
+            this.union = union;
+            this.rangeIndex = rangeIndex;
+            this.bounds = bounds;
+        }
+
+        static AccessPath intersection(byte[][] keys) {
+            return new AccessPath(keys, false, null, null);
+        }
+
+        static AccessPath union(byte[][] keys) {
+            return new AccessPath(keys, true, null, null);
+        }
+
+        static AccessPath range(RangeIndex rangeIndex, RangeBounds bounds) {
+            return new AccessPath(null, false, rangeIndex, bounds);
+        }
+
+        Collection<byte[]> getIDs(Jedis jedis) {
+            if (rangeIndex != null) {
+                return jedis.zrangeByScore(rangeIndex.getKey(), bounds.getMinArgument(), bounds.getMaxArgument());
+            }
+            if (union) {
+                return jedis.sunion(keys);
+            }
+            return keys.length == 1 ? jedis.smembers(keys[0]) : jedis.sinter(keys);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder();
+            if (rangeIndex != null) {
+                builder.append("ZRANGEBYSCORE ").append(keyToString(rangeIndex.getKey())).append(' ').append(bounds);
+            }
+            else {
+                builder.append(union ? "SUNION" : keys.length == 1 ? "SMEMBERS" : "SINTER");
+                for (byte[] key : keys) {
+                    builder.append(' ').append(keyToString(key));
+                }
+            }
+            if (estimate >= 0) {
+                builder.append(" (estimated ").append(estimate).append(" IDs)");
+            }
+            return builder.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.ClassMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Skips a number of items (offset), keeps a number of items (limit) or skips the items up to and including an item (start after).
+ * @param <T> The type of items.
+ */
+final class QueryWindow<T> extends QueryOperation<T> {
+
+    private final int offset;
+    private final int limit;
+    private final String startAfterID;
+    private final ClassMetadata metadata;
+
+    private QueryWindow(int offset, int limit, String startAfterID, ClassMetadata metadata) {
+        this.offset = offset;
+        this.limit = limit;
+        this.startAfterID = startAfterID;
+        this.metadata = metadata;
+    }
+
+    static <T> QueryWindow<T> offset(int offset) {
+        return new QueryWindow<>(offset, -1, null, null);
+    }
+
+    static <T> QueryWindow<T> limit(int limit) {
+        return new QueryWindow<>(0, limit, null, null);
+    }
+
+    static <T> QueryWindow<T> startAfter(String id, ClassMetadata metadata) {
+        return new QueryWindow<>(0, -1, id, metadata);
+    }
+
+    /**
+     * Retrieves the number of items skipped.
+     * @return Returns an int. 0 if this is not an offset, or if the offset is not positive.
+     */
+    int getOffset() {
+        return Math.max(offset, 0);
+    }
+
+    /**
+     * Retrieves the number of items kept.
+     * @return Returns an int. -1 if this is not a limit, or if the limit is not positive, as neither limits the number of items.
+     */
+    int getLimit() {
+        return limit > 0 ? limit : -1;
+    }
+
+    /**
+     * Retrieves the ID of the item after which items are kept.
+     * @return Returns a String, or null if this does not start after an item.
+     */
+    String getStartAfterID() {
+        return startAfterID;
+    }
+
+    @Override
+    List<T> apply(List<T> items) {
+        final int from = startAfterID != null ? findStart(items) : Math.min(getOffset(), items.size());
+        final int to = getLimit() < 0 ? items.size() : Math.min(from + getLimit(), items.size());
+        if (from == 0 && to == items.size()) {
+            return items;
+        }
+        return new ArrayList<>(items.subList(from, to));
+    }
+
+    /**
+     * Finds the position following the item to start after.
+     * @param items The items.
+     * @return Returns the position, or the number of items if no item has the ID to start after.
+     */
+    private int findStart(List<T> items) {
+        for (int i = 0; i < items.size(); i++) {
+            if (startAfterID.equals(metadata.getId(items.get(i)))) {
+                return i + 1;
+            }
+        }
+        return items.size();
+    }
+
+    @Override
+    void collectFieldNames(Set<String> fieldNames) {
+        if (startAfterID != null) {
+            fieldNames.add(metadata.getIdAccessor().getName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (startAfterID != null) {
+            return "start after " + startAfterID;
+        }
+        return getLimit() < 0 ? "offset " + getOffset() : "limit " + getLimit();
+    }
+
+}
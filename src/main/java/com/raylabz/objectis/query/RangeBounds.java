@@ -0,0 +1,78 @@
+package com.raylabz.objectis.query;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The bounds of the scores matched by the range filters applied on a range indexed field, encoded as ZRANGEBYSCORE arguments.
+ */
+final class RangeBounds {
+
+    private double min = Double.NEGATIVE_INFINITY;
+    private boolean minExclusive = false;
+    private double max = Double.POSITIVE_INFINITY;
+    private boolean maxExclusive = false;
+
+    /**
+     * Narrows the lower bound, if the given bound is stricter than the current one.
+     * @param value The lower bound.
+     * @param exclusive True if scores equal to the bound are excluded.
+     */
+    void restrictMin(double value, boolean exclusive) {
+        if (value > min || (value == min && exclusive)) {
+            min = value;
+            minExclusive = exclusive;
+        }
+    }
+
+    /**
+     * Narrows the upper bound, if the given bound is stricter than the current one.
+     * @param value The upper bound.
+     * @param exclusive True if scores equal to the bound are excluded.
+     */
+    void restrictMax(double value, boolean exclusive) {
+        if (value < max || (value == max && exclusive)) {
+            max = value;
+            maxExclusive = exclusive;
+        }
+    }
+
+    byte[] getMinArgument() {
+        return encode(min, minExclusive);
+    }
+
+    byte[] getMaxArgument() {
+        return encode(max, maxExclusive);
+    }
+
+    /**
+     * Retrieves the ZCOUNT upper bound of the scores below the range.
+     * @return Returns a byte[].
+     */
+    byte[] getBelowMinArgument() {
+        return encode(min, !minExclusive);
+    }
+
+    /**
+     * Retrieves the ZCOUNT lower bound of the scores above the range.
+     * @return Returns a byte[].
+     */
+    byte[] getAboveMaxArgument() {
+        return encode(max, !maxExclusive);
+    }
+
+    private static byte[] encode(double value, boolean exclusive) {
+        if (value == Double.NEGATIVE_INFINITY) {
+            return "-inf".getBytes(StandardCharsets.US_ASCII);
+        }
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+inf".getBytes(StandardCharsets.US_ASCII);
+        }
+        return ((exclusive ? "(" : "") + value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return (minExclusive ? "(" : "[") + min + ", " + max + (maxExclusive ? ")" : "]");
+    }
+
+}
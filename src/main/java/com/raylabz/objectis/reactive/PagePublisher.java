@@ -0,0 +1,204 @@
+package com.raylabz.objectis.reactive;
+
+import com.raylabz.objectis.exception.OperationFailedException;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes items that are read page by page, reading the next page only once the items of the previous page have been requested.
+ * At most one page of items is held in memory per subscriber, so the memory used does not depend on the total number of items.
+ * <p>
+ * The publisher is cold: each subscriber gets its own iterator of pages and reads the items on its own.
+ * Pages are read and items are published on a thread of an executor, never on the thread that subscribes or requests items,
+ * so reading a page may block without blocking the subscriber. Publishing resumes with a new task on the executor when more items are requested,
+ * and the executor is looked up for each task, so that replacing it takes effect for existing subscriptions.
+ * If the executor rejects a task, the subscriber receives an OperationFailedException.
+ * @param <T> The type of items.
+ */
+public final class PagePublisher<T> implements Publisher<T> {
+
+    private final PageSource<T> pageSource;
+    private final Supplier<? extends Executor> executorSupplier;
+
+    /**
+     * Constructs a publisher.
+     * @param pageSource Opens an iterator of pages for each subscriber. The iterator is opened, and advanced, on the publishing thread.
+     * @param executorSupplier Supplies the executor that pages are read and items are published on.
+     */
+    public PagePublisher(PageSource<T> pageSource, Supplier<? extends Executor> executorSupplier) {
+        this.pageSource = pageSource;
+        this.executorSupplier = executorSupplier;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "The subscriber cannot be null.");
+        subscriber.onSubscribe(new PageSubscription<>(subscriber, pageSource, executorSupplier));
+    }
+
+    /**
+     * Opens the pages of items read for a subscriber.
+     * @param <T> The type of items.
+     */
+    @FunctionalInterface
+    public interface PageSource<T> {
+
+        /**
+         * Opens an iterator of pages. Pages may be empty, and reading a page may throw an unchecked exception, which is sent to the subscriber.
+         * @return Returns an iterator of pages.
+         */
+        Iterator<List<T>> open();
+
+    }
+
+    private static final class PageSubscription<T> implements Subscription, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+        private final PageSource<T> pageSource;
+        private final Supplier<? extends Executor> executorSupplier;
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * Counts the signals received while publishing, so that a single thread publishes at a time, and publishes again if signalled meanwhile.
+         */
+        private final AtomicInteger pendingSignals = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile boolean invalidRequest = false;
+
+        //Only accessed by the publishing thread:
+        private boolean done = false;
+        private Iterator<List<T>> pages = null;
+        private List<T> page = null;
+        private int pageIndex = 0;
+
+        private PageSubscription(Subscriber<? super T> subscriber, PageSource<T> pageSource, Supplier<? extends Executor> executorSupplier) {
+            this.subscriber = subscriber;
+            this.pageSource = pageSource;
+            this.executorSupplier = executorSupplier;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = true;
+            }
+            else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            signal();
+        }
+
+        private void signal() {
+            if (pendingSignals.getAndIncrement() == 0) {
+                try {
+                    executorSupplier.get().execute(this);
+                } catch (RejectedExecutionException e) {
+                    //No task is publishing, and the pending signals are never cleared, so no other task will be started:
+                    if (!done) {
+                        finish();
+                        if (!cancelled) {
+                            subscriber.onError(new OperationFailedException(e));
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int signals = pendingSignals.get();
+            do {
+                publish();
+                signals = pendingSignals.addAndGet(-signals);
+            } while (signals != 0);
+        }
+
+        private void publish() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (invalidRequest) {
+                finish();
+                subscriber.onError(new IllegalArgumentException("The number of requested items must be greater than 0."));
+                return;
+            }
+            try {
+                if (pages == null) {
+                    pages = pageSource.open();
+                }
+                long published = 0;
+                long requested = demand.get();
+                while (true) {
+                    while (published != requested) {
+                        if (cancelled) {
+                            finish();
+                            return;
+                        }
+                        if (!hasNextItem()) {
+                            finish();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        subscriber.onNext(page.get(pageIndex++));
+                        published++;
+                    }
+                    //Completes without waiting for more demand once all items were published, reading at most one page ahead:
+                    if (!cancelled && !hasNextItem()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    requested = demand.addAndGet(-published);
+                    published = 0;
+                    if (requested == 0 || cancelled || invalidRequest) {
+                        return;
+                    }
+                }
+            } catch (RuntimeException e) {
+                finish();
+                subscriber.onError(e);
+            }
+        }
+
+        /**
+         * Checks if there is another item to publish, reading pages until a non-empty page is read or there are no more pages.
+         * @return Returns true if there is another item, false otherwise.
+         */
+        private boolean hasNextItem() {
+            while (page == null || pageIndex >= page.size()) {
+                page = null;
+                if (!pages.hasNext()) {
+                    return false;
+                }
+                page = pages.next();
+                pageIndex = 0;
+            }
+            return true;
+        }
+
+        private void finish() {
+            done = true;
+            pages = null;
+            page = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.raylabz.objectis.reactive;
+
+/**
+ * A provider of a potentially unbounded number of items, published to subscribers as they request them.
+ * This interface mirrors org.reactivestreams.Publisher and java.util.concurrent.Flow.Publisher, which are not available
+ * on Java 8 without an additional dependency, so publishers can be adapted to either using a method reference.
+ * @param <T> The type of items.
+ */
+public interface Publisher<T> {
+
+    /**
+     * Requests the publisher to start publishing items to a subscriber.
+     * The subscriber receives a Subscription through onSubscribe(), and no items are published until it requests them.
+     * @param subscriber The subscriber.
+     * @throws NullPointerException thrown when the subscriber is null.
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+
+}
@@ -0,0 +1,33 @@
+package com.raylabz.objectis.reactive;
+
+/**
+ * Receives the items of a Publisher. This interface mirrors org.reactivestreams.Subscriber.
+ * Signals are never sent concurrently, and after onError() or onComplete() no further signals are sent.
+ * @param <T> The type of items.
+ */
+public interface Subscriber<T> {
+
+    /**
+     * Invoked once, before any other signal, with the subscription used to request items.
+     * @param subscription The subscription.
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * Invoked with each item, never more times than requested.
+     * @param item The item.
+     */
+    void onNext(T item);
+
+    /**
+     * Invoked when the items cannot be published because of an error.
+     * @param throwable The error.
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Invoked when all items were published.
+     */
+    void onComplete();
+
+}
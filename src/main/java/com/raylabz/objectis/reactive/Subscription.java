@@ -0,0 +1,19 @@
+package com.raylabz.objectis.reactive;
+
+/**
+ * Links a Subscriber to a Publisher, allowing the subscriber to request items or cancel. This interface mirrors org.reactivestreams.Subscription.
+ */
+public interface Subscription {
+
+    /**
+     * Requests more items. Demand is cumulative, and a request of Long.MAX_VALUE is treated as unbounded.
+     * @param n The number of items. The subscriber is sent an IllegalArgumentException through onError() if it is not greater than 0.
+     */
+    void request(long n);
+
+    /**
+     * Stops the publisher from sending further items, and releases the resources used to publish them.
+     */
+    void cancel();
+
+}
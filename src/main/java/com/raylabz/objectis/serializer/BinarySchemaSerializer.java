@@ -0,0 +1,226 @@
+package com.raylabz.objectis.serializer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A compact binary serializer whose layout is derived from the fields of a class.
+ * Field names and class descriptors are not written - only a 4-byte schema hash followed by the field values,
+ * in a fixed order. Static and transient fields are skipped, like in Java serialization.
+ * Collections and maps are decoded into the declared field type (ArrayList, LinkedHashSet and LinkedHashMap for interfaces),
+ * and values of types without a dedicated encoding are written using Java serialization.
+ * Objects written with a different version of the class cannot be read and result in an exception.
+ * Some fields can be deserialized on their own, in which case the values of other fields are skipped without being decoded.
+ * Fields can also be serialized one by one, for classes stored using the hash layout. Values of single fields carry no schema hash,
+ * so values of fields that were removed from the class are ignored and fields that were added keep their initial values.
+ * Objects are instantiated using the no-argument constructor of the class, which may be private, or using an instantiator given to the serializer.
+ * @param <T> The type of objects this serializer works on.
+ */
+public class BinarySchemaSerializer<T> implements ProjectingSerializer<T>, FieldSerializer<T> {
+
+    private final Class<T> aClass;
+    private final FieldCodec[] fieldCodecs;
+    private final HashMap<String, FieldCodec> fieldCodecsByName = new HashMap<>();
+    private final List<String> fieldNames;
+    private final int schemaHash;
+    private final Supplier<? extends T> instantiator;
+    private final int initialSize;
+
+    /**
+     * Constructs a serializer for a class, which instantiates objects using the no-argument constructor of the class.
+     * @param aClass The class.
+     * @throws IllegalArgumentException thrown when the class does not declare a no-argument constructor.
+     */
+    public BinarySchemaSerializer(Class<T> aClass) throws IllegalArgumentException {
+        this(aClass, getDefaultInstantiator(aClass));
+    }
+
+    /**
+     * Constructs a serializer for a class, which instantiates objects using an instantiator, for classes without a no-argument constructor.
+     * The fields of instantiated objects are overwritten by the deserialized values, except for fields not present in the data.
+     * @param aClass The class.
+     * @param instantiator Creates a new object of the class on every call.
+     */
+    public BinarySchemaSerializer(Class<T> aClass, Supplier<? extends T> instantiator) {
+        this.aClass = aClass;
+        this.instantiator = instantiator;
+        final List<Field> fields = getSerializableFields(aClass);
+        this.fieldCodecs = new FieldCodec[fields.size()];
+        int hash = aClass.getName().hashCode();
+        for (int i = 0; i < fields.size(); i++) {
+            final Field field = fields.get(i);
+            fieldCodecs[i] = FieldCodec.forField(field);
+            fieldCodecsByName.put(field.getName(), fieldCodecs[i]);
+            hash = 31 * hash + (field.getName() + ":" + field.getGenericType().getTypeName()).hashCode();
+            if (field.getType().isEnum()) {
+                hash = 31 * hash + Arrays.toString(field.getType().getEnumConstants()).hashCode();
+            }
+        }
+        this.schemaHash = hash;
+        this.initialSize = 4 + 8 * fieldCodecs.length;
+        final ArrayList<String> names = new ArrayList<>(fields.size());
+        for (FieldCodec fieldCodec : fieldCodecs) {
+            names.add(fieldCodec.getFieldName());
+        }
+        this.fieldNames = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Retrieves the non-static, non-transient fields of a class and its superclasses,
+     * ordered from the topmost superclass down and by name within each class.
+     * @param aClass The class.
+     * @return Returns a list of fields.
+     */
+    static List<Field> getSerializableFields(Class<?> aClass) {
+        final ArrayList<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = aClass; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        final ArrayList<Field> fields = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            final ArrayList<Field> declaredFields = new ArrayList<>();
+            for (Field field : current.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    declaredFields.add(field);
+                }
+            }
+            declaredFields.sort(Comparator.comparing(Field::getName));
+            fields.addAll(declaredFields);
+        }
+        return fields;
+    }
+
+    /**
+     * Creates an instantiator that calls the no-argument constructor of a class.
+     * @param aClass The class.
+     * @param <T> The type of the class.
+     * @return Returns a supplier of new objects.
+     * @throws IllegalArgumentException thrown when the class does not declare a no-argument constructor.
+     */
+    private static <T> Supplier<T> getDefaultInstantiator(Class<T> aClass) throws IllegalArgumentException {
+        final Constructor<T> constructor;
+        try {
+            constructor = aClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("The class '" + aClass.getSimpleName() + "' cannot be instantiated by " + BinarySchemaSerializer.class.getSimpleName()
+                    + " because it does not declare a no-argument constructor. Declare one, which may be private, or pass an instantiator to the serializer.");
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    @Override
+    public byte[] serialize(T object) {
+        final ByteWriter out = new ByteWriter(initialSize);
+        out.writeInt(schemaHash);
+        try {
+            for (FieldCodec fieldCodec : fieldCodecs) {
+                fieldCodec.write(out, object);
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) {
+        return deserialize(bytes, null);
+    }
+
+    @Override
+    public T deserialize(byte[] bytes, Set<String> fieldNames) {
+        final ByteReader in = new ByteReader(bytes);
+        if (in.readInt() != schemaHash) {
+            throw new IllegalStateException("The data was not written by a " + BinarySchemaSerializer.class.getSimpleName()
+                    + " for the current version of class '" + aClass.getName() + "'.");
+        }
+        try {
+            final T object = instantiator.get();
+            for (FieldCodec fieldCodec : fieldCodecs) {
+                if (fieldNames == null || fieldNames.contains(fieldCodec.getFieldName())) {
+                    fieldCodec.read(in, object);
+                }
+                else {
+                    fieldCodec.skip(in);
+                }
+            }
+            return object;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    @Override
+    public Map<String, byte[]> serializeFields(T object) {
+        final LinkedHashMap<String, byte[]> values = new LinkedHashMap<>();
+        try {
+            for (FieldCodec fieldCodec : fieldCodecs) {
+                final ByteWriter out = new ByteWriter(16);
+                fieldCodec.write(out, object);
+                values.put(fieldCodec.getFieldName(), out.toByteArray());
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return values;
+    }
+
+    @Override
+    public byte[] serializeField(String fieldName, Object value) throws IllegalArgumentException {
+        final FieldCodec fieldCodec = fieldCodecsByName.get(fieldName);
+        if (fieldCodec == null) {
+            throw new IllegalArgumentException("The field '" + fieldName + "' of class '" + aClass.getName() + "' is not serialized.");
+        }
+        try {
+            //Codecs read values from objects, so the value is written through an object holding it:
+            final Object holder = instantiator.get();
+            fieldCodec.field.set(holder, value);
+            final ByteWriter out = new ByteWriter(16);
+            fieldCodec.write(out, holder);
+            return out.toByteArray();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public T deserializeFields(Map<String, byte[]> values) {
+        try {
+            final T object = instantiator.get();
+            for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+                final FieldCodec fieldCodec = fieldCodecsByName.get(entry.getKey());
+                if (fieldCodec != null && entry.getValue() != null) {
+                    fieldCodec.read(new ByteReader(entry.getValue()), object);
+                }
+            }
+            return object;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
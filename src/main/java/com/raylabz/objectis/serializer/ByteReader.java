@@ -0,0 +1,106 @@
+package com.raylabz.objectis.serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads binary encoded values written by a ByteWriter.
+ */
+final class ByteReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    ByteReader(byte[] buffer) {
+        this.buffer = buffer;
+        this.position = 0;
+    }
+
+    private void require(int numOfBytes) {
+        if (position + numOfBytes > buffer.length) {
+            throw new IllegalStateException("Unexpected end of data while deserializing (needed " + numOfBytes + " more bytes at position " + position + ").");
+        }
+    }
+
+    int readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    byte[] readBytes(int length) {
+        require(length);
+        final byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    void skip(int length) {
+        require(length);
+        position += length;
+    }
+
+    int readInt() {
+        require(4);
+        return ((buffer[position++] & 0xFF) << 24)
+                | ((buffer[position++] & 0xFF) << 16)
+                | ((buffer[position++] & 0xFF) << 8)
+                | (buffer[position++] & 0xFF);
+    }
+
+    long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IllegalStateException("Malformed variable-length integer at position " + position + ".");
+            }
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    void skipVarLong() {
+        int b;
+        do {
+            b = readByte();
+        } while ((b & 0x80) != 0);
+    }
+
+    /**
+     * Skips a value written by ByteWriter.writeString() or a length-prefixed byte array, both of which store their length plus one.
+     */
+    void skipLengthPrefixed() {
+        final int length = (int) readVarLong() - 1;
+        if (length > 0) {
+            skip(length);
+        }
+    }
+
+    long readSignedVarLong() {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+        final int length = (int) readVarLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.raylabz.objectis.serializer;
+
+import java.lang.reflect.Field;
+
+/**
+ * Encodes and decodes the value of a single field of an object.
+ * Primitive fields are read and written without boxing.
+ */
+abstract class FieldCodec {
+
+    protected final Field field;
+
+    FieldCodec(Field field) {
+        this.field = field;
+        field.setAccessible(true);
+    }
+
+    abstract void write(ByteWriter out, Object owner) throws IllegalAccessException;
+
+    abstract void read(ByteReader in, Object owner) throws IllegalAccessException;
+
+    /**
+     * Moves past the value of the field without decoding it.
+     * @param in The reader.
+     */
+    abstract void skip(ByteReader in);
+
+    String getFieldName() {
+        return field.getName();
+    }
+
+    /**
+     * Creates a codec for a field.
+     * @param field The field.
+     * @return Returns a FieldCodec.
+     */
+    static FieldCodec forField(Field field) {
+        final Class<?> type = field.getType();
+        if (type == int.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeSignedVarLong(field.getInt(owner));
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setInt(owner, (int) in.readSignedVarLong());
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skipVarLong();
+                }
+            };
+        }
+        else if (type == long.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeSignedVarLong(field.getLong(owner));
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setLong(owner, in.readSignedVarLong());
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skipVarLong();
+                }
+            };
+        }
+        else if (type == short.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeSignedVarLong(field.getShort(owner));
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setShort(owner, (short) in.readSignedVarLong());
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skipVarLong();
+                }
+            };
+        }
+        else if (type == byte.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeByte(field.getByte(owner));
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setByte(owner, (byte) in.readByte());
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skip(1);
+                }
+            };
+        }
+        else if (type == boolean.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeByte(field.getBoolean(owner) ? 1 : 0);
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setBoolean(owner, in.readByte() != 0);
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skip(1);
+                }
+            };
+        }
+        else if (type == char.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeVarLong(field.getChar(owner));
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setChar(owner, (char) in.readVarLong());
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skipVarLong();
+                }
+            };
+        }
+        else if (type == double.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeLong(Double.doubleToRawLongBits(field.getDouble(owner)));
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setDouble(owner, Double.longBitsToDouble(in.readLong()));
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skip(8);
+                }
+            };
+        }
+        else if (type == float.class) {
+            return new FieldCodec(field) {
+                @Override
+                void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                    out.writeInt(Float.floatToRawIntBits(field.getFloat(owner)));
+                }
+
+                @Override
+                void read(ByteReader in, Object owner) throws IllegalAccessException {
+                    field.setFloat(owner, Float.intBitsToFloat(in.readInt()));
+                }
+
+                @Override
+                void skip(ByteReader in) {
+                    in.skip(4);
+                }
+            };
+        }
+        final ValueCodec valueCodec = ValueCodec.forType(type, field.getGenericType());
+        return new FieldCodec(field) {
+            @Override
+            void write(ByteWriter out, Object owner) throws IllegalAccessException {
+                valueCodec.write(out, field.get(owner));
+            }
+
+            @Override
+            void read(ByteReader in, Object owner) throws IllegalAccessException {
+                field.set(owner, valueCodec.read(in));
+            }
+
+            @Override
+            void skip(ByteReader in) {
+                valueCodec.skip(in);
+            }
+        };
+    }
+
+}
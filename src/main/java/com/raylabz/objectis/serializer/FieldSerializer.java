@@ -0,0 +1,45 @@
+package com.raylabz.objectis.serializer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A serializer that can encode and decode each field of an object on its own.
+ * Required by classes stored using the hash layout, where each field is stored as an entry of a Redis hash
+ * so that fields can be read and written without reading or writing the whole object.
+ * @param <T> The type of objects this serializer works on.
+ */
+public interface FieldSerializer<T> extends ObjectSerializer<T> {
+
+    /**
+     * Retrieves the names of the fields that are serialized.
+     * @return Returns a list of field names.
+     */
+    List<String> getFieldNames();
+
+    /**
+     * Serializes each field of an object.
+     * @param object The object to serialize.
+     * @return Returns a map of field names to encoded values, containing all serialized fields.
+     */
+    Map<String, byte[]> serializeFields(T object);
+
+    /**
+     * Serializes a value of a field.
+     * @param fieldName The name of the field.
+     * @param value The value. Primitive values must be provided boxed.
+     * @return Returns the encoded value.
+     * @throws IllegalArgumentException thrown when the field is not serialized or the value cannot be assigned to the field.
+     */
+    byte[] serializeField(String fieldName, Object value) throws IllegalArgumentException;
+
+    /**
+     * Deserializes an object from the encoded values of some or all of its fields.
+     * Fields without a value, and values of fields that are not serialized, are ignored, leaving the fields with the values
+     * set when the object was instantiated.
+     * @param values A map of field names to values produced by serializeFields() or serializeField().
+     * @return Returns an object.
+     */
+    T deserializeFields(Map<String, byte[]> values);
+
+}
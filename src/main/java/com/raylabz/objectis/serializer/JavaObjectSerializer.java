@@ -0,0 +1,59 @@
+package com.raylabz.objectis.serializer;
+
+import java.io.*;
+
+/**
+ * Serializes objects using Java serialization. This is the default serializer for registered classes.
+ * @param <T> The type of objects this serializer works on.
+ */
+public class JavaObjectSerializer<T> implements ObjectSerializer<T> {
+
+    private final Class<T> aClass;
+
+    public JavaObjectSerializer(Class<T> aClass) {
+        this.aClass = aClass;
+    }
+
+    @Override
+    public byte[] serialize(T object) {
+        return serializeValue(object);
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) {
+        return aClass.cast(deserializeValue(bytes));
+    }
+
+    /**
+     * Serializes any value using Java serialization.
+     * @param value The value to serialize.
+     * @return Returns a byte[].
+     * @throws RuntimeException thrown when the value cannot be serialized.
+     */
+    public static byte[] serializeValue(Object value) throws RuntimeException {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            ObjectOutputStream out = new ObjectOutputStream(bos);
+            out.writeObject(value);
+            out.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Deserializes a value written using Java serialization.
+     * @param bytes The bytes of the value.
+     * @return Returns the value.
+     * @throws RuntimeException thrown when the value cannot be deserialized.
+     */
+    public static Object deserializeValue(byte[] bytes) throws RuntimeException {
+        ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
+        try (ObjectInput in = new ObjectInputStream(bis)) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.raylabz.objectis.serializer;
+
+/**
+ * Converts objects of a registered class to and from the bytes stored in Redis.
+ * A serializer can be provided for each class when it is registered using Objectis.register().
+ * @param <T> The type of objects this serializer works on.
+ */
+public interface ObjectSerializer<T> {
+
+    /**
+     * Serializes an object.
+     * @param object The object to serialize.
+     * @return Returns a byte[].
+     */
+    byte[] serialize(T object);
+
+    /**
+     * Deserializes an object.
+     * @param bytes The bytes produced by serialize().
+     * @return Returns an object.
+     */
+    T deserialize(byte[] bytes);
+
+}
@@ -0,0 +1,21 @@
+package com.raylabz.objectis.serializer;
+
+import java.util.Set;
+
+/**
+ * A serializer that can decode some of the fields of an object without decoding the others.
+ * Used by projection queries, which only need the values of a few fields of each object.
+ * @param <T> The type of objects this serializer works on.
+ */
+public interface ProjectingSerializer<T> extends ObjectSerializer<T> {
+
+    /**
+     * Deserializes some of the fields of an object. The values of other fields are skipped, leaving the fields with the values
+     * set when the object was instantiated.
+     * @param bytes The bytes produced by serialize().
+     * @param fieldNames The names of the fields to deserialize.
+     * @return Returns a partially deserialized object.
+     */
+    T deserialize(byte[] bytes, Set<String> fieldNames);
+
+}
@@ -0,0 +1,492 @@
+package com.raylabz.objectis.serializer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Encodes and decodes values of a particular type, including null.
+ */
+abstract class ValueCodec {
+
+    abstract void write(ByteWriter out, Object value);
+
+    abstract Object read(ByteReader in);
+
+    /**
+     * Moves past a value without decoding it.
+     * @param in The reader.
+     */
+    abstract void skip(ByteReader in);
+
+    /**
+     * Creates a codec for a given type.
+     * Types that have no dedicated encoding are encoded using Java serialization.
+     * @param type The type of values.
+     * @param genericType The generic type of values, used to find the element types of collections and maps.
+     * @return Returns a ValueCodec.
+     */
+    static ValueCodec forType(Class<?> type, Type genericType) {
+        if (type == String.class) {
+            return new StringCodec();
+        }
+        else if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            return new NullableCodec(new IntegralCodec(type));
+        }
+        else if (type == Boolean.class) {
+            return new NullableCodec(new BooleanCodec());
+        }
+        else if (type == Character.class) {
+            return new NullableCodec(new CharacterCodec());
+        }
+        else if (type == Double.class) {
+            return new NullableCodec(new DoubleCodec());
+        }
+        else if (type == Float.class) {
+            return new NullableCodec(new FloatCodec());
+        }
+        else if (type == Date.class) {
+            return new NullableCodec(new DateCodec());
+        }
+        else if (type == byte[].class) {
+            return new ByteArrayCodec();
+        }
+        else if (type.isEnum()) {
+            return new EnumCodec(type);
+        }
+        else if (Collection.class.isAssignableFrom(type)) {
+            final Supplier<Collection<Object>> factory = collectionFactory(type);
+            if (factory != null) {
+                return new CollectionCodec(factory, elementCodec(genericType, 0));
+            }
+        }
+        else if (Map.class.isAssignableFrom(type)) {
+            final Supplier<Map<Object, Object>> factory = mapFactory(type);
+            if (factory != null) {
+                return new MapCodec(factory, elementCodec(genericType, 0), elementCodec(genericType, 1));
+            }
+        }
+        return new JavaSerializationCodec();
+    }
+
+    /**
+     * Creates a codec for a type argument of a generic type, e.g. the element type of a List.
+     * @param genericType The generic type.
+     * @param argumentIndex The index of the type argument.
+     * @return Returns a ValueCodec.
+     */
+    private static ValueCodec elementCodec(Type genericType, int argumentIndex) {
+        if (genericType instanceof ParameterizedType) {
+            final Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[argumentIndex];
+            if (argument instanceof Class) {
+                return forType((Class<?>) argument, argument);
+            }
+            if (argument instanceof ParameterizedType && ((ParameterizedType) argument).getRawType() instanceof Class) {
+                return forType((Class<?>) ((ParameterizedType) argument).getRawType(), argument);
+            }
+        }
+        return new JavaSerializationCodec();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> type) {
+        if (type == List.class || type == Collection.class) {
+            return ArrayList::new;
+        }
+        else if (type == Set.class) {
+            return LinkedHashSet::new;
+        }
+        final Supplier<Object> constructor = noArgConstructor(type);
+        return constructor == null ? null : () -> (Collection<Object>) constructor.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Map<Object, Object>> mapFactory(Class<?> type) {
+        if (type == Map.class) {
+            return LinkedHashMap::new;
+        }
+        final Supplier<Object> constructor = noArgConstructor(type);
+        return constructor == null ? null : () -> (Map<Object, Object>) constructor.get();
+    }
+
+    private static Supplier<Object> noArgConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            final Constructor<?> constructor = type.getConstructor();
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Prefixes a codec's value with a byte denoting whether the value is null.
+     */
+    static final class NullableCodec extends ValueCodec {
+
+        private final ValueCodec codec;
+
+        NullableCodec(ValueCodec codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            if (value == null) {
+                out.writeByte(0);
+            }
+            else {
+                out.writeByte(1);
+                codec.write(out, value);
+            }
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            return in.readByte() == 0 ? null : codec.read(in);
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            if (in.readByte() != 0) {
+                codec.skip(in);
+            }
+        }
+
+    }
+
+    static final class StringCodec extends ValueCodec {
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeString((String) value);
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            return in.readString();
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skipLengthPrefixed();
+        }
+
+    }
+
+    static final class IntegralCodec extends ValueCodec {
+
+        private final Class<?> type;
+
+        IntegralCodec(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeSignedVarLong(((Number) value).longValue());
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            final long value = in.readSignedVarLong();
+            if (type == Integer.class) {
+                return (int) value;
+            }
+            else if (type == Long.class) {
+                return value;
+            }
+            else if (type == Short.class) {
+                return (short) value;
+            }
+            return (byte) value;
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skipVarLong();
+        }
+
+    }
+
+    static final class BooleanCodec extends ValueCodec {
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeByte((Boolean) value ? 1 : 0);
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            return in.readByte() != 0;
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skip(1);
+        }
+
+    }
+
+    static final class CharacterCodec extends ValueCodec {
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeVarLong((Character) value);
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            return (char) in.readVarLong();
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skipVarLong();
+        }
+
+    }
+
+    static final class DoubleCodec extends ValueCodec {
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            return Double.longBitsToDouble(in.readLong());
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skip(8);
+        }
+
+    }
+
+    static final class FloatCodec extends ValueCodec {
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeInt(Float.floatToRawIntBits((Float) value));
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            return Float.intBitsToFloat(in.readInt());
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skip(4);
+        }
+
+    }
+
+    static final class DateCodec extends ValueCodec {
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeSignedVarLong(((Date) value).getTime());
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            return new Date(in.readSignedVarLong());
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skipVarLong();
+        }
+
+    }
+
+    static final class ByteArrayCodec extends ValueCodec {
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            if (value == null) {
+                out.writeVarLong(0);
+            }
+            else {
+                final byte[] bytes = (byte[]) value;
+                out.writeVarLong(bytes.length + 1L);
+                out.writeBytes(bytes);
+            }
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            final int length = (int) in.readVarLong() - 1;
+            return length < 0 ? null : in.readBytes(length);
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skipLengthPrefixed();
+        }
+
+    }
+
+    static final class EnumCodec extends ValueCodec {
+
+        private final Object[] constants;
+
+        EnumCodec(Class<?> type) {
+            this.constants = type.getEnumConstants();
+        }
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            out.writeVarLong(value == null ? 0 : ((Enum<?>) value).ordinal() + 1L);
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            final int ordinal = (int) in.readVarLong() - 1;
+            return ordinal < 0 ? null : constants[ordinal];
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            in.skipVarLong();
+        }
+
+    }
+
+    static final class CollectionCodec extends ValueCodec {
+
+        private final Supplier<Collection<Object>> factory;
+        private final ValueCodec elementCodec;
+
+        CollectionCodec(Supplier<Collection<Object>> factory, ValueCodec elementCodec) {
+            this.factory = factory;
+            this.elementCodec = elementCodec;
+        }
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            if (value == null) {
+                out.writeVarLong(0);
+                return;
+            }
+            final Collection<?> collection = (Collection<?>) value;
+            out.writeVarLong(collection.size() + 1L);
+            for (Object element : collection) {
+                elementCodec.write(out, element);
+            }
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            final int size = (int) in.readVarLong() - 1;
+            if (size < 0) {
+                return null;
+            }
+            final Collection<Object> collection = factory.get();
+            for (int i = 0; i < size; i++) {
+                collection.add(elementCodec.read(in));
+            }
+            return collection;
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            final int size = (int) in.readVarLong() - 1;
+            for (int i = 0; i < size; i++) {
+                elementCodec.skip(in);
+            }
+        }
+
+    }
+
+    static final class MapCodec extends ValueCodec {
+
+        private final Supplier<Map<Object, Object>> factory;
+        private final ValueCodec keyCodec;
+        private final ValueCodec valueCodec;
+
+        MapCodec(Supplier<Map<Object, Object>> factory, ValueCodec keyCodec, ValueCodec valueCodec) {
+            this.factory = factory;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            if (value == null) {
+                out.writeVarLong(0);
+                return;
+            }
+            final Map<?, ?> map = (Map<?, ?>) value;
+            out.writeVarLong(map.size() + 1L);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                keyCodec.write(out, entry.getKey());
+                valueCodec.write(out, entry.getValue());
+            }
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            final int size = (int) in.readVarLong() - 1;
+            if (size < 0) {
+                return null;
+            }
+            final Map<Object, Object> map = factory.get();
+            for (int i = 0; i < size; i++) {
+                map.put(keyCodec.read(in), valueCodec.read(in));
+            }
+            return map;
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            final int size = (int) in.readVarLong() - 1;
+            for (int i = 0; i < size; i++) {
+                keyCodec.skip(in);
+                valueCodec.skip(in);
+            }
+        }
+
+    }
+
+    /**
+     * Encodes values using Java serialization, prefixed by their length.
+     */
+    static final class JavaSerializationCodec extends ValueCodec {
+
+        private final ByteArrayCodec byteArrayCodec = new ByteArrayCodec();
+
+        @Override
+        void write(ByteWriter out, Object value) {
+            byteArrayCodec.write(out, value == null ? null : JavaObjectSerializer.serializeValue(value));
+        }
+
+        @Override
+        Object read(ByteReader in) {
+            final byte[] bytes = (byte[]) byteArrayCodec.read(in);
+            return bytes == null ? null : JavaObjectSerializer.deserializeValue(bytes);
+        }
+
+        @Override
+        void skip(ByteReader in) {
+            byteArrayCodec.skip(in);
+        }
+
+    }
+
+}
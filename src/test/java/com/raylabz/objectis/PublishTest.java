@@ -0,0 +1,156 @@
+package com.raylabz.objectis;
+
+import com.raylabz.objectis.annotation.ObjectisObject;
+import com.raylabz.objectis.concurrency.ParallelismPolicy;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import com.raylabz.objectis.reactive.Publisher;
+import com.raylabz.objectis.reactive.Subscriber;
+import com.raylabz.objectis.reactive.Subscription;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Publishes the objects of a class, and the results of a query, to more subscribers at once than there are threads in the executor
+ * used by parallel operations, while every page is split into parallel tasks. Checks that every subscriber receives all of its objects,
+ * as the tasks that publish pages must not wait for parallel tasks queued behind them.
+ * Skipped when no Redis server is reachable on localhost:6379.
+ */
+public class PublishTest {
+
+    private static final int NUM_OF_ITEMS = 500;
+    private static final int NUM_OF_THREADS = 2;
+    private static final int NUM_OF_SUBSCRIBERS = 4;
+    private static final int PAGE_SIZE = 50;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @BeforeClass
+    public static void createItems() throws ClassRegistrationException {
+        RedisTestSupport.connect();
+        Objectis.register(Item.class);
+        final ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_ITEMS; i++) {
+            items.add(new Item("i" + i, i % 2 == 0 ? "even" : "odd"));
+        }
+        Objectis.createAll(items);
+    }
+
+    @After
+    public void restoreSettings() {
+        final ParallelismPolicy policy = Objectis.getParallelismPolicy();
+        policy.setMinParallelWorkNanos(500_000);
+        policy.setMinItemsPerTask(16);
+        policy.reset();
+        Objectis.setThreadCount(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    public void moreSubscribersThanThreadsReceiveAllObjects() throws InterruptedException {
+        splitEveryPage();
+        final List<RecordingSubscriber> subscribers = subscribe(Objectis.publish(Item.class, PAGE_SIZE));
+        for (RecordingSubscriber subscriber : subscribers) {
+            subscriber.awaitTermination();
+            assertNull(subscriber.error);
+            assertEquals(NUM_OF_ITEMS, subscriber.ids.size());
+        }
+    }
+
+    @Test
+    public void moreSubscribersThanThreadsReceiveAllMatchingObjects() throws InterruptedException {
+        splitEveryPage();
+        final List<RecordingSubscriber> subscribers = subscribe(Objectis.filter(Item.class).whereEqualTo("parity", "even").publish(PAGE_SIZE));
+        for (RecordingSubscriber subscriber : subscribers) {
+            subscriber.awaitTermination();
+            assertNull(subscriber.error);
+            assertEquals(NUM_OF_ITEMS / 2, subscriber.ids.size());
+        }
+    }
+
+    /**
+     * Makes the parallelism policy split every page of more than one object into parallel tasks, on a small pool of threads.
+     */
+    private static void splitEveryPage() {
+        Objectis.setThreadCount(NUM_OF_THREADS);
+        Objectis.getParallelismPolicy().setMinParallelWorkNanos(0);
+        Objectis.getParallelismPolicy().setMinItemsPerTask(1);
+    }
+
+    private static List<RecordingSubscriber> subscribe(Publisher<Item> publisher) {
+        final ArrayList<RecordingSubscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_SUBSCRIBERS; i++) {
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            publisher.subscribe(subscriber);
+            subscribers.add(subscriber);
+        }
+        for (RecordingSubscriber subscriber : subscribers) {
+            subscriber.subscription.request(Long.MAX_VALUE);
+        }
+        return subscribers;
+    }
+
+    private static final class RecordingSubscriber implements Subscriber<Item> {
+
+        private volatile Subscription subscription;
+        private final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Throwable error = null;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Item item) {
+            ids.add(item.id);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+
+        void awaitTermination() throws InterruptedException {
+            assertTrue("The subscription did not end, with " + ids.size() + " objects published.", terminated.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+    }
+
+    @ObjectisObject
+    public static class Item implements Serializable {
+
+        private String id;
+        private String parity;
+
+        public Item() {
+        }
+
+        public Item(String id, String parity) {
+            this.id = id;
+            this.parity = parity;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.raylabz.objectis;
+
+import org.junit.Assume;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * Connects the tests that need a Redis server to a server (or a compatible stand-in) listening on localhost:6379,
+ * and skips them when no server is reachable.
+ */
+public final class RedisTestSupport {
+
+    private static final String HOST = "localhost";
+    private static final int PORT = 6379;
+    private static final int TIMEOUT_MILLIS = 1000;
+
+    private static JedisPool pool = null;
+
+    private RedisTestSupport() {
+    }
+
+    /**
+     * Initializes Objectis with a pool of connections to the server and removes all of its keys,
+     * or skips the calling test if no server is reachable.
+     */
+    public static synchronized void connect() {
+        Assume.assumeTrue("No Redis server is listening on " + HOST + ":" + PORT + ".", isReachable());
+        if (pool == null) {
+            pool = new JedisPool(HOST, PORT);
+        }
+        Objectis.init(pool);
+        Objectis.flush();
+    }
+
+    private static boolean isReachable() {
+        try (Jedis jedis = new Jedis(HOST, PORT, TIMEOUT_MILLIS)) {
+            return "PONG".equals(jedis.ping());
+        } catch (JedisException e) {
+            return false;
+        }
+    }
+
+}
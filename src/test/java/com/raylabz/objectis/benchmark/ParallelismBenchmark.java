@@ -0,0 +1,80 @@
+package com.raylabz.objectis.benchmark;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.concurrency.ParallelismPolicy;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.jedis.JedisPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures getMany() for growing numbers of objects. After each run, prints the share of calls the parallelism policy ran on
+ * multiple threads, together with the per-object costs it measured for the Person model.
+ * Expects a Redis server (or a compatible stand-in) listening on localhost:6379, whose keys are removed.
+ * Run with: java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main ParallelismBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelismBenchmark {
+
+    @Param({"10", "50", "200", "1000", "5000", "20000"})
+    private int size;
+
+    private JedisPool jedisPool;
+    private final List<String> ids = new ArrayList<>();
+    private long calls = 0;
+    private long parallelDecisionsBefore;
+
+    @Setup
+    public void setUp() throws ClassRegistrationException {
+        jedisPool = new JedisPool();
+        Objectis.init(jedisPool);
+        Objectis.register(Person.class);
+        Objectis.flush();
+
+        final ArrayList<Person> people = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final Person person = new Person(UUID.randomUUID().toString(), i + 20, "John " + i, "Smith " + i);
+            people.add(person);
+            ids.add(person.getId());
+        }
+        Objectis.createAll(people);
+        parallelDecisionsBefore = Objectis.getParallelismPolicy().getParallelDecisions();
+    }
+
+    @TearDown
+    public void tearDown() {
+        final ParallelismPolicy policy = Objectis.getParallelismPolicy();
+        System.out.println("getMany(" + size + "): parallel in " + (policy.getParallelDecisions() - parallelDecisionsBefore) + "/" + calls + " calls");
+        System.out.println(policy.getEstimate(Person.class));
+        Objectis.flush();
+        Objectis.shutdown();
+        jedisPool.close();
+    }
+
+    @Benchmark
+    public List<Person> getMany() {
+        calls++;
+        return Objectis.getMany(Person.class, ids);
+    }
+
+}
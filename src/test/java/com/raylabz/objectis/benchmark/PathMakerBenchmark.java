@@ -0,0 +1,62 @@
+package com.raylabz.objectis.benchmark;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.PathMaker;
+import com.raylabz.objectis.Serializer;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time taken to build object keys using string concatenation followed by UTF-8 encoding,
+ * and using the cached class prefixes of PathMaker. Run with the gc profiler to compare the bytes allocated per key.
+ * Does not require a Redis server.
+ * Run with: java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main PathMakerBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathMakerBenchmark {
+
+    private final String[] ids = new String[1000];
+    private int next = 0;
+
+    @Setup
+    public void setUp() throws ClassRegistrationException {
+        Objectis.register(Person.class);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @Benchmark
+    public byte[] concatenation() {
+        return Serializer.serializeKey(Person.class.getName() + "/" + nextId());
+    }
+
+    @Benchmark
+    public byte[] pathMaker() {
+        return PathMaker.getObjectPath(Person.class, nextId());
+    }
+
+    private String nextId() {
+        final String id = ids[next];
+        next = (next + 1) % ids.length;
+        return id;
+    }
+
+}
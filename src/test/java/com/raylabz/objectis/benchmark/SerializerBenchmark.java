@@ -0,0 +1,64 @@
+package com.raylabz.objectis.benchmark;
+
+import com.raylabz.objectis.serializer.BinarySchemaSerializer;
+import com.raylabz.objectis.serializer.JavaObjectSerializer;
+import com.raylabz.objectis.serializer.ObjectSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the speed of Java serialization and the binary schema serializer for the Person model.
+ * The size of the serialized object is printed once per fork. Does not require a Redis server.
+ * Run with: java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main SerializerBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"java", "binary"})
+    private String serializerName;
+
+    private ObjectSerializer<Person> serializer;
+    private Person person;
+    private byte[] serializedPerson;
+
+    @Setup
+    public void setUp() {
+        serializer = serializerName.equals("java")
+                ? new JavaObjectSerializer<>(Person.class)
+                : new BinarySchemaSerializer<>(Person.class, () -> new Person(null, 0, null, null));
+        person = new Person(UUID.randomUUID().toString(), 30, "John", "Smith");
+        person.addFriend("a");
+        person.addFriend("b");
+        person.addFriend("c");
+        serializedPerson = serializer.serialize(person);
+        System.out.println(serializerName + ": " + serializedPerson.length + " bytes/object");
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(person);
+    }
+
+    @Benchmark
+    public Person deserialize() {
+        return serializer.deserialize(serializedPerson);
+    }
+
+}
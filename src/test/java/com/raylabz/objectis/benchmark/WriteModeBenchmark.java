@@ -0,0 +1,96 @@
+package com.raylabz.objectis.benchmark;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.PathMaker;
+import com.raylabz.objectis.Serializer;
+import com.raylabz.objectis.WriteMode;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency of create() when the SET and SADD commands are sent in two round trips,
+ * in a single pipelined round trip, and in a single MULTI/EXEC round trip.
+ * Expects a Redis server (or a compatible stand-in) listening on localhost:6379, whose keys are removed.
+ * Run with: java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main WriteModeBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteModeBenchmark {
+
+    /**
+     * A write mode of create(), or SEPARATE for the two round trips create() used to take.
+     */
+    @Param({"SEPARATE", "PIPELINED", "ATOMIC"})
+    private String mode;
+
+    private JedisPool jedisPool;
+    private int counter = 0;
+
+    @Setup
+    public void setUp() throws ClassRegistrationException {
+        jedisPool = new JedisPool();
+        Objectis.init(jedisPool);
+        Objectis.register(Person.class);
+        if (!mode.equals("SEPARATE")) {
+            Objectis.setWriteMode(WriteMode.valueOf(mode));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        Objectis.flush();
+    }
+
+    @TearDown
+    public void tearDown() {
+        jedisPool.close();
+    }
+
+    @Benchmark
+    public void create() {
+        if (mode.equals("SEPARATE")) {
+            createInSeparateRoundTrips(newPerson());
+        }
+        else {
+            Objectis.create(newPerson());
+        }
+    }
+
+    /**
+     * Replicates the previous behaviour of create(), which issued SET and SADD as two separate round trips.
+     */
+    private static void createInSeparateRoundTrips(Person person) {
+        final Jedis jedis = Objectis.getJedis();
+        jedis.set(PathMaker.getObjectPath(Person.class, person.getId()), Serializer.serializeObject(person));
+        jedis.sadd(PathMaker.getClassListPath(Person.class), person.getId().getBytes(StandardCharsets.UTF_8));
+        Objectis.releaseJedis(jedis);
+    }
+
+    private Person newPerson() {
+        final int i = counter++;
+        return new Person(UUID.randomUUID().toString(), i, "John " + i, "Smith " + i);
+    }
+
+}
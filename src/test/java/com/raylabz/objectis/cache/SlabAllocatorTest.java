@@ -0,0 +1,111 @@
+package com.raylabz.objectis.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the off-heap slab allocator used by the near cache: values read back as written while chunks are allocated and freed at random,
+ * live chunks never overlap, freed chunks are reused before new slabs are allocated, and allocation fails once all slabs are in use.
+ */
+public class SlabAllocatorTest {
+
+    private static final long MAX_BYTES = 64 * 1024 * 1024;
+    private static final int NUM_OF_STEPS = 200000;
+
+    @Test
+    public void sizeClassesGrowOneAtATime() {
+        final SlabAllocator allocator = new SlabAllocator(MAX_BYTES);
+        int previous = allocator.getSizeClass(1);
+        assertEquals("The smallest values should use the first size class.", 0, previous);
+        for (int length = 2; length <= allocator.getMaxLength(); length++) {
+            final int sizeClass = allocator.getSizeClass(length);
+            assertTrue("Size classes should grow one at a time, but length " + length + " uses " + sizeClass + " after " + previous + ".",
+                    sizeClass == previous || sizeClass == previous + 1);
+            previous = sizeClass;
+        }
+    }
+
+    @Test
+    public void chunksReadBackAsWrittenWithoutOverlapping() {
+        final SlabAllocator allocator = new SlabAllocator(MAX_BYTES);
+        final Random random = new Random(42);
+        final HashMap<Long, byte[]> live = new HashMap<>();
+        final ArrayList<Long> chunks = new ArrayList<>();
+        for (int step = 0; step < NUM_OF_STEPS; step++) {
+            if (chunks.isEmpty() || random.nextInt(3) > 0) {
+                final byte[] value = new byte[1 + (random.nextBoolean() ? random.nextInt(256) : random.nextInt(20000))];
+                random.nextBytes(value);
+                final long chunk = allocator.allocate(value.length);
+                if (chunk < 0) {
+                    continue;
+                }
+                assertFalse("The chunk " + chunk + " was allocated twice.", live.containsKey(chunk));
+                allocator.write(chunk, value);
+                live.put(chunk, value);
+                chunks.add(chunk);
+            }
+            else {
+                final int index = random.nextInt(chunks.size());
+                final long chunk = chunks.get(index);
+                chunks.set(index, chunks.get(chunks.size() - 1));
+                chunks.remove(chunks.size() - 1);
+                final byte[] value = live.remove(chunk);
+                assertArrayEquals("The chunk " + chunk + " was overwritten.", value, allocator.read(chunk, value.length));
+                allocator.free(chunk, value.length);
+            }
+            assertTrue("More than " + MAX_BYTES + " bytes were allocated.", allocator.getAllocatedBytes() <= MAX_BYTES);
+        }
+        for (Map.Entry<Long, byte[]> entry : live.entrySet()) {
+            assertArrayEquals("The chunk " + entry.getKey() + " was overwritten.", entry.getValue(), allocator.read(entry.getKey(), entry.getValue().length));
+        }
+        assertNoOverlap(live);
+    }
+
+    private static void assertNoOverlap(Map<Long, byte[]> live) {
+        final long[][] ranges = new long[live.size()][];
+        int i = 0;
+        for (Map.Entry<Long, byte[]> entry : live.entrySet()) {
+            ranges[i++] = new long[]{entry.getKey(), entry.getKey() + entry.getValue().length};
+        }
+        Arrays.sort(ranges, (range1, range2) -> Long.compare(range1[0], range2[0]));
+        for (i = 1; i < ranges.length; i++) {
+            assertTrue("The chunks " + ranges[i - 1][0] + " and " + ranges[i][0] + " overlap.", ranges[i][0] >= ranges[i - 1][1]);
+        }
+    }
+
+    @Test
+    public void freedChunksAreReused() {
+        final SlabAllocator allocator = new SlabAllocator(MAX_BYTES);
+        final int[] lengths = {10, 100, 1000, 10000, 100000};
+        final long[] chunks = new long[lengths.length];
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < lengths.length; i++) {
+                chunks[i] = allocator.allocate(lengths[i]);
+                assertTrue("Allocating " + lengths[i] + " bytes failed.", chunks[i] >= 0);
+            }
+            for (int i = 0; i < lengths.length; i++) {
+                allocator.free(chunks[i], lengths[i]);
+            }
+        }
+        assertTrue("Freed chunks were not reused.", allocator.getAllocatedBytes() <= (long) lengths.length * allocator.getMaxLength());
+    }
+
+    @Test
+    public void allocationFailsOnceAllSlabsAreInUse() {
+        final SlabAllocator allocator = new SlabAllocator(64 * 1024);
+        assertTrue("Allocating from an empty allocator failed.", allocator.allocate(100) >= 0);
+        assertTrue("A second slab was allocated beyond the maximum number of bytes.", allocator.allocate(allocator.getMaxLength()) < 0);
+        assertEquals(64 * 1024, allocator.getAllocatedBytes());
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.raylabz.objectis.concurrency;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.RedisTestSupport;
+import com.raylabz.objectis.StorageLayout;
+import com.raylabz.objectis.annotation.ObjectisObject;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads objects from many threads at once through a get() batcher, and checks that each thread receives the object stored under the ID it read,
+ * or null for IDs that do not exist - for objects stored both as values and as hashes, and with batches that fill up before their window ends.
+ * Also checks that the reads are coalesced into fewer batches than requests, and that a batch that fills up is read without waiting for its window to end.
+ * Skipped when no Redis server is reachable on localhost:6379.
+ */
+public class GetBatcherTest {
+
+    private static final int NUM_OF_ITEMS = 200;
+    private static final int NUM_OF_THREADS = 32;
+    private static final int NUM_OF_READS_PER_THREAD = 500;
+    private static final long LONG_WINDOW_SECONDS = 20;
+
+    @BeforeClass
+    public static void createItems() throws ClassRegistrationException {
+        RedisTestSupport.connect();
+        Objectis.register(Item.class);
+        Objectis.register(HashItem.class, StorageLayout.HASH);
+
+        final ArrayList<Item> items = new ArrayList<>();
+        final ArrayList<HashItem> hashItems = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_ITEMS; i++) {
+            items.add(new Item("i" + i, i * 3));
+            hashItems.add(new HashItem("h" + i, "value" + i));
+        }
+        Objectis.createAll(items);
+        Objectis.createAll(hashItems);
+    }
+
+    @After
+    public void stopBatching() {
+        Objectis.useGetBatcher(null);
+    }
+
+    @Test
+    public void readsWithinAWindowAreCoalesced() throws Exception {
+        final GetBatcher batcher = new GetBatcher(200, TimeUnit.MICROSECONDS, 64);
+        readConcurrently(batcher);
+        assertTrue(batcher.getBatchCount() + " batches were sent for " + batcher.getRequestCount() + " requests.", batcher.getBatchCount() < batcher.getRequestCount());
+    }
+
+    @Test
+    public void batchesAreSentOnceFull() throws Exception {
+        final GetBatcher batcher = new GetBatcher(50, TimeUnit.MILLISECONDS, 8);
+        readConcurrently(batcher);
+        assertTrue(batcher.getBatchCount() + " batches were sent for " + batcher.getRequestCount() + " requests.", batcher.getBatchCount() < batcher.getRequestCount());
+    }
+
+    @Test
+    public void fullBatchIsReadWithoutWaitingForTheWindow() throws Exception {
+        final int maxKeys = 8;
+        final GetBatcher batcher = new GetBatcher(LONG_WINDOW_SECONDS, TimeUnit.SECONDS, maxKeys);
+        Objectis.useGetBatcher(batcher);
+        final ExecutorService executor = Executors.newFixedThreadPool(maxKeys);
+        final ArrayList<Future<Item>> futures = new ArrayList<>();
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < maxKeys; i++) {
+            final String id = "i" + i;
+            futures.add(executor.submit(() -> Objectis.get(Item.class, id)));
+        }
+        for (int i = 0; i < maxKeys; i++) {
+            assertEquals("i" + i, futures.get(i).get().id);
+        }
+        final long elapsedNanos = System.nanoTime() - startTime;
+        executor.shutdown();
+
+        assertEquals(1, batcher.getBatchCount());
+        assertTrue("A full batch took " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms to read.", elapsedNanos < TimeUnit.SECONDS.toNanos(LONG_WINDOW_SECONDS) / 2);
+    }
+
+    @Test
+    public void singleObjectBatchesAreNotShared() throws Exception {
+        final GetBatcher batcher = new GetBatcher(0, TimeUnit.MICROSECONDS, 1);
+        readConcurrently(batcher);
+        assertEquals(0, batcher.getSharedReadCount());
+        assertEquals(batcher.getRequestCount(), batcher.getBatchCount());
+    }
+
+    @Test
+    public void missingObjectsAreReadAsNull() {
+        Objectis.useGetBatcher(new GetBatcher(200, TimeUnit.MICROSECONDS, 64));
+        assertNull(Objectis.get(Item.class, "missing"));
+        assertNull(Objectis.get(HashItem.class, "missing"));
+    }
+
+    /**
+     * Reads random objects from many threads at once, checking that each thread receives the object stored under the ID it read,
+     * and that every read was counted by the batcher.
+     */
+    private static void readConcurrently(GetBatcher batcher) throws Exception {
+        Objectis.useGetBatcher(batcher);
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_OF_THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < NUM_OF_THREADS; thread++) {
+            final Random random = new Random(thread);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int read = 0; read < NUM_OF_READS_PER_THREAD; read++) {
+                    //Some IDs do not exist, and each ID is read by many threads:
+                    final int index = random.nextInt(NUM_OF_ITEMS + NUM_OF_ITEMS / 10);
+                    if (random.nextBoolean()) {
+                        final Item item = Objectis.get(Item.class, "i" + index);
+                        assertTrue("Read " + item + " for the ID i" + index,
+                                index < NUM_OF_ITEMS ? item != null && item.id.equals("i" + index) && item.value == index * 3 : item == null);
+                    }
+                    else {
+                        final HashItem item = Objectis.get(HashItem.class, "h" + index);
+                        assertTrue("Read " + item + " for the ID h" + index,
+                                index < NUM_OF_ITEMS ? item != null && item.id.equals("h" + index) && item.value.equals("value" + index) : item == null);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals((long) NUM_OF_THREADS * NUM_OF_READS_PER_THREAD, batcher.getRequestCount());
+    }
+
+    @ObjectisObject
+    public static class Item implements Serializable {
+
+        private String id;
+        private int value;
+
+        public Item() {
+        }
+
+        public Item(String id, int value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return id + "=" + value;
+        }
+
+    }
+
+    @ObjectisObject
+    public static class HashItem implements Serializable {
+
+        private String id;
+        private String value;
+
+        public HashItem() {
+        }
+
+        public HashItem(String id, String value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return id + "=" + value;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.ClassMetadata;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that ordering while keeping only the first items, using a bounded heap, returns the first items of a full stable sort,
+ * for random items with duplicate and null values, in both directions and with a second ordering field.
+ */
+public class QueryOrderTest {
+
+    private static final int NUM_OF_LISTS = 5000;
+    private static final int MAX_NUM_OF_ITEMS = 40;
+
+    @Test
+    public void boundedHeapReturnsTheFirstItemsOfAStableSort() {
+        final ClassMetadata metadata = new ClassMetadata(Score.class);
+        final Random random = new Random(42);
+        for (int list = 0; list < NUM_OF_LISTS; list++) {
+            final ArrayList<Score> items = new ArrayList<>();
+            final int numOfItems = random.nextInt(MAX_NUM_OF_ITEMS + 1);
+            for (int i = 0; i < numOfItems; i++) {
+                items.add(new Score(i, random.nextInt(6) == 0 ? null : random.nextInt(8), "g" + random.nextInt(3)));
+            }
+            final OrderDirection direction = random.nextBoolean() ? OrderDirection.ASCENDING : OrderDirection.DESCENDING;
+            final QueryOrder<Score> order = new QueryOrder<>(metadata.getFieldAccessor("value"), direction);
+            Comparator<Score> comparator = inDirection(Comparator.comparing((Score score) -> score.value, Comparator.nullsFirst(Comparator.<Integer>naturalOrder())), direction);
+            if (random.nextBoolean()) {
+                final OrderDirection groupDirection = random.nextBoolean() ? OrderDirection.ASCENDING : OrderDirection.DESCENDING;
+                order.thenBy(metadata.getFieldAccessor("group"), groupDirection);
+                comparator = comparator.thenComparing(inDirection(Comparator.comparing((Score score) -> score.group), groupDirection));
+            }
+
+            //List.sort() is stable, so items with equal values keep their original order:
+            final ArrayList<Score> expected = new ArrayList<>(items);
+            expected.sort(comparator);
+            assertEquals("A full sort of " + items, expected, order.apply(new ArrayList<>(items), -1));
+            for (int maxItems = 0; maxItems <= numOfItems + 2; maxItems++) {
+                final ArrayList<Score> input = new ArrayList<>(items);
+                assertEquals("The first " + maxItems + " of " + items, expected.subList(0, Math.min(maxItems, numOfItems)), order.apply(input, maxItems));
+                assertEquals("The input was modified.", items, input);
+            }
+        }
+    }
+
+    private static Comparator<Score> inDirection(Comparator<Score> comparator, OrderDirection direction) {
+        return direction == OrderDirection.ASCENDING ? comparator : comparator.reversed();
+    }
+
+    public static class Score implements Serializable {
+
+        private String id;
+        private int position;
+        private Integer value;
+        private String group;
+
+        public Score() {
+        }
+
+        public Score(int position, Integer value, String group) {
+            this.id = "s" + position;
+            this.position = position;
+            this.value = value;
+            this.group = group;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return position + ":" + value + group;
+        }
+
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.ClassMetadata;
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.ObjectisRegistry;
+import com.raylabz.objectis.RedisTestSupport;
+import com.raylabz.objectis.annotation.Indexed;
+import com.raylabz.objectis.annotation.ObjectisObject;
+import com.raylabz.objectis.annotation.RangeIndexed;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that query plans return the same items as applying the recorded operations one by one, in order, for random chains of
+ * filters, orderings, limits, offsets and start afters - whether the plan reads indexes, pages through a sorted set or scans the class list,
+ * and whether it is executed in full or in pages. Also checks the fused path used for loaded items and the encoding of range bounds.
+ * The query plans are skipped when no Redis server is reachable on localhost:6379.
+ */
+public class QueryPlanTest {
+
+    private static final int NUM_OF_PRODUCTS = 300;
+    private static final int NUM_OF_QUERIES = 2000;
+    private static final String[] CATEGORIES = {"books", "games", "music", "tools", "toys"};
+
+    @Test
+    public void plansReturnTheItemsOfTheOperationsAppliedInOrder() throws ClassRegistrationException {
+        RedisTestSupport.connect();
+        Objectis.register(Product.class);
+
+        final Random random = new Random(42);
+        final ArrayList<Product> products = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_PRODUCTS; i++) {
+            //Prices are unique, so that ordering by price alone gives the same order in Redis and in memory:
+            final Double rating = random.nextInt(5) == 0 ? null : random.nextInt(10) / 2.0;
+            products.add(new Product(String.format("p%04d", i), CATEGORIES[random.nextInt(CATEGORIES.length)], (i * 37) % NUM_OF_PRODUCTS, rating, "name" + random.nextInt(20)));
+        }
+        Objectis.createAll(products);
+        products.sort(Comparator.comparing(Product::getId));
+
+        final ClassMetadata metadata = ObjectisRegistry.getMetadata(Product.class);
+        int numOfResults = 0;
+        int numOfPagedPlans = 0;
+        for (int query = 0; query < NUM_OF_QUERIES; query++) {
+            final List<QueryOperation<Product>> operations = randomOperations(random, metadata);
+            //Unordered items are returned in the order Redis returns their IDs, so only their set is compared:
+            final boolean ordered = operations.stream().anyMatch(operation -> operation instanceof QueryOrder);
+            final List<String> expected = getIds(applyOneByOne(products, operations), ordered);
+            final QueryPlan<Product> plan = QueryPlan.create(Product.class, metadata, operations);
+            assertEquals("execute() of " + plan, expected, getIds(plan.execute(), ordered));
+            assertEquals("executeInPages() of " + plan, expected, getIds(flatten(QueryPlan.create(Product.class, metadata, operations).executeInPages(7)), ordered));
+            assertEquals("applyAll() of " + plan, expected, getIds(QueryPlan.applyAll(Product.class, products, operations), ordered));
+            numOfResults += expected.size();
+            if (plan.toString().contains(" page")) {
+                numOfPagedPlans++;
+            }
+        }
+        //Both paths of the planner are exercised:
+        assertTrue("No plan paged through a sorted set.", numOfPagedPlans > 0);
+        assertTrue("Every plan paged through a sorted set.", numOfPagedPlans < NUM_OF_QUERIES);
+        assertTrue("No query returned any items.", numOfResults > 0);
+    }
+
+    @Test
+    public void rangeBoundsKeepTheNarrowestBounds() {
+        final RangeBounds bounds = new RangeBounds();
+        assertArgument("-inf", bounds.getMinArgument());
+        assertArgument("+inf", bounds.getMaxArgument());
+
+        bounds.restrictMin(5, true);
+        bounds.restrictMin(5, false);
+        bounds.restrictMin(3, false);
+        assertArgument("(5.0", bounds.getMinArgument());
+        assertArgument("5.0", bounds.getBelowMinArgument());
+
+        bounds.restrictMax(9.5, false);
+        bounds.restrictMax(10, true);
+        assertArgument("9.5", bounds.getMaxArgument());
+        assertArgument("(9.5", bounds.getAboveMaxArgument());
+
+        bounds.restrictMax(9.5, true);
+        assertArgument("(9.5", bounds.getMaxArgument());
+        assertEquals("(5.0, 9.5)", bounds.toString());
+    }
+
+    /**
+     * Creates a chain of operations. Limits, offsets and start afters only follow an ordering, as their result would otherwise depend
+     * on the order in which Redis returns IDs. Orderings are total, either by the unique price or followed by the ID.
+     */
+    private static List<QueryOperation<Product>> randomOperations(Random random, ClassMetadata metadata) {
+        final ArrayList<QueryOperation<Product>> operations = new ArrayList<>();
+        boolean ordered = false;
+        final int numOfOperations = 1 + random.nextInt(5);
+        for (int i = 0; i < numOfOperations; i++) {
+            final int choice = random.nextInt(ordered ? 10 : 6);
+            if (choice < 4) {
+                operations.add(randomFilter(random, metadata));
+            }
+            else if (choice < 6) {
+                operations.add(randomOrder(random, metadata));
+                ordered = true;
+            }
+            else if (choice < 8) {
+                operations.add(QueryWindow.limit(random.nextInt(50)));
+            }
+            else if (choice < 9) {
+                operations.add(QueryWindow.offset(random.nextInt(60)));
+            }
+            else {
+                operations.add(QueryWindow.startAfter(String.format("p%04d", random.nextInt(NUM_OF_PRODUCTS)), metadata));
+            }
+        }
+        return operations;
+    }
+
+    private static QueryFilter<Product> randomFilter(Random random, ClassMetadata metadata) {
+        final FilterOperator[] rangeOperators = {FilterOperator.GREATER_THAN, FilterOperator.GREATER_THAN_OR_EQUAL_TO, FilterOperator.LESS_THAN, FilterOperator.LESS_THAN_OR_EQUAL_TO};
+        switch (random.nextInt(5)) {
+            case 0:
+                return new QueryFilter<>(metadata.getFieldAccessor("category"), FilterOperator.EQUAL_TO, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            case 1:
+                return new QueryFilter<>(metadata.getFieldAccessor("category"), FilterOperator.NOT_EQUAL_TO, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            case 2:
+                return new QueryFilter<>(metadata.getFieldAccessor("price"), rangeOperators[random.nextInt(rangeOperators.length)], random.nextInt(NUM_OF_PRODUCTS));
+            case 3:
+                //Integer and fractional bounds on a Double field:
+                final Object rating = random.nextBoolean() ? (Object) random.nextInt(5) : (Object) (random.nextInt(10) / 2.0 + 0.25);
+                return new QueryFilter<>(metadata.getFieldAccessor("rating"), rangeOperators[random.nextInt(rangeOperators.length)], rating);
+            default:
+                return new QueryFilter<>(metadata.getFieldAccessor("name"), FilterOperator.EQUAL_TO, "name" + random.nextInt(20));
+        }
+    }
+
+    private static QueryOrder<Product> randomOrder(Random random, ClassMetadata metadata) {
+        final OrderDirection direction = random.nextBoolean() ? OrderDirection.ASCENDING : OrderDirection.DESCENDING;
+        switch (random.nextInt(3)) {
+            case 0:
+                return new QueryOrder<>(metadata.getFieldAccessor("price"), direction);
+            case 1:
+                final QueryOrder<Product> byRating = new QueryOrder<>(metadata.getFieldAccessor("rating"), direction);
+                byRating.thenBy(metadata.getIdAccessor(), OrderDirection.ASCENDING);
+                return byRating;
+            default:
+                final QueryOrder<Product> byCategory = new QueryOrder<>(metadata.getFieldAccessor("category"), direction);
+                byCategory.thenBy(metadata.getFieldAccessor("price"), OrderDirection.DESCENDING);
+                return byCategory;
+        }
+    }
+
+    private static List<Product> applyOneByOne(List<Product> products, List<QueryOperation<Product>> operations) {
+        List<Product> items = new ArrayList<>(products);
+        for (QueryOperation<Product> operation : operations) {
+            items = operation.apply(items);
+        }
+        return items;
+    }
+
+    private static <E> List<E> flatten(Iterator<List<E>> pages) {
+        final ArrayList<E> items = new ArrayList<>();
+        while (pages.hasNext()) {
+            items.addAll(pages.next());
+        }
+        return items;
+    }
+
+    private static List<String> getIds(List<Product> products, boolean ordered) {
+        final ArrayList<String> ids = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ids.add(product.getId());
+        }
+        if (!ordered) {
+            ids.sort(null);
+        }
+        return ids;
+    }
+
+    private static void assertArgument(String expected, byte[] argument) {
+        assertEquals(expected, new String(argument, StandardCharsets.US_ASCII));
+    }
+
+    @ObjectisObject
+    public static class Product implements Serializable {
+
+        private String id;
+        @Indexed
+        private String category;
+        @RangeIndexed
+        private int price;
+        @RangeIndexed
+        private Double rating;
+        private String name;
+
+        public Product() {
+        }
+
+        public Product(String id, String category, int price, Double rating, String name) {
+            this.id = id;
+            this.category = category;
+            this.price = price;
+            this.rating = rating;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.raylabz.objectis.query;
+
+import com.raylabz.objectis.Objectis;
+import com.raylabz.objectis.RedisTestSupport;
+import com.raylabz.objectis.annotation.Indexed;
+import com.raylabz.objectis.annotation.ObjectisObject;
+import com.raylabz.objectis.annotation.RangeIndexed;
+import com.raylabz.objectis.exception.ClassRegistrationException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pages through queries using startAfter() with the last document ID of the previous page, and checks that the pages together
+ * hold the same items as the query fetched at once - both when pages are read by rank from a sorted set and when the items are ordered in memory.
+ * Skipped when no Redis server is reachable on localhost:6379.
+ */
+public class StartAfterTest {
+
+    private static final int NUM_OF_ORDERS = 500;
+    private static final int[] PAGE_SIZES = {1, 7, 50, 1000};
+
+    @BeforeClass
+    public static void createOrders() throws ClassRegistrationException {
+        RedisTestSupport.connect();
+        Objectis.register(Order.class);
+
+        final Random random = new Random(42);
+        final ArrayList<Order> orders = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_ORDERS; i++) {
+            orders.add(new Order("o" + i, random.nextBoolean() ? "open" : "closed", (i * 7919) % NUM_OF_ORDERS, random.nextInt(10)));
+        }
+        Objectis.createAll(orders);
+    }
+
+    @Test
+    public void pagesByRankFromASortedSet() {
+        checkPages("by total", () -> Objectis.filter(Order.class).orderBy("total", OrderDirection.ASCENDING));
+        checkPages("by total, descending", () -> Objectis.filter(Order.class).orderBy("total", OrderDirection.DESCENDING));
+        checkPages("by total within a range", () -> Objectis.filter(Order.class).whereGreaterThanOrEqualTo("total", 100).whereLessThan("total", 400).orderBy("total", OrderDirection.DESCENDING));
+    }
+
+    @Test
+    public void pagesOrderedInMemory() {
+        checkPages("open orders by total", () -> Objectis.filter(Order.class).whereEqualTo("status", "open").orderBy("total", OrderDirection.ASCENDING));
+        checkPages("by quantity, then by total", () -> Objectis.filter(Order.class).orderBy("quantity", OrderDirection.DESCENDING).thenBy("total", OrderDirection.ASCENDING));
+    }
+
+    @Test
+    public void itemThatNoLongerMatchesEndsThePagination() {
+        final ObjectisQueryResult<Order> firstPage = Objectis.filter(Order.class).orderBy("total", OrderDirection.DESCENDING).limit(10).fetch();
+        final String lastDocumentID = firstPage.getLastDocumentID();
+        Objectis.delete(Order.class, lastDocumentID);
+        try {
+            final List<Order> afterDeleted = Objectis.filter(Order.class).orderBy("total", OrderDirection.DESCENDING).startAfter(lastDocumentID).limit(10).fetch().getItems();
+            assertTrue("Expected no items after a deleted item but found " + afterDeleted, afterDeleted.isEmpty());
+        } finally {
+            Objectis.create(firstPage.getItems().get(firstPage.getItems().size() - 1));
+        }
+    }
+
+    private static void checkPages(String description, Supplier<ObjectisFilterable<Order>> query) {
+        final List<String> expected = getIds(query.get().fetch().getItems());
+        for (int pageSize : PAGE_SIZES) {
+            final ArrayList<String> paged = new ArrayList<>();
+            String lastDocumentID = null;
+            while (true) {
+                final ObjectisFilterable<Order> page = query.get();
+                if (lastDocumentID != null) {
+                    page.startAfter(lastDocumentID);
+                }
+                final ObjectisQueryResult<Order> result = page.limit(pageSize).fetch();
+                if (!result.hasItems()) {
+                    break;
+                }
+                paged.addAll(getIds(result.getItems()));
+                lastDocumentID = result.getLastDocumentID();
+            }
+            assertEquals(description + ", in pages of " + pageSize, expected, paged);
+        }
+    }
+
+    private static List<String> getIds(List<Order> orders) {
+        final ArrayList<String> ids = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            ids.add(order.getId());
+        }
+        return ids;
+    }
+
+    @ObjectisObject
+    public static class Order implements Serializable {
+
+        private String id;
+        @Indexed
+        private String status;
+        @RangeIndexed
+        private int total;
+        private int quantity;
+
+        public Order() {
+        }
+
+        public Order(String id, String status, int total, int quantity) {
+            this.id = id;
+            this.status = status;
+            this.total = total;
+            this.quantity = quantity;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+    }
+
+}
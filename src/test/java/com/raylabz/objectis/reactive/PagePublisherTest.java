@@ -0,0 +1,366 @@
+package com.raylabz.objectis.reactive;
+
+import com.raylabz.objectis.exception.OperationFailedException;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the demand handling of the page publisher: items are published in order and never beyond the number requested, pages are only read
+ * once their items are requested, and invalid requests, cancellation, failing pages and rejected tasks end the subscription with the expected signal.
+ * Also requests items from many threads at once and checks that every item is published exactly once.
+ */
+public class PagePublisherTest {
+
+    private static final int NUM_OF_CONCURRENT_RUNS = 200;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void pagesAreReadOnlyOnceTheirItemsAreRequested() {
+        final ManualExecutor executor = new ManualExecutor();
+        final CountingSource source = new CountingSource(pages(25, 10));
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        new PagePublisher<>(source, () -> executor).subscribe(subscriber);
+        assertEquals("The pages were opened before any items were requested.", 0, source.opened.get());
+
+        subscriber.subscription.request(5);
+        assertTrue("Items were published on the requesting thread.", subscriber.items.isEmpty());
+        executor.runAll();
+        assertEquals("Expected the first 5 items but found " + subscriber.items, range(0, 5), subscriber.items);
+        assertEquals("Expected a single page to be read but " + source.read.get() + " were read.", 1, source.read.get());
+
+        subscriber.subscription.request(6);
+        executor.runAll();
+        assertEquals("Expected the first 11 items but found " + subscriber.items, range(0, 11), subscriber.items);
+        assertEquals("Expected 2 pages to be read but " + source.read.get() + " were read.", 2, source.read.get());
+        assertFalse("Completed before all items were published.", subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        executor.runAll();
+        assertEquals("Expected all 25 items but found " + subscriber.items, range(0, 25), subscriber.items);
+        assertTrue("Expected the subscription to complete.", subscriber.completed);
+        assertNull(subscriber.error);
+        assertEquals("The pages were opened " + source.opened.get() + " times.", 1, source.opened.get());
+
+        //Completes as soon as the last item is published, without waiting for more demand:
+        final RecordingSubscriber exactSubscriber = new RecordingSubscriber();
+        new PagePublisher<>(new CountingSource(pages(20, 10)), () -> executor).subscribe(exactSubscriber);
+        exactSubscriber.subscription.request(20);
+        executor.runAll();
+        assertEquals(range(0, 20), exactSubscriber.items);
+        assertTrue("Expected the subscription to complete after exactly the requested items.", exactSubscriber.completed);
+    }
+
+    @Test
+    public void emptyPagesAreSkipped() {
+        final ManualExecutor executor = new ManualExecutor();
+        final ArrayList<List<Integer>> pages = new ArrayList<>();
+        pages.add(Collections.emptyList());
+        pages.add(range(0, 3));
+        pages.add(Collections.emptyList());
+        pages.add(Collections.emptyList());
+        pages.add(range(3, 4));
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        new PagePublisher<>(new CountingSource(pages), () -> executor).subscribe(subscriber);
+        subscriber.subscription.request(10);
+        executor.runAll();
+        assertEquals(range(0, 4), subscriber.items);
+        assertTrue(subscriber.completed);
+
+        final RecordingSubscriber emptySubscriber = new RecordingSubscriber();
+        new PagePublisher<>(new CountingSource(new ArrayList<>()), () -> executor).subscribe(emptySubscriber);
+        emptySubscriber.subscription.request(1);
+        executor.runAll();
+        assertTrue(emptySubscriber.items.isEmpty());
+        assertTrue("Expected a publisher without pages to complete.", emptySubscriber.completed);
+    }
+
+    @Test
+    public void invalidRequestEndsTheSubscriptionWithAnError() {
+        final ManualExecutor executor = new ManualExecutor();
+        for (long n : new long[]{0, -1, Long.MIN_VALUE}) {
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            new PagePublisher<>(new CountingSource(pages(25, 10)), () -> executor).subscribe(subscriber);
+            subscriber.subscription.request(3);
+            subscriber.subscription.request(n);
+            subscriber.subscription.request(3);
+            executor.runAll();
+            assertTrue("Expected an IllegalArgumentException after requesting " + n + " items but found " + subscriber.error, subscriber.error instanceof IllegalArgumentException);
+            assertTrue("Items were published after requesting " + n + " items.", subscriber.items.isEmpty());
+            assertFalse(subscriber.completed);
+        }
+    }
+
+    @Test
+    public void cancelStopsPublishing() {
+        final ManualExecutor executor = new ManualExecutor();
+        final CountingSource source = new CountingSource(pages(100, 10));
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        new PagePublisher<>(source, () -> executor).subscribe(subscriber);
+        subscriber.subscription.request(15);
+        executor.runAll();
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(50);
+        executor.runAll();
+        assertEquals("Items were published after cancelling: " + subscriber.items, range(0, 15), subscriber.items);
+        assertFalse("A terminal signal was sent after cancelling.", subscriber.completed);
+        assertNull(subscriber.error);
+        assertEquals("Pages were read after cancelling.", 2, source.read.get());
+
+        //Cancelling from onNext stops publishing within the current page:
+        final RecordingSubscriber cancellingSubscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                if (item == 4) {
+                    subscription.cancel();
+                }
+            }
+        };
+        new PagePublisher<>(new CountingSource(pages(100, 10)), () -> executor).subscribe(cancellingSubscriber);
+        cancellingSubscriber.subscription.request(Long.MAX_VALUE);
+        executor.runAll();
+        assertEquals("Items were published after cancelling from onNext: " + cancellingSubscriber.items, range(0, 5), cancellingSubscriber.items);
+    }
+
+    @Test
+    public void failingPageIsSentToTheSubscriber() {
+        final ManualExecutor executor = new ManualExecutor();
+        final IllegalStateException failure = new IllegalStateException("The page cannot be read.");
+        final PagePublisher.PageSource<Integer> source = () -> new Iterator<List<Integer>>() {
+            private int numOfPages = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public List<Integer> next() {
+                if (numOfPages == 2) {
+                    throw failure;
+                }
+                return range(10 * numOfPages, 10 * ++numOfPages);
+            }
+        };
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        new PagePublisher<>(source, () -> executor).subscribe(subscriber);
+        subscriber.subscription.request(100);
+        executor.runAll();
+        subscriber.subscription.request(100);
+        executor.runAll();
+        assertEquals("Expected the items of the pages read before the failure but found " + subscriber.items, range(0, 20), subscriber.items);
+        assertSame(failure, subscriber.error);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void rejectedTaskEndsTheSubscriptionWithAnError() {
+        final Executor rejectingExecutor = command -> {
+            throw new RejectedExecutionException("The executor has been shut down.");
+        };
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        new PagePublisher<>(new CountingSource(pages(25, 10)), () -> rejectingExecutor).subscribe(subscriber);
+        subscriber.subscription.request(5);
+        assertTrue("Expected an OperationFailedException but found " + subscriber.error, subscriber.error instanceof OperationFailedException);
+        subscriber.subscription.request(5);
+        assertTrue("Items were published after the task was rejected.", subscriber.items.isEmpty());
+        assertFalse(subscriber.completed);
+
+        //A cancelled subscriber receives no error:
+        final RecordingSubscriber cancelledSubscriber = new RecordingSubscriber();
+        new PagePublisher<>(new CountingSource(pages(25, 10)), () -> rejectingExecutor).subscribe(cancelledSubscriber);
+        cancelledSubscriber.subscription.cancel();
+        assertNull("A cancelled subscriber received an error.", cancelledSubscriber.error);
+
+        //The executor is looked up for each task, so a subscription keeps publishing on a replacement executor:
+        final ManualExecutor executor = new ManualExecutor();
+        final ManualExecutor replacement = new ManualExecutor();
+        final Executor[] current = {executor};
+        final RecordingSubscriber movedSubscriber = new RecordingSubscriber();
+        new PagePublisher<>(new CountingSource(pages(25, 10)), () -> current[0]).subscribe(movedSubscriber);
+        movedSubscriber.subscription.request(5);
+        executor.runAll();
+        current[0] = replacement;
+        movedSubscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(executor.tasks.isEmpty());
+        assertEquals("The replacement executor was not used.", 1, replacement.tasks.size());
+        replacement.runAll();
+        assertEquals(range(0, 25), movedSubscriber.items);
+        assertTrue(movedSubscriber.completed);
+    }
+
+    @Test
+    public void concurrentRequestsPublishEveryItemOnce() throws InterruptedException {
+        final ExecutorService publishingExecutor = Executors.newFixedThreadPool(4);
+        final ExecutorService requestingExecutor = Executors.newFixedThreadPool(8);
+        final Random random = new Random(42);
+        try {
+            for (int run = 0; run < NUM_OF_CONCURRENT_RUNS; run++) {
+                final int numOfItems = random.nextInt(500);
+                final int pageSize = 1 + random.nextInt(30);
+                final RecordingSubscriber subscriber = new RecordingSubscriber();
+                new PagePublisher<>(new CountingSource(pages(numOfItems, pageSize)), () -> publishingExecutor).subscribe(subscriber);
+                //Requests one item at a time from several threads, so that requests arrive while items are being published:
+                for (int i = 0; i <= numOfItems; i++) {
+                    requestingExecutor.execute(() -> subscriber.subscription.request(1));
+                }
+                subscriber.awaitTermination();
+                assertNull("Run " + run + " failed.", subscriber.error);
+                assertEquals("Run " + run + " published the wrong items.", range(0, numOfItems), subscriber.items);
+            }
+        } finally {
+            publishingExecutor.shutdown();
+            requestingExecutor.shutdown();
+        }
+    }
+
+    private static List<Integer> range(int from, int to) {
+        final ArrayList<Integer> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static List<List<Integer>> pages(int numOfItems, int pageSize) {
+        final ArrayList<List<Integer>> pages = new ArrayList<>();
+        for (int from = 0; from < numOfItems; from += pageSize) {
+            pages.add(range(from, Math.min(from + pageSize, numOfItems)));
+        }
+        return pages;
+    }
+
+    /**
+     * Runs tasks only when asked to, so that the state between signals can be checked.
+     */
+    private static final class ManualExecutor implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        private void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+            }
+        }
+
+    }
+
+    /**
+     * Counts how many times the pages were opened and how many pages were read.
+     */
+    private static final class CountingSource implements PagePublisher.PageSource<Integer> {
+
+        private final List<List<Integer>> pages;
+        private final AtomicInteger opened = new AtomicInteger();
+        private final AtomicInteger read = new AtomicInteger();
+
+        private CountingSource(List<List<Integer>> pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public Iterator<List<Integer>> open() {
+            opened.incrementAndGet();
+            final Iterator<List<Integer>> iterator = pages.iterator();
+            return new Iterator<List<Integer>>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public List<Integer> next() {
+                    read.incrementAndGet();
+                    return iterator.next();
+                }
+            };
+        }
+
+    }
+
+    /**
+     * Records the signals it receives, and checks that items are never published beyond the number requested or after a terminal signal.
+ * A failed check stops the publishing thread, so the awaited terminal signal never arrives.
+     */
+    private static class RecordingSubscriber implements Subscriber<Integer> {
+
+        protected volatile Subscription subscription;
+        private final AtomicLong requested = new AtomicLong();
+        private final List<Integer> items = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile boolean completed = false;
+        private volatile Throwable error = null;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            final Subscription counted = new Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n > 0) {
+                        requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+                    }
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                }
+            };
+            this.subscription = counted;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            assertTrue("The item " + item + " was published after a terminal signal.", !completed && error == null);
+            items.add(item);
+            assertTrue("Published " + items.size() + " items when only " + requested.get() + " were requested.", items.size() <= requested.get());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            assertTrue("A second terminal signal was sent: " + throwable, !completed && error == null);
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            assertTrue("A second terminal signal was sent.", !completed && error == null);
+            completed = true;
+            terminated.countDown();
+        }
+
+        void awaitTermination() throws InterruptedException {
+            assertTrue("The subscription did not end.", terminated.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+    }
+
+}